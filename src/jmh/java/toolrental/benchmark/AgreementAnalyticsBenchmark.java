@@ -0,0 +1,105 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.analytics.AggregationResult;
+import toolrental.analytics.AgreementFilter;
+import toolrental.analytics.AgreementStore;
+import toolrental.analytics.GroupKey;
+import toolrental.analytics.Measure;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Revenue by tool type for half a year of a two-year history, computed with streams over
+ * {@link RentalAgreement} objects and with {@link AgreementStore} on one thread and on the common pool, and the
+ * cost of building the store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class AgreementAnalyticsBenchmark {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final LocalDate START = LocalDate.of(2019, 1, 1);
+    private static final LocalDate FROM = LocalDate.of(2019, 4, 1);
+    private static final LocalDate TO = LocalDate.of(2019, 10, 1);
+
+    @Param({"1000000"})
+    public int agreements;
+
+    private List<RentalAgreement> objects;
+    private AgreementStore store;
+    private AgreementFilter filter;
+
+    @Setup
+    public void setup() {
+        CheckoutService service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+        Random random = new Random(42);
+        objects = new ArrayList<>(agreements);
+        for (int i = 0; i < agreements; i++) {
+            objects.add(service.quote(TOOL_CODES[random.nextInt(TOOL_CODES.length)], 1 + random.nextInt(30), random.nextInt(101),
+                    START.plusDays(random.nextInt(730))));
+        }
+        store = new AgreementStore();
+        store.addAll(objects);
+        filter = AgreementFilter.all().checkoutBetween(FROM, TO);
+    }
+
+    /**
+     * Copies the agreements into a new store. The GC profiler's bytes per operation are the store's memory, to
+     * compare with the agreements' own footprint of about 132 bytes each.
+     */
+    @Benchmark
+    public AgreementStore buildStore() {
+        AgreementStore copy = new AgreementStore();
+        copy.addAll(objects);
+        return copy;
+    }
+
+    @Benchmark
+    public Map<String, Long> objectStream() {
+        return objects.stream()
+                .filter(a -> !a.getCheckoutDate().isBefore(FROM) && a.getCheckoutDate().isBefore(TO))
+                .collect(Collectors.groupingBy(RentalAgreement::getToolType, Collectors.summingLong(RentalAgreement::getFinalChargeCents)));
+    }
+
+    @Benchmark
+    public Map<String, Long> objectParallelStream() {
+        return objects.parallelStream()
+                .filter(a -> !a.getCheckoutDate().isBefore(FROM) && a.getCheckoutDate().isBefore(TO))
+                .collect(Collectors.groupingBy(RentalAgreement::getToolType, Collectors.summingLong(RentalAgreement::getFinalChargeCents)));
+    }
+
+    @Benchmark
+    public AggregationResult columnar() {
+        return store.aggregate(filter, GroupKey.TOOL_TYPE, Measure.FINAL_CENTS);
+    }
+
+    @Benchmark
+    public AggregationResult columnarParallel() {
+        return store.aggregate(filter, GroupKey.TOOL_TYPE, Measure.FINAL_CENTS, ForkJoinPool.commonPool());
+    }
+}
@@ -0,0 +1,72 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.AgreementRenderer;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of the printed rental agreement. {@link RentalAgreement#printAgreement()} writes to
+ * {@code System.out}, which is replaced by a stream that discards its input for the duration of the benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AgreementRenderingBenchmark {
+    private RentalAgreement agreement;
+    private StringBuilder buffer;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        CheckoutService service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+        agreement = service.checkout("JAKR", 90, 15, LocalDate.of(2020, 7, 2));
+        buffer = new StringBuilder(512);
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void printAgreement() {
+        agreement.printAgreement();
+    }
+
+    @Benchmark
+    public StringBuilder renderToBuilder() {
+        buffer.setLength(0);
+        return AgreementRenderer.render(agreement, buffer);
+    }
+}
@@ -0,0 +1,69 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.loader.ToolLoader;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to check out a batch of 200,000 mixed requests, a sixth of them invalid, on fork-join pools of different
+ * sizes. The speedup over a parallelism of 1 should approach the core count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchCheckoutBenchmark {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR", "NOPE"};
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private CheckoutService service;
+    private ForkJoinPool pool;
+    private List<CheckoutRequest> requests;
+
+    @Setup
+    public void setup() {
+        service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+        pool = new ForkJoinPool(parallelism);
+        requests = new ArrayList<>(200_000);
+        LocalDate firstCheckout = LocalDate.of(2015, 6, 1);
+        for (int i = 0; i < 200_000; i++) {
+            int discountPercent = i % 17 == 0 ? 150 : i % 100;
+            requests.add(new CheckoutRequest(TOOL_CODES[i % TOOL_CODES.length], 1 + i % 60, discountPercent,
+                    firstCheckout.plusDays(i % 500)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<CheckoutResult> checkoutBatch() {
+        return service.checkoutBatch(requests, pool);
+    }
+}
@@ -0,0 +1,58 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.loader.ToolLoader;
+import toolrental.metrics.CheckoutMetrics;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of recording {@link CheckoutMetrics}: the same short checkout with metrics disabled, timing every
+ * checkout, and timing one in 16.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckoutMetricsBenchmark {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    /** One in how many checkouts is timed, or 0 to run without metrics. */
+    @Param({"0", "1", "16"})
+    public int latencySampleInterval;
+
+    private CheckoutService service;
+    private LocalDate checkoutDate;
+    private int next;
+
+    @Setup
+    public void setup() {
+        service = CheckoutService.builder()
+                .toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .metrics(latencySampleInterval > 0 ? new CheckoutMetrics(latencySampleInterval) : null)
+                .build();
+        checkoutDate = LocalDate.of(2020, 7, 2);
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() {
+        int i = next++;
+        return service.checkout(TOOL_CODES[i & 3], 5, i % 101, checkoutDate);
+    }
+}
@@ -0,0 +1,63 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.service.QuoteCache;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout throughput with one shared {@link CheckoutService} called from as many threads as there are
+ * processors, with and without a shared {@link QuoteCache}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class CheckoutThroughputBenchmark {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    @Param({"false", "true"})
+    public boolean quoteCache;
+
+    private CheckoutService service;
+    private LocalDate[] checkoutDates;
+
+    @Setup
+    public void setup() {
+        service = CheckoutService.builder()
+                .toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .quoteCache(quoteCache ? new QuoteCache(16_384) : null)
+                .build();
+        checkoutDates = new LocalDate[365];
+        for (int i = 0; i < checkoutDates.length; i++) {
+            checkoutDates[i] = LocalDate.of(2020, 1, 1).plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return service.checkout(TOOL_CODES[random.nextInt(TOOL_CODES.length)], 1 + random.nextInt(14), random.nextInt(101),
+                checkoutDates[random.nextInt(checkoutDates.length)]);
+    }
+}
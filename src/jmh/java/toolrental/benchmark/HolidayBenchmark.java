@@ -0,0 +1,55 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holiday checks on the standard calendar: single days, counts over a rental-sized range and counts over
+ * ranges spanning decades.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HolidayBenchmark {
+    private PrecomputedHolidayCalendar calendar;
+    private long firstDay;
+    private int next;
+
+    @Setup
+    public void setup() {
+        calendar = PrecomputedHolidayCalendar.standard();
+        firstDay = LocalDate.of(2000, 1, 1).toEpochDay();
+    }
+
+    @Benchmark
+    public boolean isHoliday() {
+        return calendar.isHoliday(firstDay + (next++ & 0x3FFF));
+    }
+
+    @Benchmark
+    public int countHolidaysInMonth() {
+        long first = firstDay + (next++ & 0x3FFF);
+        return calendar.countHolidays(first, first + 30);
+    }
+
+    @Benchmark
+    public int countHolidaysInCentury() {
+        long first = firstDay + (next++ & 0x3FFF);
+        return calendar.countHolidays(first, first + 36_524);
+    }
+}
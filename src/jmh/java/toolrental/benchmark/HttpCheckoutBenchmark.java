@@ -0,0 +1,79 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.http.CheckoutHttpServer;
+import toolrental.loader.ToolLoader;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of {@code POST /checkout} against a local {@link CheckoutHttpServer}, over keep-alive
+ * connections. Sample mode reports the p50, p99 and p99.9 latencies; pass {@code -t} to change the number of
+ * concurrent clients.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(4)
+@State(Scope.Benchmark)
+public class HttpCheckoutBenchmark {
+    private static final byte[] REQUEST = ("{\"toolCode\":\"JAKR\",\"checkoutDate\":\"2015-07-02\",\"rentalDays\":9,"
+            + "\"discountPercent\":0}").getBytes(StandardCharsets.UTF_8);
+
+    private CheckoutHttpServer server;
+    private URL checkoutUrl;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new CheckoutHttpServer(CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools())).build(),
+                new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        checkoutUrl = new URL("http://127.0.0.1:" + server.getPort() + "/checkout");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int checkout() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) checkoutUrl.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(REQUEST);
+        }
+        int status = connection.getResponseCode();
+        // Reading the body to the end returns the connection to the keep-alive cache.
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) > 0) {
+                // Discard the agreement.
+            }
+        }
+        return status;
+    }
+}
@@ -0,0 +1,118 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.journal.AgreementJournal;
+import toolrental.journal.DurabilityMode;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends to an {@link AgreementJournal} from several threads at each durability level, and replays a journal
+ * of a million agreements. With {@code DATA_SYNC}, concurrent appends share a sync, so throughput should grow
+ * with the thread count while {@link AgreementJournal#getCommitCount()} grows far more slowly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    private static RentalAgreement[] samples() {
+        CheckoutService service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+        RentalAgreement[] samples = new RentalAgreement[64];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = service.quote(TOOL_CODES[i % TOOL_CODES.length], 1 + i % 20, i % 101,
+                    LocalDate.of(2015, 1, 1).plusDays(i * 11));
+        }
+        return samples;
+    }
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+        @Param({"OS_BUFFERED", "DATA_SYNC"})
+        public DurabilityMode durabilityMode;
+
+        private Path file;
+        private AgreementJournal journal;
+        private RentalAgreement[] samples;
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            file = Files.createTempFile("append", ".journal");
+            Files.delete(file);
+            journal = AgreementJournal.open(file, durabilityMode);
+            samples = samples();
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            journal.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+        private Path file;
+
+        @Setup(Level.Trial)
+        public void write() throws IOException {
+            file = Files.createTempFile("replay", ".journal");
+            Files.delete(file);
+            RentalAgreement[] samples = samples();
+            try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+                for (int i = 0; i < 1_000_000; i++) {
+                    journal.append(samples[i & 63]);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long append(AppendState state) throws IOException {
+        return state.journal.append(state.samples[ThreadLocalRandom.current().nextInt(64)]);
+    }
+
+    /**
+     * Each operation replays the whole journal, so agreements per second are a million times the score.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public long replay(ReplayState state) throws IOException {
+        long[] finalCents = new long[1];
+        AgreementJournal.replay(state.file, agreement -> finalCents[0] += agreement.getFinalChargeCents());
+        return finalCents[0];
+    }
+}
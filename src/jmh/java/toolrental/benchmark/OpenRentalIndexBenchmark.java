@@ -0,0 +1,108 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.holiday.FixedDateHolidayRule;
+import toolrental.holiday.HolidayRule;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.loader.ToolLoader;
+import toolrental.loadtest.WorkloadGenerator;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutService;
+import toolrental.service.OpenRentalIndex;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds or removes a one-day store holiday under a million open rentals, and finds the rentals it affects with
+ * {@link OpenRentalIndex#repriceHolidays} and with a fresh quote for every rental. The holiday is toggled before
+ * each invocation, so every call has the same, small number of rentals to reprice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class OpenRentalIndexBenchmark {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2014, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(2026, 12, 31);
+
+    @Param({"1000000"})
+    public int openRentals;
+
+    private PrecomputedHolidayCalendar calendar;
+    private CheckoutService service;
+    private OpenRentalIndex index;
+    private int[] handles;
+    private List<HolidayRule> standardRules;
+    private List<HolidayRule> anniversaryRules;
+    private PrecomputedHolidayCalendar previous;
+    private List<LocalDate> changed;
+    private boolean anniversary;
+
+    @Setup
+    public void setup() {
+        calendar = PrecomputedHolidayCalendar.standard();
+        service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools())).holidayCalendar(calendar).build();
+        index = new OpenRentalIndex(service);
+        List<CheckoutRequest> requests = WorkloadGenerator.builder().seed(4).toolCodes(Arrays.asList("LADW", "JAKR", "CHNS", "JAKD"))
+                .invalidShare(0.0).firstYear(2015).lastYear(2025).build().generate(openRentals);
+        handles = new int[openRentals];
+        for (int i = 0; i < openRentals; i++) {
+            CheckoutRequest request = requests.get(i);
+            handles[i] = index.add(service.checkout(request.getToolCode(), request.getRentalDays(), request.getDiscountPercent(),
+                    request.getCheckoutDate()));
+        }
+        standardRules = PrecomputedHolidayCalendar.standardRules();
+        anniversaryRules = new ArrayList<>(standardRules);
+        anniversaryRules.add(new FixedDateHolidayRule("Store Anniversary", MonthDay.of(Month.MARCH, 17), false));
+        changed = OpenRentalIndex.changedHolidays(new PrecomputedHolidayCalendar(standardRules),
+                new PrecomputedHolidayCalendar(anniversaryRules), FIRST_DATE, LAST_DATE);
+    }
+
+    @Setup(Level.Invocation)
+    public void toggleAnniversary() {
+        previous = new PrecomputedHolidayCalendar(calendar.getRules());
+        anniversary = !anniversary;
+        calendar.replaceRules(anniversary ? anniversaryRules : standardRules);
+    }
+
+    @Benchmark
+    public int index() {
+        return index.repriceHolidays(previous, changed, agreement -> { });
+    }
+
+    /**
+     * Quotes every open rental again and counts those whose charge days differ. The index is never updated, so
+     * half the invocations find the rentals the holiday affects and the other half find none.
+     */
+    @Benchmark
+    public int fullRescan() {
+        int stale = 0;
+        for (int handle : handles) {
+            RentalAgreement open = index.get(handle);
+            RentalAgreement quote = service.quote(open.getToolCode(), open.getRentalDays(), open.getDiscountPercent(), open.getCheckoutDate());
+            stale += quote.getChargeDays() != open.getChargeDays() ? 1 : 0;
+        }
+        return stale;
+    }
+}
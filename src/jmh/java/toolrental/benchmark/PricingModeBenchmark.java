@@ -0,0 +1,66 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.service.PricingMode;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two pricing modes on a short rental: the agreement alone, and the agreement with its amounts read
+ * back in cents, as the encoders and the journal do. Run with the GC profiler to compare bytes per checkout; both
+ * modes allocate only the agreement and its due date.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingModeBenchmark {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    @Param({"FLOATING_POINT", "EXACT_CENTS"})
+    public PricingMode pricingMode;
+
+    private CheckoutService service;
+    private LocalDate[] checkoutDates;
+    private int next;
+
+    @Setup
+    public void setup() {
+        service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()), PrecomputedHolidayCalendar.standard(), pricingMode);
+        checkoutDates = new LocalDate[365];
+        for (int i = 0; i < checkoutDates.length; i++) {
+            checkoutDates[i] = LocalDate.of(2020, 1, 1).plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() {
+        int i = next++;
+        return service.checkout(TOOL_CODES[i & 3], 5, i % 101, checkoutDates[i % checkoutDates.length]);
+    }
+
+    @Benchmark
+    public long checkoutInCents() {
+        RentalAgreement agreement = checkout();
+        return agreement.getDailyRentalChargeCents() + agreement.getPreDiscountChargeCents()
+                + agreement.getDiscountAmountCents() + agreement.getFinalChargeCents();
+    }
+}
@@ -0,0 +1,67 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import toolrental.loader.ToolLoader;
+import toolrental.service.CheckoutService;
+import toolrental.service.QuoteMatrix;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing a 1 to 90 day table for one checkout date: one {@link CheckoutService#quote} per length versus one
+ * {@link CheckoutService#quoteMatrix} pass, and all tool types at once with {@link CheckoutService#quoteMatrices}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuoteMatrixBenchmark {
+    private static final int MAX_RENTAL_DAYS = 90;
+
+    private CheckoutService service;
+    private LocalDate[] checkoutDates;
+    private int next;
+
+    @Setup
+    public void setup() {
+        service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+        checkoutDates = new LocalDate[365];
+        for (int i = 0; i < checkoutDates.length; i++) {
+            checkoutDates[i] = LocalDate.of(2020, 1, 1).plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public void quotePerLength(Blackhole blackhole) {
+        LocalDate date = checkoutDates[next++ % checkoutDates.length];
+        for (int days = 1; days <= MAX_RENTAL_DAYS; days++) {
+            blackhole.consume(service.quote("LADW", days, 10, date));
+        }
+    }
+
+    @Benchmark
+    public QuoteMatrix quoteMatrix() {
+        return service.quoteMatrix("LADW", MAX_RENTAL_DAYS, 10, checkoutDates[next++ % checkoutDates.length]);
+    }
+
+    @Benchmark
+    public Map<ToolType, QuoteMatrix> quoteMatricesForAllToolTypes() {
+        return service.quoteMatrices(MAX_RENTAL_DAYS, 10, checkoutDates[next++ % checkoutDates.length]);
+    }
+}
@@ -0,0 +1,58 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.loader.ToolLoader;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting an invalid checkout through the throwing {@link CheckoutService#checkout} versus the
+ * result-returning {@link CheckoutService#tryCheckout}. Requests alternate between an unknown tool code and an
+ * out-of-range discount.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RejectedCheckoutBenchmark {
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, 7, 2);
+
+    private CheckoutService service;
+    private int next;
+
+    @Setup
+    public void setup() {
+        service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+    }
+
+    @Benchmark
+    public Object checkoutThrowing() {
+        int i = next++;
+        try {
+            return service.checkout((i & 1) == 0 ? "NOPE" : "LADW", 3, (i & 1) == 0 ? 10 : 150, CHECKOUT_DATE);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public CheckoutResult tryCheckout() {
+        int i = next++;
+        return service.tryCheckout((i & 1) == 0 ? "NOPE" : "LADW", 3, (i & 1) == 0 ? 10 : 150, CHECKOUT_DATE);
+    }
+}
@@ -0,0 +1,74 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.constants.ToolBrand;
+import toolrental.loader.ToolLoader;
+import toolrental.tools.Tool;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool code lookups, which is what {@code CheckoutService.findToolByCode} delegates to, for catalogs from the
+ * four standard tools up to 100,000 tools. Codes are looked up in a shuffled order so the table is not walked
+ * sequentially.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ToolLookupBenchmark {
+    private static final int PROBES = 4096;
+
+    @Param({"4", "1000", "100000"})
+    public int catalogSize;
+
+    private ToolCatalog catalog;
+    private String[] hitCodes;
+    private String[] missCodes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<Tool> tools = ToolLoader.loadTools();
+        ToolType[] types = ToolType.values();
+        ToolBrand[] brands = ToolBrand.values();
+        for (int i = tools.size(); i < catalogSize; i++) {
+            tools.add(new Tool(String.format("T%05d", i), types[i % types.length], brands[i % brands.length]));
+        }
+        catalog = new ToolCatalog(tools);
+
+        Random random = new Random(42);
+        hitCodes = new String[PROBES];
+        missCodes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            hitCodes[i] = tools.get(random.nextInt(tools.size())).getToolCode().toLowerCase();
+            missCodes[i] = String.format("M%05d", random.nextInt(100_000));
+        }
+    }
+
+    @Benchmark
+    public Tool findExistingTool() {
+        return catalog.findTool(hitCodes[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Tool findMissingTool() {
+        return catalog.findTool(missCodes[next++ & (PROBES - 1)]);
+    }
+}
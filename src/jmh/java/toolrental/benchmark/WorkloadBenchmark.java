@@ -0,0 +1,65 @@
+package toolrental.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import toolrental.loader.ToolLoader;
+import toolrental.loadtest.WorkloadGenerator;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+import toolrental.service.QuoteCache;
+import toolrental.tools.ToolCatalog;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency distribution of {@link CheckoutService#tryCheckout} over the production-like request stream of a
+ * {@link WorkloadGenerator}, with and without a {@link QuoteCache}. This is the closed-loop peak of what a
+ * {@link toolrental.loadtest.LoadHarness} run measures; use the harness itself for open-loop runs at a fixed rate.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class WorkloadBenchmark {
+    @Param({"false", "true"})
+    public boolean quoteCache;
+
+    private CheckoutService service;
+    private CheckoutRequest[] requests;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        service = CheckoutService.builder()
+                .toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .quoteCache(quoteCache ? new QuoteCache(16_384) : null)
+                .build();
+        List<CheckoutRequest> generated = WorkloadGenerator.builder().seed(2024)
+                .toolCodes(Arrays.asList("LADW", "JAKR", "CHNS", "JAKD")).build().generate(200_000);
+        requests = generated.toArray(new CheckoutRequest[0]);
+    }
+
+    @Benchmark
+    public CheckoutResult tryCheckout() {
+        CheckoutRequest request = requests[(next.getAndIncrement() & Integer.MAX_VALUE) % requests.length];
+        return service.tryCheckout(request.getToolCode(), request.getRentalDays(), request.getDiscountPercent(),
+                request.getCheckoutDate());
+    }
+}
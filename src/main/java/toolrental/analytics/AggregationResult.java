@@ -0,0 +1,74 @@
+package toolrental.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The sums and counts of one aggregation, one row per non-empty group in key order.
+ */
+public final class AggregationResult {
+    private final GroupKey groupKey;
+    private final Measure measure;
+    private final String[] labels;
+    private final long[] sums;
+    private final long[] counts;
+
+    AggregationResult(GroupKey groupKey, Measure measure, String[] labels, long[] sums, long[] counts) {
+        this.groupKey = groupKey;
+        this.measure = measure;
+        this.labels = labels;
+        this.sums = sums;
+        this.counts = counts;
+    }
+
+    public GroupKey getGroupKey() {
+        return groupKey;
+    }
+
+    public Measure getMeasure() {
+        return measure;
+    }
+
+    /**
+     * @return the number of non-empty groups
+     */
+    public int size() {
+        return labels.length;
+    }
+
+    public String getLabel(int group) {
+        return labels[group];
+    }
+
+    public long getSum(int group) {
+        return sums[group];
+    }
+
+    public long getCount(int group) {
+        return counts[group];
+    }
+
+    /**
+     * @param label the label of a group, as described by its {@link GroupKey}
+     * @return the sum of the group, or 0 if no agreement fell into it
+     */
+    public long getSum(String label) {
+        for (int group = 0; group < labels.length; group++) {
+            if (labels[group].equals(label)) {
+                return sums[group];
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * @return the sums by group label, in key order
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int group = 0; group < labels.length; group++) {
+            map.put(labels[group], sums[group]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,198 @@
+package toolrental.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates a range of segments, splitting it in half until each task holds one segment. Every task fills its
+ * own array of totals and the halves are added together, so workers never share a counter.
+ * <p>
+ * The result holds the sums of each group followed by the counts of each group.
+ */
+final class AggregationTask extends RecursiveTask<long[]> {
+    /** Per-thread selection and group arrays, one slot per row of a segment. */
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() ->
+            new int[][] {new int[StoreSegment.MAX_ROWS], new int[StoreSegment.MAX_ROWS]});
+
+    private final AgreementFilter filter;
+    private final GroupKey groupKey;
+    private final Measure measure;
+    private final int groupCount;
+    /** The week index of group 0 for {@link GroupKey#CHECKOUT_WEEK}. */
+    private final long firstWeek;
+    private final StoreSegment[] segments;
+    private final int[] rowCounts;
+    private final int from;
+    private final int to;
+    private final boolean parallel;
+
+    AggregationTask(AgreementFilter filter, GroupKey groupKey, Measure measure, int groupCount, long firstWeek, StoreSegment[] segments,
+                    int[] rowCounts, int from, int to, boolean parallel) {
+        this.filter = filter;
+        this.groupKey = groupKey;
+        this.measure = measure;
+        this.groupCount = groupCount;
+        this.firstWeek = firstWeek;
+        this.segments = segments;
+        this.rowCounts = rowCounts;
+        this.from = from;
+        this.to = to;
+        this.parallel = parallel;
+    }
+
+    @Override
+    protected long[] compute() {
+        if (parallel && to - from > 1) {
+            int middle = (from + to) >>> 1;
+            AggregationTask right = split(middle, to);
+            right.fork();
+            long[] totals = split(from, middle).compute();
+            long[] rightTotals = right.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += rightTotals[i];
+            }
+            return totals;
+        }
+        long[] totals = new long[groupCount * 2];
+        int[][] scratch = SCRATCH.get();
+        int[] selection = scratch[0];
+        int[] groups = scratch[1];
+        for (int segment = from; segment < to; segment++) {
+            scan(segments[segment], rowCounts[segment], totals, selection, groups);
+        }
+        return totals;
+    }
+
+    private AggregationTask split(int splitFrom, int splitTo) {
+        return new AggregationTask(filter, groupKey, measure, groupCount, firstWeek, segments, rowCounts, splitFrom, splitTo, true);
+    }
+
+    /**
+     * Aggregates one segment in three column-at-a-time passes: select the matching rows, compute their groups,
+     * then add up the measure.
+     */
+    private void scan(StoreSegment segment, int rows, long[] totals, int[] selection, int[] groups) {
+        StoreSegment.Columns columns = segment.columns();
+        int count = filter.select(columns, rows, segment.minDay, segment.maxDay, selection);
+        if (count == 0) {
+            return;
+        }
+
+        switch (groupKey) {
+            case ALL:
+                Arrays.fill(groups, 0, count, 0);
+                break;
+            case TOOL_TYPE:
+                for (int i = 0; i < count; i++) {
+                    groups[i] = columns.toolTypes.get(selection[i]);
+                }
+                break;
+            case TOOL_BRAND:
+                for (int i = 0; i < count; i++) {
+                    groups[i] = columns.toolBrands.get(selection[i]);
+                }
+                break;
+            case TOOL_CODE:
+                for (int i = 0; i < count; i++) {
+                    groups[i] = columns.toolCodes.getShort(selection[i] << 1) & 0xFFFF;
+                }
+                break;
+            case CHECKOUT_WEEK:
+                for (int i = 0; i < count; i++) {
+                    groups[i] = (int) (AgreementStore.weekOf(columns.checkoutDays.getInt(selection[i] << 2)) - firstWeek);
+                }
+                break;
+            case DISCOUNT_BUCKET:
+                for (int i = 0; i < count; i++) {
+                    groups[i] = columns.discountPercents.get(selection[i]) / 10;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown group key " + groupKey + ".");
+        }
+
+        for (int i = 0; i < count; i++) {
+            totals[groupCount + groups[i]]++;
+        }
+        switch (measure) {
+            case COUNT:
+                for (int i = 0; i < count; i++) {
+                    totals[groups[i]]++;
+                }
+                break;
+            case RENTAL_DAYS:
+                sumDays(columns.rentalDays, columns.wide, totals, selection, groups, count);
+                break;
+            case CHARGE_DAYS:
+                sumDays(columns.chargeDays, columns.wide, totals, selection, groups, count);
+                break;
+            case PRE_DISCOUNT_CENTS:
+                sumAmounts(columns.preDiscountCents, columns.wide, totals, selection, groups, count);
+                break;
+            case DISCOUNT_CENTS:
+                sumAmounts(columns.discountCents, columns.wide, totals, selection, groups, count);
+                break;
+            case FINAL_CENTS:
+                sumAmounts(columns.preDiscountCents, columns.wide, totals, selection, groups, count);
+                subtractAmounts(columns.discountCents, columns.wide, totals, selection, groups, count);
+                addAdjustments(segment.adjustments(), totals, selection, groups, count);
+                break;
+            default:
+                throw new IllegalStateException("Unknown measure " + measure + ".");
+        }
+    }
+
+    private static void sumDays(ByteBuffer column, boolean wide, long[] totals, int[] selection, int[] groups, int count) {
+        if (wide) {
+            for (int i = 0; i < count; i++) {
+                totals[groups[i]] += column.getInt(selection[i] << 2);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                totals[groups[i]] += column.getShort(selection[i] << 1);
+            }
+        }
+    }
+
+    private static void sumAmounts(ByteBuffer column, boolean wide, long[] totals, int[] selection, int[] groups, int count) {
+        if (wide) {
+            for (int i = 0; i < count; i++) {
+                totals[groups[i]] += column.getLong(selection[i] << 3);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                totals[groups[i]] += column.getInt(selection[i] << 2);
+            }
+        }
+    }
+
+    private static void subtractAmounts(ByteBuffer column, boolean wide, long[] totals, int[] selection, int[] groups, int count) {
+        if (wide) {
+            for (int i = 0; i < count; i++) {
+                totals[groups[i]] -= column.getLong(selection[i] << 3);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                totals[groups[i]] -= column.getInt(selection[i] << 2);
+            }
+        }
+    }
+
+    /**
+     * Adds the final charge adjustments of the selected rows. Both lists are in row order, so one merge pass finds
+     * them; adjustments for rows past the selection are ignored.
+     */
+    private static void addAdjustments(StoreSegment.Adjustments adjustments, long[] totals, int[] selection, int[] groups, int count) {
+        int i = 0;
+        for (int a = 0; a < adjustments.size && i < count; a++) {
+            int row = adjustments.rows[a];
+            while (i < count && selection[i] < row) {
+                i++;
+            }
+            if (i < count && selection[i] == row) {
+                totals[groups[i]] += adjustments.cents[a];
+            }
+        }
+    }
+}
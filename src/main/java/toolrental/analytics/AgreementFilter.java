@@ -0,0 +1,153 @@
+package toolrental.analytics;
+
+import toolrental.constants.ToolBrand;
+import toolrental.tools.ToolType;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Which agreements an aggregation includes. Filters are immutable; each method returns a copy with one more
+ * condition, starting from {@link #all()}:
+ * <pre>
+ * AgreementFilter.all().checkoutBetween(start, end).toolTypes(ToolType.LADDER).discountBetween(10, 100)
+ * </pre>
+ */
+public final class AgreementFilter {
+    private static final int ANY = -1;
+    private static final AgreementFilter ALL = new AgreementFilter(Integer.MIN_VALUE, Integer.MAX_VALUE, ANY, ANY, 0, 100);
+
+    private final int fromDay;
+    private final int toDay;
+    private final int toolTypeMask;
+    private final int toolBrandMask;
+    private final int minDiscount;
+    private final int maxDiscount;
+
+    private AgreementFilter(int fromDay, int toDay, int toolTypeMask, int toolBrandMask, int minDiscount, int maxDiscount) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.toolTypeMask = toolTypeMask;
+        this.toolBrandMask = toolBrandMask;
+        this.minDiscount = minDiscount;
+        this.maxDiscount = maxDiscount;
+    }
+
+    /**
+     * @return the filter that includes every agreement
+     */
+    public static AgreementFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Keeps agreements checked out on or after {@code from} and before {@code to}.
+     *
+     * @param from the first checkout date included
+     * @param to   the first checkout date excluded
+     * @return the narrower filter
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public AgreementFilter checkoutBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before the start date.");
+        }
+        return new AgreementFilter(Math.max(fromDay, (int) from.toEpochDay()), Math.min(toDay, (int) to.toEpochDay()),
+                toolTypeMask, toolBrandMask, minDiscount, maxDiscount);
+    }
+
+    /**
+     * Keeps agreements for any of the given tool types.
+     *
+     * @param toolTypes the tool types to keep
+     * @return the narrower filter
+     */
+    public AgreementFilter toolTypes(ToolType... toolTypes) {
+        int mask = 0;
+        for (ToolType toolType : toolTypes) {
+            mask |= 1 << toolType.ordinal();
+        }
+        return new AgreementFilter(fromDay, toDay, toolTypeMask & mask, toolBrandMask, minDiscount, maxDiscount);
+    }
+
+    /**
+     * Keeps agreements for any of the given brands.
+     *
+     * @param toolBrands the brands to keep
+     * @return the narrower filter
+     */
+    public AgreementFilter toolBrands(ToolBrand... toolBrands) {
+        int mask = 0;
+        for (ToolBrand toolBrand : toolBrands) {
+            mask |= 1 << toolBrand.ordinal();
+        }
+        return new AgreementFilter(fromDay, toDay, toolTypeMask, toolBrandMask & mask, minDiscount, maxDiscount);
+    }
+
+    /**
+     * Keeps agreements whose discount percent is between the bounds, inclusive.
+     *
+     * @param min the smallest discount percent kept
+     * @param max the largest discount percent kept
+     * @return the narrower filter
+     * @throws IllegalArgumentException if {@code min} is greater than {@code max}
+     */
+    public AgreementFilter discountBetween(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Minimum discount must not be greater than the maximum.");
+        }
+        return new AgreementFilter(fromDay, toDay, toolTypeMask, toolBrandMask, Math.max(minDiscount, min), Math.min(maxDiscount, max));
+    }
+
+    /**
+     * Writes the indexes of the matching rows of a segment into {@code selection}. Each condition is one pass over
+     * its column: the first pass scans every row and later passes only the rows still selected.
+     *
+     * @return the number of matching rows
+     */
+    int select(StoreSegment.Columns columns, int rows, int segmentMinDay, int segmentMaxDay, int[] selection) {
+        if (fromDay > segmentMaxDay || toDay <= segmentMinDay || toolTypeMask == 0 || toolBrandMask == 0 || minDiscount > maxDiscount) {
+            return 0;
+        }
+        int count = 0;
+        if (fromDay > segmentMinDay || toDay <= segmentMaxDay) {
+            for (int row = 0; row < rows; row++) {
+                int day = columns.checkoutDays.getInt(row << 2);
+                selection[count] = row;
+                count += day >= fromDay && day < toDay ? 1 : 0;
+            }
+        } else {
+            for (int row = 0; row < rows; row++) {
+                selection[row] = row;
+            }
+            count = rows;
+        }
+        if (toolTypeMask != ANY) {
+            count = selectByMask(columns.toolTypes, toolTypeMask, selection, count);
+        }
+        if (toolBrandMask != ANY) {
+            count = selectByMask(columns.toolBrands, toolBrandMask, selection, count);
+        }
+        if (minDiscount > 0 || maxDiscount < 100) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                int discount = columns.discountPercents.get(row);
+                selection[kept] = row;
+                kept += discount >= minDiscount && discount <= maxDiscount ? 1 : 0;
+            }
+            count = kept;
+        }
+        return count;
+    }
+
+    private static int selectByMask(ByteBuffer column, int mask, int[] selection, int count) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            selection[kept] = row;
+            kept += mask >>> column.get(row) & 1;
+        }
+        return kept;
+    }
+}
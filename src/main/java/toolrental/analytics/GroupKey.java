@@ -0,0 +1,19 @@
+package toolrental.analytics;
+
+/**
+ * How an aggregation groups agreements.
+ */
+public enum GroupKey {
+    /** A single group holding every matching agreement, labelled {@code all}. */
+    ALL,
+    /** Labelled with the {@link toolrental.tools.ToolType} constant name. */
+    TOOL_TYPE,
+    /** Labelled with the {@link toolrental.constants.ToolBrand} constant name. */
+    TOOL_BRAND,
+    /** Labelled with the tool code. */
+    TOOL_CODE,
+    /** The week of the checkout date, labelled with the ISO date of its Monday. */
+    CHECKOUT_WEEK,
+    /** Discount percent in steps of ten, labelled {@code 0-9%} through {@code 90-99%}, and {@code 100%}. */
+    DISCOUNT_BUCKET
+}
@@ -0,0 +1,15 @@
+package toolrental.analytics;
+
+/**
+ * The value an aggregation sums for every matching agreement.
+ */
+public enum Measure {
+    /** One per agreement, so the sum is the number of agreements. */
+    COUNT,
+    RENTAL_DAYS,
+    CHARGE_DAYS,
+    PRE_DISCOUNT_CENTS,
+    DISCOUNT_CENTS,
+    /** The final charge, which is the revenue of the agreement. */
+    FINAL_CENTS
+}
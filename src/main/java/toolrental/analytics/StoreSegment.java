@@ -0,0 +1,233 @@
+package toolrental.analytics;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Up to {@link #MAX_ROWS} agreements of an {@link AgreementStore}, one buffer per column.
+ * <p>
+ * Column buffers start small and are reallocated as the segment grows. Day counts are stored as shorts and
+ * amounts as ints until a value does not fit, at which point the segment's day and amount columns are rewritten
+ * as ints and longs. Every reallocation copies the
+ * columns into a new {@link Columns} object before publishing it through a volatile field, so a reader always
+ * sees a complete set of columns. Only the store's writer appends.
+ * <p>
+ * The final charge has no column: it is the pre-discount charge minus the discount. Agreements priced in floating
+ * point round each amount on its own, so a few have a final charge a cent away from that difference; those rows
+ * are kept in a short list of {@link Adjustments} instead.
+ */
+final class StoreSegment {
+    static final int SHIFT = 16;
+    static final int MAX_ROWS = 1 << SHIFT;
+    private static final int INITIAL_ROWS = 1024;
+
+    private final boolean offHeap;
+    private volatile Columns columns;
+    private volatile Adjustments adjustments = Adjustments.EMPTY;
+    /** Rows appended; readers use the row count published by the store instead. */
+    private int rows;
+    /** The checkout day range of the rows, a zone map that lets a date filter skip or accept whole segments. */
+    volatile int minDay = Integer.MAX_VALUE;
+    volatile int maxDay = Integer.MIN_VALUE;
+
+    StoreSegment(boolean offHeap) {
+        this.offHeap = offHeap;
+        this.columns = new Columns(INITIAL_ROWS, false, offHeap);
+    }
+
+    Columns columns() {
+        return columns;
+    }
+
+    Adjustments adjustments() {
+        return adjustments;
+    }
+
+    void append(int checkoutDay, int rentalDays, int chargeDays, int discountPercent, int toolType, int toolBrand, int toolCode,
+                int dailyRate, long preDiscountCents, long discountCents, long finalCents) {
+        Columns c = columns;
+        boolean wide = c.wide || rentalDays != (short) rentalDays || chargeDays != (short) chargeDays
+                || !fitsInt(preDiscountCents) || !fitsInt(discountCents);
+        if (rows == c.capacity || wide != c.wide) {
+            c = new Columns(c, rows == c.capacity ? c.capacity * 2 : c.capacity, wide, rows, offHeap);
+            columns = c;
+        }
+        int row = rows;
+        c.checkoutDays.putInt(row << 2, checkoutDay);
+        c.discountPercents.put(row, (byte) discountPercent);
+        c.toolTypes.put(row, (byte) toolType);
+        c.toolBrands.put(row, (byte) toolBrand);
+        c.toolCodes.putShort(row << 1, (short) toolCode);
+        c.dailyRates.putShort(row << 1, (short) dailyRate);
+        if (c.wide) {
+            c.rentalDays.putInt(row << 2, rentalDays);
+            c.chargeDays.putInt(row << 2, chargeDays);
+            c.preDiscountCents.putLong(row << 3, preDiscountCents);
+            c.discountCents.putLong(row << 3, discountCents);
+        } else {
+            c.rentalDays.putShort(row << 1, (short) rentalDays);
+            c.chargeDays.putShort(row << 1, (short) chargeDays);
+            c.preDiscountCents.putInt(row << 2, (int) preDiscountCents);
+            c.discountCents.putInt(row << 2, (int) discountCents);
+        }
+        long adjustment = finalCents - (preDiscountCents - discountCents);
+        if (adjustment != 0) {
+            adjustments = adjustments.with(row, adjustment);
+        }
+        minDay = Math.min(minDay, checkoutDay);
+        maxDay = Math.max(maxDay, checkoutDay);
+        rows++;
+    }
+
+    long memoryBytes() {
+        return columns.memoryBytes() + adjustments.memoryBytes();
+    }
+
+    private static boolean fitsInt(long value) {
+        return value == (int) value;
+    }
+
+    /**
+     * One allocation of a segment's columns. The buffers never move once published; growing allocates new ones.
+     */
+    static final class Columns {
+        final int capacity;
+        /** Whether day counts are ints rather than shorts and amounts longs rather than ints. */
+        final boolean wide;
+        final ByteBuffer checkoutDays;
+        final ByteBuffer rentalDays;
+        final ByteBuffer chargeDays;
+        final ByteBuffer discountPercents;
+        final ByteBuffer toolTypes;
+        final ByteBuffer toolBrands;
+        final ByteBuffer toolCodes;
+        final ByteBuffer dailyRates;
+        final ByteBuffer preDiscountCents;
+        final ByteBuffer discountCents;
+
+        private Columns(int capacity, boolean wide, boolean offHeap) {
+            int dayBytes = wide ? 4 : 2;
+            int amountBytes = wide ? 8 : 4;
+            this.capacity = capacity;
+            this.wide = wide;
+            this.checkoutDays = allocate(capacity * 4, offHeap);
+            this.rentalDays = allocate(capacity * dayBytes, offHeap);
+            this.chargeDays = allocate(capacity * dayBytes, offHeap);
+            this.discountPercents = allocate(capacity, offHeap);
+            this.toolTypes = allocate(capacity, offHeap);
+            this.toolBrands = allocate(capacity, offHeap);
+            this.toolCodes = allocate(capacity * 2, offHeap);
+            this.dailyRates = allocate(capacity * 2, offHeap);
+            this.preDiscountCents = allocate(capacity * amountBytes, offHeap);
+            this.discountCents = allocate(capacity * amountBytes, offHeap);
+        }
+
+        /**
+         * Copies the first {@code rows} rows of another allocation.
+         */
+        private Columns(Columns from, int capacity, boolean wide, int rows, boolean offHeap) {
+            this(Math.min(capacity, MAX_ROWS), wide, offHeap);
+            copy(from.checkoutDays, checkoutDays, rows * 4);
+            copy(from.discountPercents, discountPercents, rows);
+            copy(from.toolTypes, toolTypes, rows);
+            copy(from.toolBrands, toolBrands, rows);
+            copy(from.toolCodes, toolCodes, rows * 2);
+            copy(from.dailyRates, dailyRates, rows * 2);
+            if (wide == from.wide) {
+                int dayBytes = wide ? 4 : 2;
+                int amountBytes = wide ? 8 : 4;
+                copy(from.rentalDays, rentalDays, rows * dayBytes);
+                copy(from.chargeDays, chargeDays, rows * dayBytes);
+                copy(from.preDiscountCents, preDiscountCents, rows * amountBytes);
+                copy(from.discountCents, discountCents, rows * amountBytes);
+            } else {
+                for (int row = 0; row < rows; row++) {
+                    rentalDays.putInt(row << 2, from.rentalDays.getShort(row << 1));
+                    chargeDays.putInt(row << 2, from.chargeDays.getShort(row << 1));
+                    preDiscountCents.putLong(row << 3, from.preDiscountCents.getInt(row << 2));
+                    discountCents.putLong(row << 3, from.discountCents.getInt(row << 2));
+                }
+            }
+        }
+
+        int rentalDays(int row) {
+            return wide ? rentalDays.getInt(row << 2) : rentalDays.getShort(row << 1);
+        }
+
+        int chargeDays(int row) {
+            return wide ? chargeDays.getInt(row << 2) : chargeDays.getShort(row << 1);
+        }
+
+        long preDiscountCents(int row) {
+            return wide ? preDiscountCents.getLong(row << 3) : preDiscountCents.getInt(row << 2);
+        }
+
+        long discountCents(int row) {
+            return wide ? discountCents.getLong(row << 3) : discountCents.getInt(row << 2);
+        }
+
+        long memoryBytes() {
+            return checkoutDays.capacity() + rentalDays.capacity() + chargeDays.capacity() + discountPercents.capacity()
+                    + toolTypes.capacity() + toolBrands.capacity() + toolCodes.capacity() + dailyRates.capacity()
+                    + preDiscountCents.capacity() + discountCents.capacity();
+        }
+
+        private static ByteBuffer allocate(int bytes, boolean offHeap) {
+            return (offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes)).order(ByteOrder.nativeOrder());
+        }
+
+        private static void copy(ByteBuffer from, ByteBuffer to, int bytes) {
+            ByteBuffer source = from.duplicate();
+            ((Buffer) source).position(0).limit(bytes);
+            to.duplicate().put(source);
+        }
+    }
+
+    /**
+     * The rows whose final charge differs from the pre-discount charge minus the discount, in row order, and the
+     * cents to add to that difference. Appending copies into a new instance, so a reader's instance never changes.
+     */
+    static final class Adjustments {
+        static final Adjustments EMPTY = new Adjustments(new int[0], new long[0], 0);
+
+        final int[] rows;
+        final long[] cents;
+        final int size;
+
+        private Adjustments(int[] rows, long[] cents, int size) {
+            this.rows = rows;
+            this.cents = cents;
+            this.size = size;
+        }
+
+        /**
+         * Returns these adjustments plus one more. The arrays are shared while they have room, which is safe since
+         * readers never look past their own size.
+         */
+        Adjustments with(int row, long adjustment) {
+            int[] grownRows = rows;
+            long[] grownCents = cents;
+            if (size == rows.length) {
+                grownRows = Arrays.copyOf(rows, Math.max(4, size * 2));
+                grownCents = Arrays.copyOf(cents, grownRows.length);
+            }
+            grownRows[size] = row;
+            grownCents[size] = adjustment;
+            return new Adjustments(grownRows, grownCents, size + 1);
+        }
+
+        /**
+         * @return the cents to add to the row's pre-discount charge minus discount
+         */
+        long of(int row) {
+            int index = Arrays.binarySearch(rows, 0, size, row);
+            return index >= 0 ? cents[index] : 0;
+        }
+
+        long memoryBytes() {
+            return rows.length * 4L + cents.length * 8L;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package toolrental.holiday;
+
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+
+/**
+ * A holiday on the same month and day every year, such as Independence Day. When {@code observedOnWeekday}
+ * is set, a holiday falling on a Saturday is observed on the preceding Friday and one falling on a Sunday
+ * is observed on the following Monday.
+ */
+@Getter
+public class FixedDateHolidayRule implements HolidayRule {
+    private final String name;
+    private final MonthDay monthDay;
+    private final boolean observedOnWeekday;
+
+    public FixedDateHolidayRule(String name, MonthDay monthDay, boolean observedOnWeekday) {
+        this.name = name;
+        this.monthDay = monthDay;
+        this.observedOnWeekday = observedOnWeekday;
+    }
+
+    @Override
+    public LocalDate observedDate(int year) {
+        LocalDate date = monthDay.atYear(year);
+        if (observedOnWeekday) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY) {
+                return date.minusDays(1);
+            }
+            if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                return date.plusDays(1);
+            }
+        }
+        return date;
+    }
+}
@@ -0,0 +1,57 @@
+package toolrental.holiday;
+
+import java.time.LocalDate;
+
+/**
+ * Answers which dates are observed holidays. Ranges are given as inclusive epoch days so that callers
+ * on the pricing path do not need to allocate {@link LocalDate} instances.
+ */
+public interface HolidayCalendar {
+
+    /**
+     * Checks if the given epoch day is an observed holiday.
+     *
+     * @param epochDay the day to check, as returned by {@link LocalDate#toEpochDay()}
+     * @return true if the day is a holiday, otherwise false
+     */
+    boolean isHoliday(long epochDay);
+
+    /**
+     * Counts the observed holidays between two epoch days, both inclusive.
+     *
+     * @param firstEpochDay the first day of the range
+     * @param lastEpochDay  the last day of the range
+     * @return the number of holidays in the range, or 0 if the range is empty
+     */
+    int countHolidays(long firstEpochDay, long lastEpochDay);
+
+    /**
+     * Counts the observed holidays between two epoch days, both inclusive, that fall on a Saturday or Sunday.
+     *
+     * @param firstEpochDay the first day of the range
+     * @param lastEpochDay  the last day of the range
+     * @return the number of weekend holidays in the range, or 0 if the range is empty
+     */
+    int countWeekendHolidays(long firstEpochDay, long lastEpochDay);
+
+    /**
+     * Returns a counter that changes whenever the calendar's holidays change, so results computed from an
+     * earlier version can be recognized as stale. Calendars whose holidays never change may return a constant,
+     * but then must not share a quote cache with another calendar.
+     *
+     * @return the current version of the calendar
+     */
+    default long getVersion() {
+        return 0;
+    }
+
+    /**
+     * Checks if the given date is an observed holiday.
+     *
+     * @param date the date to check
+     * @return true if the date is a holiday, otherwise false
+     */
+    default boolean isHoliday(LocalDate date) {
+        return isHoliday(date.toEpochDay());
+    }
+}
@@ -0,0 +1,26 @@
+package toolrental.holiday;
+
+import java.time.LocalDate;
+
+/**
+ * A rule that yields the date a holiday is observed in a given year. Rules must repeat every 400 years, like the
+ * Gregorian calendar does, which every rule defined by month, day and weekday does.
+ */
+public interface HolidayRule {
+
+    /**
+     * Returns the name of the holiday.
+     *
+     * @return the holiday name
+     */
+    String getName();
+
+    /**
+     * Returns the date the holiday is observed for the given year. The observed date may fall in an
+     * adjacent year, for example when January 1st on a Saturday is observed on December 31st.
+     *
+     * @param year the year of the holiday
+     * @return the observed date, or null if the holiday does not occur in that year
+     */
+    LocalDate observedDate(int year);
+}
@@ -0,0 +1,40 @@
+package toolrental.holiday;
+
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * A holiday on the nth occurrence of a weekday in a month, such as Labor Day (the first Monday in September).
+ * An ordinal of -1 selects the last occurrence in the month.
+ */
+@Getter
+public class NthWeekdayHolidayRule implements HolidayRule {
+    private final String name;
+    private final Month month;
+    private final DayOfWeek dayOfWeek;
+    private final int ordinal;
+
+    public NthWeekdayHolidayRule(String name, Month month, DayOfWeek dayOfWeek, int ordinal) {
+        if (ordinal == 0 || ordinal < -1 || ordinal > 5) {
+            throw new IllegalArgumentException("Weekday ordinal must be between 1 and 5, or -1 for the last occurrence.");
+        }
+        this.name = name;
+        this.month = month;
+        this.dayOfWeek = dayOfWeek;
+        this.ordinal = ordinal;
+    }
+
+    @Override
+    public LocalDate observedDate(int year) {
+        LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+        if (ordinal == -1) {
+            return firstOfMonth.with(TemporalAdjusters.lastInMonth(dayOfWeek));
+        }
+        LocalDate date = firstOfMonth.with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek));
+        return date.getMonth() == month ? date : null; // No fifth occurrence this year
+    }
+}
@@ -0,0 +1,283 @@
+package toolrental.holiday;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link HolidayCalendar} that evaluates its rules once per year and answers every later question from a
+ * per-year bitset indexed by day of year. Years are computed lazily on first use and cached; a holiday check
+ * is a single bit test and counting holidays in a range is a population count over at most six words per year.
+ * <p>
+ * The Gregorian calendar repeats every 400 years, and so do the holidays of rules that depend only on the month,
+ * day and weekday, which {@link HolidayRule} requires. Only the years 1900 to 2299 are ever computed: a date in
+ * another year is answered from the same date of that cycle, and the whole cycles in a long range are counted by
+ * multiplication, so memory is bounded and counting costs the same however long the range is.
+ * <p>
+ * The rules can be swapped at runtime with {@link #replaceRules}. Each rule set carries its own year cache,
+ * so a lookup always sees one consistent rule set, and {@link #getVersion()} changes with every swap so callers
+ * can invalidate results derived from the old rules. Versions are drawn from one counter for all calendars, so no
+ * two rule sets share one, even in different calendars. Instances are safe to share between threads.
+ */
+public class PrecomputedHolidayCalendar implements HolidayCalendar {
+    private static final int FIRST_INDEXED_YEAR = 1900;
+    private static final int LAST_INDEXED_YEAR = 2299;
+    private static final int YEARS_PER_CYCLE = LAST_INDEXED_YEAR - FIRST_INDEXED_YEAR + 1;
+    private static final long DAYS_PER_CYCLE = 146_097;
+    /** Ranges of whole years up to this length are counted year by year instead of from the cycle's running totals. */
+    private static final int MAX_YEARS_COUNTED_DIRECTLY = 8;
+    private static final long[] YEAR_START_EPOCH_DAYS = new long[LAST_INDEXED_YEAR - FIRST_INDEXED_YEAR + 2];
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    static {
+        for (int i = 0; i < YEAR_START_EPOCH_DAYS.length; i++) {
+            YEAR_START_EPOCH_DAYS[i] = LocalDate.of(FIRST_INDEXED_YEAR + i, 1, 1).toEpochDay();
+        }
+    }
+
+    private volatile RuleSet ruleSet;
+
+    public PrecomputedHolidayCalendar(List<HolidayRule> rules) {
+        this.ruleSet = new RuleSet(rules, VERSIONS.incrementAndGet());
+    }
+
+    /**
+     * Creates a calendar with the store's standard holidays: Independence Day, observed on the closest weekday,
+     * and Labor Day.
+     *
+     * @return the standard holiday calendar
+     */
+    public static PrecomputedHolidayCalendar standard() {
+        return new PrecomputedHolidayCalendar(standardRules());
+    }
+
+    /**
+     * Returns the rules for the store's standard holidays.
+     *
+     * @return Independence Day and Labor Day rules
+     */
+    public static List<HolidayRule> standardRules() {
+        return Arrays.asList(
+                new FixedDateHolidayRule("Independence Day", MonthDay.of(Month.JULY, 4), true),
+                new NthWeekdayHolidayRule("Labor Day", Month.SEPTEMBER, DayOfWeek.MONDAY, 1));
+    }
+
+    public List<HolidayRule> getRules() {
+        return ruleSet.rules;
+    }
+
+    /**
+     * Atomically replaces the holiday rules. Lookups already in progress finish against the previous rules.
+     *
+     * @param rules the new rules
+     */
+    public synchronized void replaceRules(List<HolidayRule> rules) {
+        ruleSet = new RuleSet(rules, VERSIONS.incrementAndGet());
+    }
+
+    @Override
+    public long getVersion() {
+        return ruleSet.version;
+    }
+
+    @Override
+    public boolean isHoliday(long epochDay) {
+        long dayInCycle = dayInCycle(epochDay);
+        HolidayYear year = ruleSet.year(indexedYearOf(dayInCycle));
+        return year.isHoliday((int) (dayInCycle - year.firstEpochDay));
+    }
+
+    @Override
+    public int countHolidays(long firstEpochDay, long lastEpochDay) {
+        return count(firstEpochDay, lastEpochDay, false);
+    }
+
+    @Override
+    public int countWeekendHolidays(long firstEpochDay, long lastEpochDay) {
+        return count(firstEpochDay, lastEpochDay, true);
+    }
+
+    /**
+     * Counts the partial first and last years from their bitsets and the whole years between them from the
+     * rule set's totals.
+     */
+    private int count(long firstEpochDay, long lastEpochDay, boolean weekendOnly) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+        RuleSet rules = ruleSet;
+        long firstDayInCycle = dayInCycle(firstEpochDay);
+        long lastDayInCycle = dayInCycle(lastEpochDay);
+        int firstIndex = indexedYearOf(firstDayInCycle);
+        int lastIndex = indexedYearOf(lastDayInCycle);
+        long firstYear = cycleOf(firstEpochDay) * YEARS_PER_CYCLE + firstIndex;
+        long lastYear = cycleOf(lastEpochDay) * YEARS_PER_CYCLE + lastIndex;
+
+        HolidayYear first = rules.year(firstIndex);
+        if (firstYear == lastYear) {
+            return first.count((int) (firstDayInCycle - first.firstEpochDay), (int) (lastDayInCycle - first.firstEpochDay), weekendOnly);
+        }
+        HolidayYear last = rules.year(lastIndex);
+        long count = first.count((int) (firstDayInCycle - first.firstEpochDay), first.length - 1, weekendOnly)
+                + last.count(0, (int) (lastDayInCycle - last.firstEpochDay), weekendOnly);
+        if (lastYear - firstYear <= MAX_YEARS_COUNTED_DIRECTLY) {
+            for (long year = firstYear + 1; year < lastYear; year++) {
+                HolidayYear whole = rules.year(Math.floorMod(year, YEARS_PER_CYCLE));
+                count += whole.count(0, whole.length - 1, weekendOnly);
+            }
+        } else {
+            count += rules.countYearsBefore(lastYear, weekendOnly) - rules.countYearsBefore(firstYear + 1, weekendOnly);
+        }
+        return Math.toIntExact(count);
+    }
+
+    private static long cycleOf(long epochDay) {
+        return Math.floorDiv(epochDay - YEAR_START_EPOCH_DAYS[0], DAYS_PER_CYCLE);
+    }
+
+    /**
+     * @return the day with the same date in the cycle from 1900 to 2299
+     */
+    private static long dayInCycle(long epochDay) {
+        return YEAR_START_EPOCH_DAYS[0] + Math.floorMod(epochDay - YEAR_START_EPOCH_DAYS[0], DAYS_PER_CYCLE);
+    }
+
+    /**
+     * Maps an epoch day between 1900 and 2299 to its year's slot without allocating a date.
+     *
+     * @param epochDay the epoch day, as returned by {@link #dayInCycle}
+     * @return the slot of the containing year
+     */
+    private static int indexedYearOf(long epochDay) {
+        int index = (int) ((epochDay - YEAR_START_EPOCH_DAYS[0]) * 400 / DAYS_PER_CYCLE);
+        while (YEAR_START_EPOCH_DAYS[index] > epochDay) {
+            index--;
+        }
+        while (YEAR_START_EPOCH_DAYS[index + 1] <= epochDay) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * An immutable set of rules together with the lazily computed holidays of each year under those rules.
+     */
+    private static final class RuleSet {
+        private final List<HolidayRule> rules;
+        private final long version;
+        private final AtomicReferenceArray<HolidayYear> indexedYears = new AtomicReferenceArray<>(YEARS_PER_CYCLE);
+        /** Holidays and weekend holidays in the cycle's years before each slot, computed on first use. */
+        private volatile long[][] runningTotals;
+
+        private RuleSet(List<HolidayRule> rules, long version) {
+            this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+            this.version = version;
+        }
+
+        /**
+         * Returns the cached holidays of a year of the cycle, computing them on first use.
+         *
+         * @param index the slot of the year, from 0 for 1900 to 399 for 2299
+         * @return the holidays of the year
+         */
+        private HolidayYear year(int index) {
+            HolidayYear year = indexedYears.get(index);
+            if (year == null) {
+                // Racing threads compute identical years, so whichever write lands last is as good as the first.
+                year = computeYear(FIRST_INDEXED_YEAR + index);
+                indexedYears.set(index, year);
+            }
+            return year;
+        }
+
+        /**
+         * Counts the holidays of every year before the given one, starting from 1900, where years before 1900 count
+         * negatively.
+         *
+         * @param year the year, as years since 1900
+         */
+        private long countYearsBefore(long year, boolean weekendOnly) {
+            long[][] totals = runningTotals;
+            if (totals == null) {
+                totals = new long[2][YEARS_PER_CYCLE + 1];
+                for (int index = 0; index < YEARS_PER_CYCLE; index++) {
+                    HolidayYear holidayYear = year(index);
+                    totals[0][index + 1] = totals[0][index] + holidayYear.count(0, holidayYear.length - 1, false);
+                    totals[1][index + 1] = totals[1][index] + holidayYear.count(0, holidayYear.length - 1, true);
+                }
+                runningTotals = totals;
+            }
+            long[] running = totals[weekendOnly ? 1 : 0];
+            return Math.floorDiv(year, YEARS_PER_CYCLE) * running[YEARS_PER_CYCLE] + running[Math.floorMod(year, YEARS_PER_CYCLE)];
+        }
+
+        private HolidayYear computeYear(int year) {
+            LocalDate firstDay = LocalDate.of(year, 1, 1);
+            HolidayYear holidayYear = new HolidayYear(firstDay.toEpochDay(), firstDay.lengthOfYear());
+            // Observed dates can spill across New Year, so the neighbouring years' rules are evaluated too.
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                for (HolidayRule rule : rules) {
+                    LocalDate observed = rule.observedDate(ruleYear);
+                    if (observed != null && observed.getYear() == year) {
+                        boolean weekend = observed.getDayOfWeek() == DayOfWeek.SATURDAY || observed.getDayOfWeek() == DayOfWeek.SUNDAY;
+                        holidayYear.add(observed.getDayOfYear() - 1, weekend);
+                    }
+                }
+            }
+            return holidayYear;
+        }
+    }
+
+    /**
+     * The observed holidays of one year as bitsets indexed by zero-based day of year.
+     */
+    private static final class HolidayYear {
+        private static final int WORDS = 6; // 366 bits
+
+        private final long firstEpochDay;
+        private final int length;
+        private final long[] holidays = new long[WORDS];
+        private final long[] weekendHolidays = new long[WORDS];
+
+        private HolidayYear(long firstEpochDay, int length) {
+            this.firstEpochDay = firstEpochDay;
+            this.length = length;
+        }
+
+        private void add(int dayOfYear, boolean weekend) {
+            holidays[dayOfYear >>> 6] |= 1L << dayOfYear;
+            if (weekend) {
+                weekendHolidays[dayOfYear >>> 6] |= 1L << dayOfYear;
+            }
+        }
+
+        private boolean isHoliday(int dayOfYear) {
+            return (holidays[dayOfYear >>> 6] & (1L << dayOfYear)) != 0;
+        }
+
+        private int count(int fromDay, int toDay, boolean weekendOnly) {
+            long[] bits = weekendOnly ? weekendHolidays : holidays;
+            int fromWord = fromDay >>> 6;
+            int toWord = toDay >>> 6;
+            int count = 0;
+            for (int word = fromWord; word <= toWord; word++) {
+                long mask = -1L;
+                if (word == fromWord) {
+                    mask &= -1L << fromDay;
+                }
+                if (word == toWord) {
+                    mask &= -1L >>> (63 - (toDay & 63));
+                }
+                count += Long.bitCount(bits[word] & mask);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package toolrental.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import toolrental.pipeline.CheckoutRowParser;
+import toolrental.rental.AgreementEncoder;
+import toolrental.service.CheckoutErrorCode;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An embedded HTTP front end for a {@link CheckoutService}, built on the JDK's {@code com.sun.net.httpserver}.
+ * <ul>
+ * <li>{@code POST /checkout} takes a JSON object with {@code toolCode}, {@code checkoutDate}, {@code rentalDays}
+ * and {@code discountPercent} and returns the rental agreement.</li>
+ * <li>{@code POST /checkout/batch} takes one such object per line and returns one line per request, either an
+ * agreement or an error, in request order.</li>
+ * <li>{@code GET /quote?toolCode=...&checkoutDate=yyyy-MM-dd&rentalDays=...&discountPercent=...} prices a
+ * rental without reserving a unit.</li>
+ * </ul>
+ * Rejected requests get status 400, or 409 when no unit is available, with a body of the form
+ * {@code {"error":"..."}}. A request that fails unexpectedly, for example because the journal cannot be written,
+ * gets status 500. Agreements are encoded with {@link AgreementEncoder#appendJson}. Each request runs on its own
+ * virtual thread when the runtime supports them, and on a small fixed pool otherwise.
+ */
+public class CheckoutHttpServer implements AutoCloseable {
+    private static final int BACKLOG = 1024;
+    private static final int MAX_REQUEST_BYTES = 64 * 1024;
+    private static final int MAX_BATCH_BYTES = 16 * 1024 * 1024;
+    private static final String JSON = "application/json";
+    private static final String NDJSON = "application/x-ndjson";
+    /** Batch responses are encoded and written in pieces of about this many characters. */
+    private static final int BATCH_CHUNK_CHARS = 8192;
+
+    private final CheckoutService checkoutService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    /**
+     * Creates a server bound to the given address. The server does not accept requests until {@link #start()}.
+     *
+     * @param checkoutService the service that handles the requests
+     * @param address         the address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public CheckoutHttpServer(CheckoutService checkoutService, InetSocketAddress address) throws IOException {
+        this.checkoutService = checkoutService;
+        ExecutorService virtualThreadExecutor = RequestExecutors.newVirtualThreadPerTaskExecutor();
+        this.virtualThreads = virtualThreadExecutor != null;
+        this.executor = virtualThreads ? virtualThreadExecutor : RequestExecutors.newFallbackExecutor();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/checkout", guarded("/checkout", this::handleCheckout));
+        server.createContext("/checkout/batch", guarded("/checkout/batch", this::handleBatch));
+        server.createContext("/quote", guarded("/quote", this::handleQuote));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return true if requests run on virtual threads, false if they run on the fallback pool
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for running requests to finish and releases the threads.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Wraps a handler so that it only serves its exact path, answers a request that fails unexpectedly with
+     * status 500 instead of dropping the connection, and always closes the exchange.
+     */
+    private static HttpHandler guarded(String path, HttpHandler handler) {
+        return exchange -> {
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    respondError(exchange, 404, "Not found.");
+                    return;
+                }
+                handler.handle(exchange);
+            } catch (RuntimeException e) {
+                // Once the headers are out the status cannot change, so a failed streaming response is cut short.
+                if (exchange.getResponseCode() == -1) {
+                    respondError(exchange, 500, "Internal server error.");
+                }
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void handleCheckout(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respondError(exchange, 405, "Method not allowed.");
+            return;
+        }
+        byte[] body = readBody(exchange, MAX_REQUEST_BYTES);
+        if (body == null) {
+            respondError(exchange, 413, "Request body is too large.");
+            return;
+        }
+        CheckoutRowParser parser = new CheckoutRowParser();
+        String error = parser.parseJson(ByteBuffer.wrap(body), 0, body.length);
+        if (error != null) {
+            respondError(exchange, 400, error);
+            return;
+        }
+        CheckoutResult result = checkoutService.tryCheckout(parser.getToolCode().toString(), parser.getRentalDays(),
+                parser.getDiscountPercent(), parser.getCheckoutDate());
+        if (!result.isSuccess()) {
+            respondError(exchange, statusOf(result.getErrorCode()), result.getErrorMessage());
+            return;
+        }
+        respond(exchange, 200, JSON, AgreementEncoder.appendJson(result.getAgreement(), new StringBuilder(512)));
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respondError(exchange, 405, "Method not allowed.");
+            return;
+        }
+        byte[] body = readBody(exchange, MAX_BATCH_BYTES);
+        if (body == null) {
+            respondError(exchange, 413, "Request body is too large.");
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        CheckoutRowParser parser = new CheckoutRowParser();
+        List<String> parseErrors = new ArrayList<>();
+        List<CheckoutRequest> requests = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i <= body.length; i++) {
+            if (i < body.length && body[i] != '\n') {
+                continue;
+            }
+            int lineEnd = i > lineStart && body[i - 1] == '\r' ? i - 1 : i;
+            if (lineEnd > lineStart) {
+                String error = parser.parseJson(buffer, lineStart, lineEnd);
+                parseErrors.add(error);
+                requests.add(error != null ? null : new CheckoutRequest(parser.getToolCode().toString(),
+                        parser.getRentalDays(), parser.getDiscountPercent(), parser.getCheckoutDate()));
+            }
+            lineStart = i + 1;
+        }
+
+        List<CheckoutRequest> valid = new ArrayList<>(requests.size());
+        for (CheckoutRequest request : requests) {
+            if (request != null) {
+                valid.add(request);
+            }
+        }
+        List<CheckoutResult> results = valid.isEmpty() ? new ArrayList<>() : checkoutService.checkoutBatch(valid);
+
+        exchange.getResponseHeaders().set("Content-Type", NDJSON);
+        // A length of 0 sends a chunked body, so the response never has to be held in memory as a whole.
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream responseBody = exchange.getResponseBody();
+        ByteBuffer bytes = ByteBuffer.allocate(BATCH_CHUNK_CHARS * 3);
+        StringBuilder out = new StringBuilder(BATCH_CHUNK_CHARS + 512);
+        int next = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            if (requests.get(i) == null) {
+                appendError(out, parseErrors.get(i));
+            } else {
+                CheckoutResult result = results.get(next++);
+                if (result.isSuccess()) {
+                    AgreementEncoder.appendJson(result.getAgreement(), out);
+                } else {
+                    appendError(out, result.getErrorMessage());
+                }
+            }
+            out.append('\n');
+            if (out.length() >= BATCH_CHUNK_CHARS) {
+                writeUtf8(out, bytes, responseBody);
+                out.setLength(0);
+            }
+        }
+        writeUtf8(out, bytes, responseBody);
+        responseBody.flush();
+    }
+
+    private void handleQuote(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            respondError(exchange, 405, "Method not allowed.");
+            return;
+        }
+        String[] parameters = parseQuery(exchange.getRequestURI().getRawQuery(),
+                "toolCode", "checkoutDate", "rentalDays", "discountPercent");
+        if (Arrays.asList(parameters).contains(null)) {
+            respondError(exchange, 400, CheckoutRowParser.MISSING_FIELD);
+            return;
+        }
+        LocalDate checkoutDate;
+        int rentalDays;
+        int discountPercent;
+        try {
+            checkoutDate = LocalDate.parse(parameters[1]);
+        } catch (DateTimeException e) {
+            respondError(exchange, 400, "Checkout date must be yyyy-MM-dd.");
+            return;
+        }
+        try {
+            rentalDays = Integer.parseInt(parameters[2]);
+            discountPercent = Integer.parseInt(parameters[3]);
+        } catch (NumberFormatException e) {
+            respondError(exchange, 400, CheckoutRowParser.INVALID_NUMBER);
+            return;
+        }
+        CheckoutResult result = checkoutService.tryQuote(parameters[0], rentalDays, discountPercent, checkoutDate);
+        if (!result.isSuccess()) {
+            respondError(exchange, 400, result.getErrorMessage());
+            return;
+        }
+        respond(exchange, 200, JSON, AgreementEncoder.appendJson(result.getAgreement(), new StringBuilder(512)));
+    }
+
+    private static int statusOf(CheckoutErrorCode errorCode) {
+        return errorCode == CheckoutErrorCode.NO_UNIT_AVAILABLE ? 409 : 400;
+    }
+
+    /**
+     * Reads the whole request body.
+     *
+     * @return the body, or null if it is longer than the limit
+     */
+    private static byte[] readBody(HttpExchange exchange, int limit) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        byte[] buffer = new byte[Math.min(limit + 1, 4096)];
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                if (length > limit) {
+                    return null;
+                }
+                buffer = Arrays.copyOf(buffer, Math.min(limit + 1, buffer.length * 2));
+            }
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length > limit ? null : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Extracts the named parameters from a raw query string.
+     *
+     * @return the decoded values in the order of the names, null where a parameter is missing
+     */
+    private static String[] parseQuery(String query, String... names) throws UnsupportedEncodingException {
+        String[] values = new String[names.length];
+        if (query == null) {
+            return values;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), "UTF-8");
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name) && equals >= 0) {
+                    values[i] = URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+                }
+            }
+        }
+        return values;
+    }
+
+    private static void appendError(StringBuilder out, String message) {
+        out.append("{\"error\":");
+        AgreementEncoder.appendJsonString(out, message);
+        out.append('}');
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder body = new StringBuilder(96);
+        appendError(body, message);
+        respond(exchange, status, JSON, body);
+    }
+
+    /**
+     * Encodes the characters through the buffer, one buffer's worth at a time, and writes them out.
+     */
+    private static void writeUtf8(CharSequence chars, ByteBuffer bytes, OutputStream out) throws IOException {
+        int sliceChars = bytes.capacity() / 3;
+        for (int from = 0; from < chars.length(); ) {
+            int to = Math.min(chars.length(), from + sliceChars);
+            if (to < chars.length() && Character.isHighSurrogate(chars.charAt(to - 1))) {
+                to--;
+            }
+            ((Buffer) bytes).clear();
+            AgreementEncoder.encodeUtf8(CharBuffer.wrap(chars, from, to), bytes);
+            out.write(bytes.array(), 0, bytes.position());
+            from = to;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, StringBuilder body) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(body.length() * 3);
+        AgreementEncoder.encodeUtf8(body, bytes);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        // A length of -1 tells the server there is no body; 0 would mean a chunked body of unknown length.
+        exchange.sendResponseHeaders(status, bytes.position() == 0 ? -1 : bytes.position());
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes.array(), 0, bytes.position());
+        out.flush();
+    }
+}
@@ -0,0 +1,42 @@
+package toolrental.http;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor that runs HTTP requests. On Java 21 and later that is a virtual thread per request; the
+ * factory method is looked up reflectively because the project is compiled for Java 8. Older runtimes get a
+ * fixed pool of daemon threads instead.
+ */
+final class RequestExecutors {
+    private static final int FALLBACK_THREADS = Math.max(32, 8 * Runtime.getRuntime().availableProcessors());
+
+    private RequestExecutors() {
+    }
+
+    /**
+     * @return a virtual-thread-per-task executor if the runtime supports one, otherwise null
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // Before Java 21, or a preview release run without --enable-preview.
+            return null;
+        }
+    }
+
+    static ExecutorService newFallbackExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = task -> {
+            Thread thread = new Thread(task, "checkout-http-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(FALLBACK_THREADS, threadFactory);
+    }
+}
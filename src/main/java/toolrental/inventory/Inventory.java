@@ -0,0 +1,176 @@
+package toolrental.inventory;
+
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The physical units of each tool and the dates they are reserved for.
+ * <p>
+ * Each unit keeps its reservations in a {@link TreeMap} from start day to end day, so checking a unit for a
+ * conflict is two ordered lookups regardless of how many rentals it has. Reservation periods are half-open:
+ * a unit reserved from checkout date to due date is free again on the due date. Every tool has its own lock
+ * and the tools are found through a {@link ConcurrentHashMap}, so reserving different tools never contends.
+ * Tool codes are matched ignoring case with {@link ToolCatalog#foldCase}, exactly as the catalog matches them. A
+ * code spelled as it was added, such as the catalog code a checkout reserves with, is found without folding it.
+ */
+public class Inventory {
+    /** The units of each tool by the code it was added with, and by its folded code. */
+    private final Map<String, ToolUnits> tools = new ConcurrentHashMap<>();
+    private final Map<String, ToolUnits> toolsByFoldedCode = new ConcurrentHashMap<>();
+
+    /**
+     * Adds physical units of a tool.
+     *
+     * @param toolCode the code of the tool
+     * @param count    the number of units to add
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public void addUnits(String toolCode, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Unit count must not be negative.");
+        }
+        ToolUnits units = toolsByFoldedCode.computeIfAbsent(ToolCatalog.foldCase(toolCode), code -> new ToolUnits());
+        units.add(count);
+        tools.putIfAbsent(toolCode, units);
+    }
+
+    /**
+     * @param toolCode the code of the tool
+     * @return the number of units of the tool, whether reserved or not
+     */
+    public int getUnitCount(String toolCode) {
+        ToolUnits units = units(toolCode);
+        return units == null ? 0 : units.count();
+    }
+
+    /**
+     * Checks whether any unit of the tool is free for the whole period.
+     *
+     * @param toolCode  the code of the tool
+     * @param startDate the first day of the period
+     * @param endDate   the day the period ends, exclusive
+     * @return true if a unit could be reserved for the period
+     */
+    public boolean isAvailable(String toolCode, LocalDate startDate, LocalDate endDate) {
+        ToolUnits units = units(toolCode);
+        return units != null && units.findFreeUnit(startDate.toEpochDay(), endDate.toEpochDay()) >= 0;
+    }
+
+    /**
+     * Atomically reserves a free unit of the tool for the period.
+     *
+     * @param toolCode  the code of the tool
+     * @param startDate the first day of the period
+     * @param endDate   the day the period ends, exclusive
+     * @return the reservation, or null if every unit is reserved for part of the period
+     * @throws IllegalArgumentException if the period is empty
+     */
+    public Reservation reserve(String toolCode, LocalDate startDate, LocalDate endDate) {
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("Reservation end date must be after the start date.");
+        }
+        ToolUnits units = units(toolCode);
+        if (units == null) {
+            return null;
+        }
+        int unit = units.reserve(startDate.toEpochDay(), endDate.toEpochDay());
+        return unit < 0 ? null : new Reservation(toolCode, unit, startDate, endDate);
+    }
+
+    /**
+     * Releases a reservation, for example when a tool is returned early or a rental is cancelled.
+     *
+     * @param reservation the reservation to release
+     * @return true if the reservation was held and is now released
+     */
+    public boolean release(Reservation reservation) {
+        ToolUnits units = units(reservation.getToolCode());
+        return units != null && units.release(reservation.getUnit(), reservation.getStartDate().toEpochDay(),
+                reservation.getEndDate().toEpochDay());
+    }
+
+    /**
+     * Releases one unit reserved for exactly the given period, which is how a checkout's reservation is released
+     * since units of a tool are interchangeable.
+     *
+     * @param toolCode  the code of the tool
+     * @param startDate the first day of the period
+     * @param endDate   the day the period ends, exclusive
+     * @return true if a matching reservation was released
+     */
+    public boolean release(String toolCode, LocalDate startDate, LocalDate endDate) {
+        ToolUnits units = units(toolCode);
+        return units != null && units.release(-1, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    private ToolUnits units(String toolCode) {
+        ToolUnits units = tools.get(toolCode);
+        return units != null ? units : toolsByFoldedCode.get(ToolCatalog.foldCase(toolCode));
+    }
+
+    /**
+     * The units of one tool. All access is synchronized on the instance, which is the per-tool lock.
+     */
+    private static final class ToolUnits {
+        /** Per unit, reservation start day mapped to end day, exclusive. */
+        private final List<TreeMap<Long, Long>> reservations = new ArrayList<>();
+
+        synchronized void add(int count) {
+            for (int i = 0; i < count; i++) {
+                reservations.add(new TreeMap<>());
+            }
+        }
+
+        synchronized int count() {
+            return reservations.size();
+        }
+
+        synchronized int findFreeUnit(long start, long end) {
+            for (int unit = 0; unit < reservations.size(); unit++) {
+                if (isFree(reservations.get(unit), start, end)) {
+                    return unit;
+                }
+            }
+            return -1;
+        }
+
+        synchronized int reserve(long start, long end) {
+            int unit = findFreeUnit(start, end);
+            if (unit >= 0) {
+                reservations.get(unit).put(start, end);
+            }
+            return unit;
+        }
+
+        /**
+         * @param unit the unit to release, or -1 for any unit reserved for exactly the period
+         */
+        synchronized boolean release(int unit, long start, long end) {
+            int first = unit < 0 ? 0 : unit;
+            int last = unit < 0 ? reservations.size() - 1 : Math.min(unit, reservations.size() - 1);
+            for (int i = first; i <= last; i++) {
+                Long reservedEnd = reservations.get(i).get(start);
+                if (reservedEnd != null && reservedEnd == end) {
+                    reservations.get(i).remove(start);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isFree(TreeMap<Long, Long> unit, long start, long end) {
+            Map.Entry<Long, Long> before = unit.floorEntry(start);
+            if (before != null && before.getValue() > start) {
+                return false;
+            }
+            Long next = unit.ceilingKey(start);
+            return next == null || next >= end;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package toolrental.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One unit of a tool reserved from the start date up to, but not including, the end date.
+ */
+@AllArgsConstructor
+@Getter
+public class Reservation {
+    private final String toolCode;
+    private final int unit;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+}
@@ -0,0 +1,293 @@
+package toolrental.journal;
+
+import toolrental.rental.RentalAgreement;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * An append-only file of rental agreements.
+ * <p>
+ * Appends use group commit: a caller encodes its record into a shared buffer and waits until the record is
+ * durable. Whichever waiting caller finds no write in progress becomes the leader. It takes the whole buffer,
+ * writes it with one call and forces it once, per the {@link DurabilityMode}, while later callers fill the next
+ * buffer. Under load one force covers many records.
+ * <p>
+ * The file starts with a magic number and format version, followed by records in the format of
+ * {@link JournalRecordCodec}. Opening a journal scans it and truncates the file at the first torn or corrupt
+ * record, which is where a crash during a write leaves the tail. {@link #replay} reads a journal through
+ * memory-mapped windows.
+ */
+public class AgreementJournal implements AutoCloseable {
+    static final int MAGIC = 0x54524A4E;
+    static final int FORMAT_VERSION = 1;
+    static final int FILE_HEADER_SIZE = 8;
+    private static final int REPLAY_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final DurabilityMode durabilityMode;
+    private final JournalRecordCodec codec = new JournalRecordCodec();
+    private final long recoveredRecords;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition committed = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private long appendedRecords;
+    private long durableRecords;
+    private long commits;
+    private boolean committing;
+    private boolean closed;
+    private IOException failure;
+
+    private AgreementJournal(FileChannel channel, DurabilityMode durabilityMode, long recoveredRecords) {
+        this.channel = channel;
+        this.durabilityMode = durabilityMode;
+        this.recoveredRecords = recoveredRecords;
+    }
+
+    /**
+     * Opens a journal for appending, creating it if it does not exist. A torn or corrupt tail is truncated.
+     *
+     * @param path           the journal file
+     * @param durabilityMode how durable a record is when {@link #append} returns
+     * @return the journal
+     * @throws IOException              if the file cannot be read or written
+     * @throws IllegalArgumentException if the file is not a journal or has another format version
+     */
+    public static AgreementJournal open(Path path, DurabilityMode durabilityMode) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long recovered = 0;
+            long end = FILE_HEADER_SIZE;
+            if (channel.size() < FILE_HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION);
+                ((Buffer) header).flip();
+                channel.truncate(0);
+                while (header.hasRemaining()) {
+                    channel.write(header, FILE_HEADER_SIZE - header.remaining());
+                }
+            } else {
+                ScanResult scan = scan(channel, path, null);
+                recovered = scan.records;
+                end = scan.end;
+                if (end < channel.size()) {
+                    channel.truncate(end);
+                }
+            }
+            channel.force(true);
+            channel.position(end);
+            return new AgreementJournal(channel, durabilityMode, recovered);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads every intact record of a journal in order. Reading stops at a torn or corrupt tail, which is left in
+     * place.
+     *
+     * @param path     the journal file
+     * @param consumer receives each agreement
+     * @return the number of agreements read
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a journal or has another format version
+     */
+    public static long replay(Path path, Consumer<RentalAgreement> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return scan(channel, path, consumer).records;
+        }
+    }
+
+    /**
+     * @return the number of records found when the journal was opened
+     */
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /**
+     * @return the number of records in the journal, including those recovered on open
+     */
+    public long getRecordCount() {
+        lock.lock();
+        try {
+            return recoveredRecords + appendedRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of group commits so far; each is one write and, unless buffered, one force
+     */
+    public long getCommitCount() {
+        lock.lock();
+        try {
+            return commits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends an agreement and waits until it is as durable as the journal's {@link DurabilityMode} requires.
+     * Safe to call from many threads; concurrent appends share writes and forces.
+     *
+     * @param agreement the agreement to append
+     * @return the index of the record in the journal
+     * @throws IOException           if the journal could not be written, now or by an earlier commit
+     * @throws IllegalStateException if the journal is closed
+     */
+    public long append(RentalAgreement agreement) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed.");
+            }
+            checkFailure();
+            while (!codec.encode(agreement, pending)) {
+                ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+                ((Buffer) pending).flip();
+                pending = grown.put(pending);
+            }
+            long record = ++appendedRecords;
+            while (durableRecords < record) {
+                checkFailure();
+                if (committing) {
+                    committed.awaitUninterruptibly();
+                } else {
+                    commit();
+                }
+            }
+            return recoveredRecords + record - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the file. Appends that already returned are unaffected; further appends fail.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            while (committing) {
+                committed.awaitUninterruptibly();
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        channel.close();
+    }
+
+    /**
+     * Writes and forces everything in the pending buffer as the leader. Called with the lock held; the lock is
+     * released during the I/O so other callers can keep appending to the next buffer.
+     */
+    private void commit() {
+        committing = true;
+        ByteBuffer batch = pending;
+        pending = spare;
+        long target = appendedRecords;
+        IOException error = null;
+        lock.unlock();
+        try {
+            ((Buffer) batch).flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            if (durabilityMode != DurabilityMode.OS_BUFFERED) {
+                channel.force(durabilityMode == DurabilityMode.FULL_SYNC);
+            }
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+        ((Buffer) batch).clear();
+        spare = batch;
+        committing = false;
+        if (error != null) {
+            failure = error;
+        } else {
+            durableRecords = target;
+            commits++;
+        }
+        committed.signalAll();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal write failed; the journal must be reopened.", failure);
+        }
+    }
+
+    /**
+     * Walks the records of a journal through mapped windows, decoding them if a consumer is given.
+     */
+    private static ScanResult scan(FileChannel channel, Path path, Consumer<RentalAgreement> consumer) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Read until the header is complete or the file ends.
+        }
+        if (header.position() < FILE_HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an agreement journal: " + path);
+        }
+        if (header.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported agreement journal version " + header.getInt(4) + ": " + path);
+        }
+
+        JournalRecordCodec codec = new JournalRecordCodec();
+        long records = 0;
+        long position = FILE_HEADER_SIZE;
+        while (position < size) {
+            int length = (int) Math.min(REPLAY_WINDOW_SIZE, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int offset = 0;
+            while (true) {
+                int recordLength = codec.validate(window, offset, length);
+                if (recordLength < 0) {
+                    break;
+                }
+                if (consumer != null) {
+                    consumer.accept(codec.decode(window, offset));
+                }
+                offset += recordLength;
+                records++;
+            }
+            boolean lastWindow = position + length == size;
+            if (offset == 0 || lastWindow) {
+                // Either the record at the start of a full window is corrupt, or the file ends here.
+                return new ScanResult(records, position + offset);
+            }
+            position += offset;
+        }
+        return new ScanResult(records, position);
+    }
+
+    private static final class ScanResult {
+        private final long records;
+        private final long end;
+
+        private ScanResult(long records, long end) {
+            this.records = records;
+            this.end = end;
+        }
+    }
+}
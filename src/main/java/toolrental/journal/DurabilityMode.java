@@ -0,0 +1,13 @@
+package toolrental.journal;
+
+/**
+ * How far an {@link AgreementJournal#append} has to get before it returns.
+ */
+public enum DurabilityMode {
+    /** The record is in the operating system's page cache: it survives a process crash but not a power loss. */
+    OS_BUFFERED,
+    /** The record's bytes are forced to the device, without waiting for file metadata such as timestamps. */
+    DATA_SYNC,
+    /** The record and the file metadata are forced to the device. */
+    FULL_SYNC
+}
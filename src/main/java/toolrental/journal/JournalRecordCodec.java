@@ -0,0 +1,171 @@
+package toolrental.journal;
+
+import toolrental.constants.ToolBrand;
+import toolrental.rental.AgreementEncoder;
+import toolrental.rental.RentalAgreement;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The binary journal record. Each record is a length and a CRC-32 of the payload followed by the payload:
+ * <pre>
+ * checkout day, due day (epoch days), rental days, charge days (ints), discount percent (byte),
+ * daily charge, pre-discount charge, discount amount, final charge (longs, in cents),
+ * tool brand, tool type (length byte + UTF-8), tool code (length short + UTF-8)
+ * </pre>
+ * A decoder keeps a small cache of the strings it has decoded, since a journal repeats the same few tool
+ * codes and types millions of times. Decoders are not thread-safe.
+ */
+final class JournalRecordCodec {
+    static final int RECORD_HEADER_SIZE = 8;
+    private static final int FIXED_PAYLOAD_SIZE = 4 * 4 + 1 + 4 * 8;
+    private static final int STRING_CACHE_SIZE = 1024;
+
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[3 * 0xFFFF];
+    private final byte[][] cachedBytes = new byte[STRING_CACHE_SIZE][];
+    private final String[] cachedStrings = new String[STRING_CACHE_SIZE];
+
+    /**
+     * Appends one record at the buffer's position.
+     *
+     * @return false if the buffer did not have room, in which case its position is unchanged
+     */
+    boolean encode(RentalAgreement agreement, ByteBuffer out) {
+        int start = out.position();
+        int maxLength = RECORD_HEADER_SIZE + FIXED_PAYLOAD_SIZE + 4
+                + 3 * (agreement.getToolBrand().name().length() + agreement.getToolType().length() + agreement.getToolCode().length());
+        if (out.remaining() < maxLength) {
+            return false;
+        }
+        try {
+            encodePayload(agreement, out, start);
+        } catch (IllegalArgumentException e) {
+            ((Buffer) out).position(start);
+            throw e;
+        }
+        return true;
+    }
+
+    private void encodePayload(RentalAgreement agreement, ByteBuffer out, int start) {
+        ((Buffer) out).position(start + RECORD_HEADER_SIZE);
+        out.putInt((int) agreement.getCheckoutDate().toEpochDay())
+                .putInt((int) agreement.getDueDate().toEpochDay())
+                .putInt(agreement.getRentalDays())
+                .putInt(agreement.getChargeDays())
+                .put((byte) agreement.getDiscountPercent())
+                .putLong(agreement.getDailyRentalChargeCents())
+                .putLong(agreement.getPreDiscountChargeCents())
+                .putLong(agreement.getDiscountAmountCents())
+                .putLong(agreement.getFinalChargeCents());
+        putString(out, agreement.getToolBrand().name(), false);
+        putString(out, agreement.getToolType(), false);
+        putString(out, agreement.getToolCode(), true);
+
+        int end = out.position();
+        int payloadLength = end - start - RECORD_HEADER_SIZE;
+        ByteBuffer payload = out.duplicate();
+        ((Buffer) payload).position(start + RECORD_HEADER_SIZE).limit(end);
+        crc.reset();
+        crc.update(payload);
+        out.putInt(start, payloadLength).putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Checks that a whole, uncorrupted record starts at the position.
+     *
+     * @return the length of the record including its header, or -1 if it is torn or corrupt
+     */
+    int validate(ByteBuffer in, int position, int limit) {
+        if (limit - position < RECORD_HEADER_SIZE) {
+            return -1;
+        }
+        int payloadLength = in.getInt(position);
+        if (payloadLength < FIXED_PAYLOAD_SIZE || payloadLength > limit - position - RECORD_HEADER_SIZE) {
+            return -1;
+        }
+        int savedPosition = in.position();
+        int savedLimit = in.limit();
+        ((Buffer) in).limit(position + RECORD_HEADER_SIZE + payloadLength).position(position + RECORD_HEADER_SIZE);
+        crc.reset();
+        crc.update(in);
+        ((Buffer) in).limit(savedLimit).position(savedPosition);
+        return (int) crc.getValue() == in.getInt(position + 4) ? RECORD_HEADER_SIZE + payloadLength : -1;
+    }
+
+    /**
+     * Decodes a record that {@link #validate} accepted.
+     */
+    RentalAgreement decode(ByteBuffer in, int position) {
+        int p = position + RECORD_HEADER_SIZE;
+        LocalDate checkoutDate = LocalDate.ofEpochDay(in.getInt(p));
+        LocalDate dueDate = LocalDate.ofEpochDay(in.getInt(p + 4));
+        int rentalDays = in.getInt(p + 8);
+        int chargeDays = in.getInt(p + 12);
+        int discountPercent = in.get(p + 16);
+        long dailyCents = in.getLong(p + 17);
+        long preDiscountCents = in.getLong(p + 25);
+        long discountCents = in.getLong(p + 33);
+        long finalCents = in.getLong(p + 41);
+        p += FIXED_PAYLOAD_SIZE;
+
+        int brandLength = in.get(p) & 0xFF;
+        ToolBrand brand = ToolBrand.valueOf(getString(in, p + 1, brandLength));
+        p += 1 + brandLength;
+        int typeLength = in.get(p) & 0xFF;
+        String toolType = getString(in, p + 1, typeLength);
+        p += 1 + typeLength;
+        int codeLength = in.getShort(p) & 0xFFFF;
+        String toolCode = getString(in, p + 2, codeLength);
+
+        return RentalAgreement.ofCents(toolCode, toolType, brand, rentalDays, checkoutDate, dueDate, dailyCents, chargeDays,
+                preDiscountCents, discountPercent, discountCents, finalCents);
+    }
+
+    private static void putString(ByteBuffer out, String value, boolean wide) {
+        int lengthPosition = out.position();
+        ((Buffer) out).position(lengthPosition + (wide ? 2 : 1));
+        AgreementEncoder.encodeUtf8(value, out);
+        int length = out.position() - lengthPosition - (wide ? 2 : 1);
+        if (length > (wide ? 0xFFFF : 0xFF)) {
+            throw new IllegalArgumentException("Value is too long for a journal record: " + value);
+        }
+        if (wide) {
+            out.putShort(lengthPosition, (short) length);
+        } else {
+            out.put(lengthPosition, (byte) length);
+        }
+    }
+
+    private String getString(ByteBuffer in, int position, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = in.get(position + i);
+            scratch[i] = b;
+            hash = 31 * hash + b;
+        }
+        int slot = (hash ^ (hash >>> 16)) & (STRING_CACHE_SIZE - 1);
+        byte[] cached = cachedBytes[slot];
+        if (cached != null && cached.length == length && regionEquals(cached, scratch, length)) {
+            return cachedStrings[slot];
+        }
+        String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        cachedBytes[slot] = Arrays.copyOf(scratch, length);
+        cachedStrings[slot] = value;
+        return value;
+    }
+
+    private static boolean regionEquals(byte[] a, byte[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
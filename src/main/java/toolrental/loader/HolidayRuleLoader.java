@@ -0,0 +1,92 @@
+package toolrental.loader;
+
+import toolrental.holiday.FixedDateHolidayRule;
+import toolrental.holiday.HolidayRule;
+import toolrental.holiday.NthWeekdayHolidayRule;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Loads holiday rules from a properties file so stores can add holidays without recompiling. Each entry maps
+ * a holiday name to a rule:
+ * <pre>
+ * christmas = fixed DECEMBER 25 observed
+ * new-years-day = fixed JANUARY 1
+ * thanksgiving = nth NOVEMBER THURSDAY 4
+ * memorial-day = nth MAY MONDAY last
+ * </pre>
+ * A {@code fixed} rule with the {@code observed} flag moves a weekend holiday to the closest weekday.
+ */
+public class HolidayRuleLoader {
+
+    /**
+     * Loads holiday rules from a properties file.
+     *
+     * @param path the file to read
+     * @return the rules, ordered by holiday name
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a rule cannot be parsed
+     */
+    public static List<HolidayRule> loadRules(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return loadRules(reader);
+        }
+    }
+
+    /**
+     * Loads holiday rules in properties format.
+     *
+     * @param reader the source to read
+     * @return the rules, ordered by holiday name
+     * @throws IOException              if the source cannot be read
+     * @throws IllegalArgumentException if a rule cannot be parsed
+     */
+    public static List<HolidayRule> loadRules(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+
+        List<HolidayRule> rules = new ArrayList<>();
+        for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+            rules.add(parseRule(name, properties.getProperty(name)));
+        }
+        return rules;
+    }
+
+    /**
+     * Parses a single holiday rule.
+     *
+     * @param name the holiday name
+     * @param spec the rule, for example {@code fixed JULY 4 observed} or {@code nth SEPTEMBER MONDAY 1}
+     * @return the parsed rule
+     * @throws IllegalArgumentException if the rule cannot be parsed
+     */
+    public static HolidayRule parseRule(String name, String spec) {
+        String[] tokens = spec.trim().toUpperCase(Locale.ROOT).split("\\s+");
+        try {
+            if (tokens[0].equals("FIXED") && (tokens.length == 3 || tokens.length == 4 && tokens[3].equals("OBSERVED"))) {
+                MonthDay monthDay = MonthDay.of(Month.valueOf(tokens[1]), Integer.parseInt(tokens[2]));
+                return new FixedDateHolidayRule(name, monthDay, tokens.length == 4);
+            }
+            if (tokens[0].equals("NTH") && tokens.length == 4) {
+                int ordinal = tokens[3].equals("LAST") ? -1 : Integer.parseInt(tokens[3]);
+                return new NthWeekdayHolidayRule(name, Month.valueOf(tokens[1]), DayOfWeek.valueOf(tokens[2]), ordinal);
+            }
+        } catch (DateTimeException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid holiday rule for " + name + ": " + spec, e);
+        }
+        throw new IllegalArgumentException("Invalid holiday rule for " + name + ": " + spec);
+    }
+}
@@ -1,12 +1,47 @@
 package toolrental.loader;
 
 import toolrental.constants.ToolBrand;
+import toolrental.pricing.PricingRule;
+import toolrental.tools.MappedToolTable;
 import toolrental.tools.Tool;
+import toolrental.tools.ToolCatalog;
 import toolrental.tools.ToolType;
+import toolrental.tools.ToolTypePricing;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
+/**
+ * Loads the tool catalog and tool type pricing. Besides the built-in tools, tools can be read from a CSV file:
+ * <pre>
+ * toolCode,toolType,toolBrand
+ * CHNS,CHAINSAW,STIHL
+ * </pre>
+ * and pricing from a CSV file that overrides the built-in pricing of the listed tool types:
+ * <pre>
+ * toolType,dailyCharge,weekdayCharge,weekendCharge,holidayCharge
+ * LADDER,1.99,true,true,false
+ * </pre>
+ * Pricing rules for tool types, brands or tool codes are read with {@link #loadPricingRules}, where a blank
+ * field keeps the setting of less specific rules:
+ * <pre>
+ * match,dailyCharge,weekdayCharge,weekendCharge,holidayCharge
+ * toolType=LADDER,2.49,,,
+ * toolBrand=RIDGID,,,true,
+ * toolCode=JAKD,3.49,true,false,false
+ * </pre>
+ * The header lines are optional. For fast startup a catalog can be saved once as a binary snapshot with
+ * {@link #writeSnapshot} and opened with {@link #openSnapshot}, which maps the file instead of parsing it.
+ */
 public class ToolLoader {
     public static List<Tool> loadTools(){
         List<Tool> tools = new ArrayList<>();
@@ -16,4 +51,201 @@ public class ToolLoader {
         tools.add(new Tool("JAKR", ToolType.JACKHAMMER, ToolBrand.RIDGID));
         return tools;
     }
+
+    /**
+     * Loads tools from a CSV file.
+     *
+     * @param path the file to read
+     * @return the tools, in file order
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line cannot be parsed
+     */
+    public static List<Tool> loadTools(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return loadTools(reader);
+        }
+    }
+
+    /**
+     * Loads tools in CSV format.
+     *
+     * @param reader the source to read
+     * @return the tools, in source order
+     * @throws IOException              if the source cannot be read
+     * @throws IllegalArgumentException if a line cannot be parsed
+     */
+    public static List<Tool> loadTools(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        List<Tool> tools = new ArrayList<>();
+        String line;
+        for (int lineNumber = 1; (line = lines.readLine()) != null; lineNumber++) {
+            line = line.trim();
+            if (line.isEmpty() || lineNumber == 1 && line.regionMatches(true, 0, "toolCode,", 0, 9)) {
+                continue;
+            }
+            int first = line.indexOf(',');
+            int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+            if (first <= 0 || second < 0 || line.indexOf(',', second + 1) >= 0) {
+                throw new IllegalArgumentException("Invalid tool on line " + lineNumber + ": " + line);
+            }
+            try {
+                tools.add(new Tool(line.substring(0, first).trim(),
+                        ToolType.valueOf(line.substring(first + 1, second).trim().toUpperCase(Locale.ROOT)),
+                        ToolBrand.valueOf(line.substring(second + 1).trim().toUpperCase(Locale.ROOT))));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid tool on line " + lineNumber + ": " + line, e);
+            }
+        }
+        return tools;
+    }
+
+    /**
+     * Loads tool type pricing from a CSV file.
+     *
+     * @param path the file to read
+     * @return the standard pricing with the listed tool types replaced
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line cannot be parsed
+     */
+    public static ToolTypePricing loadPricing(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return loadPricing(reader);
+        }
+    }
+
+    /**
+     * Loads tool type pricing in CSV format. Daily charges are decimal amounts with at most two fraction digits.
+     *
+     * @param reader the source to read
+     * @return the standard pricing with the listed tool types replaced
+     * @throws IOException              if the source cannot be read
+     * @throws IllegalArgumentException if a line cannot be parsed
+     */
+    public static ToolTypePricing loadPricing(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        ToolTypePricing pricing = ToolTypePricing.standard();
+        String line;
+        for (int lineNumber = 1; (line = lines.readLine()) != null; lineNumber++) {
+            line = line.trim();
+            if (line.isEmpty() || lineNumber == 1 && line.regionMatches(true, 0, "toolType,", 0, 9)) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            try {
+                if (fields.length != 5) {
+                    throw new IllegalArgumentException("Expected 5 fields.");
+                }
+                long dailyChargeCents = new BigDecimal(fields[1].trim()).movePointRight(2).longValueExact();
+                pricing = pricing.with(ToolType.valueOf(fields[0].trim().toUpperCase(Locale.ROOT)), dailyChargeCents,
+                        parseFlag(fields[2]), parseFlag(fields[3]), parseFlag(fields[4]));
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid pricing on line " + lineNumber + ": " + line, e);
+            }
+        }
+        return pricing;
+    }
+
+    /**
+     * Loads pricing rules from a CSV file.
+     *
+     * @param path the file to read
+     * @return the rules, in file order
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line cannot be parsed
+     */
+    public static List<PricingRule> loadPricingRules(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return loadPricingRules(reader);
+        }
+    }
+
+    /**
+     * Loads pricing rules in CSV format. The first field is {@code toolType=}, {@code toolBrand=} or
+     * {@code toolCode=} followed by the value to match; the other fields are the settings of
+     * {@link #loadPricing}, each of which may be blank.
+     *
+     * @param reader the source to read
+     * @return the rules, in source order
+     * @throws IOException              if the source cannot be read
+     * @throws IllegalArgumentException if a line cannot be parsed
+     */
+    public static List<PricingRule> loadPricingRules(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        List<PricingRule> rules = new ArrayList<>();
+        String line;
+        for (int lineNumber = 1; (line = lines.readLine()) != null; lineNumber++) {
+            line = line.trim();
+            if (line.isEmpty() || lineNumber == 1 && line.regionMatches(true, 0, "match,", 0, 6)) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            try {
+                if (fields.length != 5) {
+                    throw new IllegalArgumentException("Expected 5 fields.");
+                }
+                int equals = fields[0].indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Expected toolType=, toolBrand= or toolCode=.");
+                }
+                String scope = fields[0].substring(0, equals).trim();
+                String value = fields[0].substring(equals + 1).trim();
+                PricingRule.PricingRuleBuilder rule = PricingRule.builder();
+                if (scope.equalsIgnoreCase("toolType")) {
+                    rule.toolType(ToolType.valueOf(value.toUpperCase(Locale.ROOT)));
+                } else if (scope.equalsIgnoreCase("toolBrand")) {
+                    rule.toolBrand(ToolBrand.valueOf(value.toUpperCase(Locale.ROOT)));
+                } else if (scope.equalsIgnoreCase("toolCode") && !value.isEmpty()) {
+                    rule.toolCode(value);
+                } else {
+                    throw new IllegalArgumentException("Expected toolType=, toolBrand= or toolCode=.");
+                }
+                String dailyCharge = fields[1].trim();
+                rules.add(rule.dailyChargeCents(dailyCharge.isEmpty() ? null : new BigDecimal(dailyCharge).movePointRight(2).longValueExact())
+                        .weekdayCharge(parseOptionalFlag(fields[2])).weekendCharge(parseOptionalFlag(fields[3]))
+                        .holidayCharge(parseOptionalFlag(fields[4])).build());
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid pricing rule on line " + lineNumber + ": " + line, e);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Writes tools to a binary snapshot file that {@link #openSnapshot} can map.
+     *
+     * @param tools the tools to write
+     * @param path  the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeSnapshot(Collection<Tool> tools, Path path) throws IOException {
+        MappedToolTable.write(tools, path);
+    }
+
+    /**
+     * Opens a catalog over a binary snapshot file. The file is mapped and its checksum verified; tools are read
+     * from it on first lookup.
+     *
+     * @param path the snapshot file
+     * @return the catalog
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a valid snapshot of a supported version
+     */
+    public static ToolCatalog openSnapshot(Path path) throws IOException {
+        return new ToolCatalog(MappedToolTable.open(path));
+    }
+
+    private static Boolean parseOptionalFlag(String value) {
+        return value.trim().isEmpty() ? null : parseFlag(value);
+    }
+
+    private static boolean parseFlag(String value) {
+        String flag = value.trim();
+        if (flag.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (flag.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Expected true or false: " + flag);
+    }
 }
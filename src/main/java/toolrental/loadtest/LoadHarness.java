@@ -0,0 +1,133 @@
+package toolrental.loadtest;
+
+import toolrental.metrics.LatencyHistogram;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays checkout requests against a {@link CheckoutService} from a fixed number of threads and reports
+ * throughput, latency percentiles and allocation.
+ * <p>
+ * Pacing is open-loop: request {@code i} is due {@code i / rate} seconds after the run starts, whether or not
+ * earlier requests have completed, and its latency is measured from when it was due rather than from when a
+ * thread got to it. A service that stalls therefore shows the queueing delay its callers would see, instead of
+ * quietly lowering the offered load. A rate of zero sends requests back to back, which measures peak throughput.
+ * Requests are priced with {@link CheckoutService#tryCheckout}, so rejections are counted rather than thrown.
+ */
+public class LoadHarness {
+    /** Waits longer than this are parked; shorter ones spin so a request is not sent late. */
+    private static final long PARK_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final CheckoutService checkoutService;
+    private final int threads;
+
+    /**
+     * @param checkoutService the service to drive
+     * @param threads         the number of threads sending requests
+     */
+    public LoadHarness(CheckoutService checkoutService, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be 1 or greater.");
+        }
+        this.checkoutService = checkoutService;
+        this.threads = threads;
+    }
+
+    /**
+     * Sends every request once and waits for all of them to complete.
+     *
+     * @param requests          the requests, in the order they are due
+     * @param requestsPerSecond the rate requests are due at, or 0 to send them as fast as possible
+     * @return the report of the run
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public LoadReport run(List<CheckoutRequest> requests, double requestsPerSecond) throws InterruptedException {
+        if (!(requestsPerSecond >= 0.0)) {
+            throw new IllegalArgumentException("Request rate must not be negative.");
+        }
+        CheckoutRequest[] due = requests.toArray(new CheckoutRequest[0]);
+        double intervalNanos = requestsPerSecond == 0.0 ? 0.0 : 1e9 / requestsPerSecond;
+        AtomicInteger nextRequest = new AtomicInteger();
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder succeeded = new LongAdder();
+        LongAdder finalChargeCents = new LongAdder();
+        LongAdder allocatedBytes = new LongAdder();
+        AtomicBoolean allocationUnmeasured = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(threads);
+        long startNanos = System.nanoTime() + START_DELAY_NANOS;
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    long allocatedBefore = allocatedBytes();
+                    int index;
+                    while ((index = nextRequest.getAndIncrement()) < due.length) {
+                        long dueNanos = startNanos + (long) (index * intervalNanos);
+                        waitUntil(dueNanos);
+                        long sentNanos = intervalNanos == 0.0 ? System.nanoTime() : dueNanos;
+                        CheckoutRequest request = due[index];
+                        CheckoutResult result = checkoutService.tryCheckout(request.getToolCode(), request.getRentalDays(),
+                                request.getDiscountPercent(), request.getCheckoutDate());
+                        latency.record(System.nanoTime() - sentNanos);
+                        if (result.isSuccess()) {
+                            succeeded.increment();
+                            finalChargeCents.add(result.getAgreement().getFinalChargeCents());
+                        }
+                    }
+                    long allocatedAfter = allocatedBytes();
+                    if (allocatedBefore < 0 || allocatedAfter < 0) {
+                        allocationUnmeasured.set(true);
+                    } else {
+                        allocatedBytes.add(allocatedAfter - allocatedBefore);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            }, "load-harness-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        finished.await();
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        return new LoadReport(threads, requestsPerSecond, due.length, succeeded.sum(), due.length - succeeded.sum(),
+                finalChargeCents.sum(), elapsedNanos, latency.snapshot(),
+                allocationUnmeasured.get() ? -1L : allocatedBytes.sum());
+    }
+
+    private static void waitUntil(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            if (remaining > PARK_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - PARK_THRESHOLD_NANOS);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * @return the bytes the current thread has allocated so far, or -1 if the JVM does not track them
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,49 @@
+package toolrental.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import toolrental.metrics.LatencySnapshot;
+
+/**
+ * The outcome of one {@link LoadHarness} run.
+ */
+@AllArgsConstructor
+@Getter
+public class LoadReport {
+    private final int threads;
+    /** The target request rate, or 0 if requests were sent as fast as the threads allowed. */
+    private final double targetRequestsPerSecond;
+    private final long requests;
+    private final long succeeded;
+    private final long rejected;
+    /** The sum of the final charges of all agreements, which changes whenever pricing does. */
+    private final long finalChargeCents;
+    private final long elapsedNanos;
+    /** Latency of every request, measured from the time it was scheduled to be sent. */
+    private final LatencySnapshot latency;
+    /** Bytes allocated by the worker threads, or -1 if the JVM cannot measure allocation per thread. */
+    private final long allocatedBytes;
+
+    /**
+     * @return the requests completed per second of wall-clock time
+     */
+    public double getRequestsPerSecond() {
+        return elapsedNanos == 0 ? 0 : requests * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return the bytes allocated per request, or -1 if allocation was not measured
+     */
+    public double getAllocatedBytesPerRequest() {
+        return allocatedBytes < 0 || requests == 0 ? -1 : (double) allocatedBytes / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d requests (%d succeeded, %d rejected) on %d threads in %.3f s: %.0f req/s, "
+                        + "p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus, %.0f B/req",
+                requests, succeeded, rejected, threads, elapsedNanos / 1e9, getRequestsPerSecond(),
+                latency.getPercentileNanos(50) / 1e3, latency.getPercentileNanos(99) / 1e3,
+                latency.getPercentileNanos(99.9) / 1e3, latency.getMaxNanos() / 1e3, getAllocatedBytesPerRequest());
+    }
+}
@@ -0,0 +1,180 @@
+package toolrental.loadtest;
+
+import lombok.Builder;
+import toolrental.service.CheckoutRequest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a stream of checkout requests shaped like production traffic:
+ * <ul>
+ *     <li>tool codes follow a Zipf distribution, so the first code in the list is the most popular;</li>
+ *     <li>a share of checkout dates cluster within a week of Independence Day and Labor Day, and the rest are
+ *     spread evenly over the years in range;</li>
+ *     <li>rental lengths follow a Pareto distribution: most rentals last a few days, a few last for months;</li>
+ *     <li>most requests carry no discount;</li>
+ *     <li>a configurable share of requests is invalid, with an unknown tool code, no rental days or a discount
+ *     over 100%.</li>
+ * </ul>
+ * The stream depends only on the settings and the seed, so a run can be reproduced exactly. A generator is not
+ * thread-safe; generate the requests up front and hand them to a {@link LoadHarness}.
+ */
+public class WorkloadGenerator {
+    private static final String UNKNOWN_TOOL_CODE = "NONE";
+    private static final int[] DISCOUNTS = {5, 10, 15, 20, 25, 50};
+
+    private final SplittableRandom random;
+    private final String[] toolCodes;
+    /** Cumulative Zipf probabilities, one per tool code. */
+    private final double[] toolCodeCdf;
+    private final int firstYear;
+    private final int yearCount;
+    private final double seasonalShare;
+    private final double inverseParetoShape;
+    private final int maxRentalDays;
+    private final double discountShare;
+    private final double invalidShare;
+
+    /**
+     * Creates a generator. Use {@link #builder()} and set the tool codes and any settings that differ from the
+     * defaults.
+     *
+     * @param seed           the seed of the random stream
+     * @param toolCodes      the tool codes to rent, most popular first
+     * @param zipfExponent   the Zipf exponent of tool code popularity, or null for 1.0
+     * @param firstYear      the first checkout year, or null for 2015
+     * @param lastYear       the last checkout year, or null for {@code firstYear + 9}
+     * @param seasonalShare  the share of checkouts near Independence Day or Labor Day, or null for 0.3
+     * @param paretoShape    the shape of the rental length distribution, where smaller is heavier-tailed, or null
+     *                       for 1.5
+     * @param maxRentalDays  the longest rental generated, or null for 365
+     * @param discountShare  the share of valid requests with a discount, or null for 0.2
+     * @param invalidShare   the share of requests that the service must reject, or null for 0.01
+     * @throws IllegalArgumentException if no tool codes are given or a setting is out of range
+     */
+    @Builder
+    private WorkloadGenerator(long seed, List<String> toolCodes, Double zipfExponent, Integer firstYear, Integer lastYear,
+                              Double seasonalShare, Double paretoShape, Integer maxRentalDays, Double discountShare,
+                              Double invalidShare) {
+        if (toolCodes == null || toolCodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one tool code is required.");
+        }
+        this.random = new SplittableRandom(seed);
+        this.toolCodes = toolCodes.toArray(new String[0]);
+        this.toolCodeCdf = zipfCdf(this.toolCodes.length, zipfExponent != null ? zipfExponent : 1.0);
+        this.firstYear = firstYear != null ? firstYear : 2015;
+        int last = lastYear != null ? lastYear : this.firstYear + 9;
+        if (last < this.firstYear) {
+            throw new IllegalArgumentException("Last year must not be before the first year.");
+        }
+        this.yearCount = last - this.firstYear + 1;
+        this.seasonalShare = share(seasonalShare, 0.3);
+        double shape = paretoShape != null ? paretoShape : 1.5;
+        if (!(shape > 0.0)) {
+            throw new IllegalArgumentException("Pareto shape must be positive.");
+        }
+        this.inverseParetoShape = 1.0 / shape;
+        this.maxRentalDays = maxRentalDays != null ? maxRentalDays : 365;
+        if (this.maxRentalDays < 1) {
+            throw new IllegalArgumentException("Maximum rental days must be 1 or greater.");
+        }
+        this.discountShare = share(discountShare, 0.2);
+        this.invalidShare = share(invalidShare, 0.01);
+    }
+
+    /**
+     * @return the next request of the stream
+     */
+    public CheckoutRequest next() {
+        String toolCode = nextToolCode();
+        LocalDate checkoutDate = nextCheckoutDate();
+        int rentalDays = nextRentalDays();
+        int discountPercent = random.nextDouble() < discountShare ? DISCOUNTS[random.nextInt(DISCOUNTS.length)] : 0;
+        if (random.nextDouble() < invalidShare) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    toolCode = UNKNOWN_TOOL_CODE;
+                    break;
+                case 1:
+                    rentalDays = 0;
+                    break;
+                default:
+                    discountPercent = 101 + random.nextInt(100);
+                    break;
+            }
+        }
+        return new CheckoutRequest(toolCode, rentalDays, discountPercent, checkoutDate);
+    }
+
+    /**
+     * Returns the next {@code count} requests of the stream.
+     *
+     * @param count the number of requests
+     * @return the requests, in stream order
+     */
+    public List<CheckoutRequest> generate(int count) {
+        List<CheckoutRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(next());
+        }
+        return requests;
+    }
+
+    private String nextToolCode() {
+        int index = Arrays.binarySearch(toolCodeCdf, random.nextDouble());
+        return toolCodes[Math.min(index < 0 ? -index - 1 : index, toolCodes.length - 1)];
+    }
+
+    /**
+     * Picks a year, then either a day within a week of one of its two busiest holidays, more likely the closer it
+     * is, or any day of the year.
+     */
+    private LocalDate nextCheckoutDate() {
+        int year = firstYear + random.nextInt(yearCount);
+        if (random.nextDouble() < seasonalShare) {
+            LocalDate holiday = random.nextBoolean() ? LocalDate.of(year, 7, 4)
+                    : LocalDate.of(year, 9, 1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+            return holiday.plusDays(random.nextInt(8) - random.nextInt(8));
+        }
+        LocalDate first = LocalDate.of(year, 1, 1);
+        return first.plusDays(random.nextInt(first.lengthOfYear()));
+    }
+
+    /**
+     * Draws from a Pareto distribution with a minimum of one day by inverting its distribution function.
+     */
+    private int nextRentalDays() {
+        double days = Math.pow(1.0 - random.nextDouble(), -inverseParetoShape);
+        return days >= maxRentalDays ? maxRentalDays : (int) days;
+    }
+
+    private static double[] zipfCdf(int size, double exponent) {
+        if (!(exponent >= 0.0)) {
+            throw new IllegalArgumentException("Zipf exponent must not be negative.");
+        }
+        double[] cdf = new double[size];
+        double total = 0.0;
+        for (int rank = 1; rank <= size; rank++) {
+            total += 1.0 / Math.pow(rank, exponent);
+            cdf[rank - 1] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static double share(Double value, double defaultValue) {
+        double share = value != null ? value : defaultValue;
+        if (!(share >= 0.0 && share <= 1.0)) {
+            throw new IllegalArgumentException("Shares must be between 0 and 1.");
+        }
+        return share;
+    }
+}
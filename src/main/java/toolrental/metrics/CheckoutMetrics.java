@@ -0,0 +1,119 @@
+package toolrental.metrics;
+
+import toolrental.constants.ToolBrand;
+import toolrental.service.CheckoutErrorCode;
+import toolrental.tools.ToolType;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operational counters for a {@link toolrental.service.CheckoutService}: successful checkouts per tool type and
+ * per brand, rejections per {@link CheckoutErrorCode}, and the latency of both. Counters are {@link LongAdder}s
+ * indexed by enum ordinal and latencies go to a {@link LatencyHistogram}, so recording is lock-free and does not
+ * allocate. A service built without metrics skips all of this, including the clock reads.
+ * <p>
+ * Reading the clock twice can cost more than the counters, so latency may be sampled: with a sample interval of
+ * {@code n}, a random one in {@code n} checkouts is timed and the latency histograms hold only those. Counts always
+ * include every checkout.
+ */
+public final class CheckoutMetrics {
+    /** The elapsed time passed for a checkout that was not timed, which is counted but not added to a histogram. */
+    public static final long UNTIMED = Long.MIN_VALUE;
+
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final ToolBrand[] TOOL_BRANDS = ToolBrand.values();
+    private static final CheckoutErrorCode[] ERROR_CODES = CheckoutErrorCode.values();
+
+    private final LongAdder[] checkoutsByToolType = newAdders(TOOL_TYPES.length);
+    private final LongAdder[] checkoutsByBrand = newAdders(TOOL_BRANDS.length);
+    private final LongAdder[] failuresByCode = newAdders(ERROR_CODES.length);
+    private final LatencyHistogram checkoutLatency = new LatencyHistogram();
+    private final LatencyHistogram failureLatency = new LatencyHistogram();
+    private final int latencySampleInterval;
+
+    /**
+     * Creates metrics that time every checkout.
+     */
+    public CheckoutMetrics() {
+        this(1);
+    }
+
+    /**
+     * @param latencySampleInterval time one in this many checkouts, on average
+     */
+    public CheckoutMetrics(int latencySampleInterval) {
+        if (latencySampleInterval < 1) {
+            throw new IllegalArgumentException("Latency sample interval must be 1 or greater.");
+        }
+        this.latencySampleInterval = latencySampleInterval;
+    }
+
+    public int getLatencySampleInterval() {
+        return latencySampleInterval;
+    }
+
+    /**
+     * Decides whether the checkout about to start should be timed.
+     *
+     * @return true if its latency is sampled
+     */
+    public boolean sampleLatency() {
+        return latencySampleInterval == 1 || ThreadLocalRandom.current().nextInt() % latencySampleInterval == 0;
+    }
+
+    /**
+     * Records a successful checkout.
+     *
+     * @param toolType     the type of the rented tool
+     * @param toolBrand    the brand of the rented tool
+     * @param elapsedNanos how long the checkout took, or {@link #UNTIMED}
+     */
+    public void recordCheckout(ToolType toolType, ToolBrand toolBrand, long elapsedNanos) {
+        checkoutsByToolType[toolType.ordinal()].increment();
+        checkoutsByBrand[toolBrand.ordinal()].increment();
+        if (elapsedNanos != UNTIMED) {
+            checkoutLatency.record(elapsedNanos);
+        }
+    }
+
+    /**
+     * Records a rejected checkout.
+     *
+     * @param errorCode    the reason the checkout was rejected
+     * @param elapsedNanos how long it took to reject, or {@link #UNTIMED}
+     */
+    public void recordFailure(CheckoutErrorCode errorCode, long elapsedNanos) {
+        failuresByCode[errorCode.ordinal()].increment();
+        if (elapsedNanos != UNTIMED) {
+            failureLatency.record(elapsedNanos);
+        }
+    }
+
+    /**
+     * Copies the current values. Each counter is read once, so a snapshot taken while checkouts are running may
+     * be off by the checkouts in flight.
+     *
+     * @return the snapshot
+     */
+    public CheckoutMetricsSnapshot snapshot() {
+        return new CheckoutMetricsSnapshot(sums(checkoutsByToolType), sums(checkoutsByBrand), sums(failuresByCode),
+                checkoutLatency.snapshot(), failureLatency.snapshot());
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+}
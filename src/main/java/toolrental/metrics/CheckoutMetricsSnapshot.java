@@ -0,0 +1,143 @@
+package toolrental.metrics;
+
+import lombok.Getter;
+import toolrental.constants.ToolBrand;
+import toolrental.service.CheckoutErrorCode;
+import toolrental.tools.ToolType;
+
+/**
+ * A point-in-time copy of {@link CheckoutMetrics}, exportable as text in the Prometheus exposition format or as
+ * a JSON object.
+ */
+public final class CheckoutMetricsSnapshot {
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+    private static final String[] JSON_PERCENTILE_NAMES = {"p50Nanos", "p90Nanos", "p99Nanos", "p999Nanos"};
+
+    private final long[] checkoutsByToolType;
+    private final long[] checkoutsByBrand;
+    private final long[] failuresByCode;
+    @Getter
+    private final LatencySnapshot checkoutLatency;
+    @Getter
+    private final LatencySnapshot failureLatency;
+
+    CheckoutMetricsSnapshot(long[] checkoutsByToolType, long[] checkoutsByBrand, long[] failuresByCode,
+                            LatencySnapshot checkoutLatency, LatencySnapshot failureLatency) {
+        this.checkoutsByToolType = checkoutsByToolType;
+        this.checkoutsByBrand = checkoutsByBrand;
+        this.failuresByCode = failuresByCode;
+        this.checkoutLatency = checkoutLatency;
+        this.failureLatency = failureLatency;
+    }
+
+    public long getCheckouts(ToolType toolType) {
+        return checkoutsByToolType[toolType.ordinal()];
+    }
+
+    public long getCheckouts(ToolBrand toolBrand) {
+        return checkoutsByBrand[toolBrand.ordinal()];
+    }
+
+    public long getFailures(CheckoutErrorCode errorCode) {
+        return failuresByCode[errorCode.ordinal()];
+    }
+
+    public long getTotalCheckouts() {
+        return sum(checkoutsByToolType);
+    }
+
+    public long getTotalFailures() {
+        return sum(failuresByCode);
+    }
+
+    /**
+     * Formats the snapshot in the Prometheus text exposition format, with latencies in seconds.
+     *
+     * @return the text, one sample per line
+     */
+    public String toText() {
+        StringBuilder out = new StringBuilder(1024);
+        out.append("# TYPE checkout_total counter\n");
+        for (ToolType toolType : ToolType.values()) {
+            sample(out, "checkout_total", "tool_type", toolType.name(), getCheckouts(toolType));
+        }
+        out.append("# TYPE checkout_brand_total counter\n");
+        for (ToolBrand toolBrand : ToolBrand.values()) {
+            sample(out, "checkout_brand_total", "tool_brand", toolBrand.name(), getCheckouts(toolBrand));
+        }
+        out.append("# TYPE checkout_failure_total counter\n");
+        for (CheckoutErrorCode errorCode : CheckoutErrorCode.values()) {
+            sample(out, "checkout_failure_total", "reason", errorCode.name(), getFailures(errorCode));
+        }
+        appendSummary(out, "checkout_latency_seconds", checkoutLatency);
+        appendSummary(out, "checkout_failure_latency_seconds", failureLatency);
+        return out.toString();
+    }
+
+    /**
+     * Formats the snapshot as a single-line JSON object, with latencies in nanoseconds.
+     *
+     * @return the JSON text
+     */
+    public String toJson() {
+        StringBuilder out = new StringBuilder(1024);
+        out.append("{\"checkoutsByToolType\":{");
+        for (ToolType toolType : ToolType.values()) {
+            member(out, toolType.ordinal(), toolType.name()).append(getCheckouts(toolType));
+        }
+        out.append("},\"checkoutsByBrand\":{");
+        for (ToolBrand toolBrand : ToolBrand.values()) {
+            member(out, toolBrand.ordinal(), toolBrand.name()).append(getCheckouts(toolBrand));
+        }
+        out.append("},\"failuresByReason\":{");
+        for (CheckoutErrorCode errorCode : CheckoutErrorCode.values()) {
+            member(out, errorCode.ordinal(), errorCode.name()).append(getFailures(errorCode));
+        }
+        out.append("},\"checkoutLatency\":");
+        appendLatencyJson(out, checkoutLatency);
+        out.append(",\"failureLatency\":");
+        appendLatencyJson(out, failureLatency);
+        return out.append('}').toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String label, String value, long count) {
+        out.append(name).append('{').append(label).append("=\"").append(value).append("\"} ").append(count).append('\n');
+    }
+
+    private static void appendSummary(StringBuilder out, String name, LatencySnapshot latency) {
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            out.append(name).append("{quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                    .append(latency.getPercentileNanos(PERCENTILES[i]) / 1e9).append('\n');
+        }
+        out.append(name).append("_sum ").append(latency.getTotalNanos() / 1e9).append('\n');
+        out.append(name).append("_count ").append(latency.getCount()).append('\n');
+    }
+
+    private static void appendLatencyJson(StringBuilder out, LatencySnapshot latency) {
+        out.append("{\"count\":").append(latency.getCount())
+                .append(",\"meanNanos\":").append(Math.round(latency.getMeanNanos()))
+                .append(",\"maxNanos\":").append(latency.getMaxNanos());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            out.append(",\"").append(JSON_PERCENTILE_NAMES[i]).append("\":")
+                    .append(latency.getPercentileNanos(PERCENTILES[i]));
+        }
+        out.append('}');
+    }
+
+    private static StringBuilder member(StringBuilder out, int index, String name) {
+        if (index > 0) {
+            out.append(',');
+        }
+        return out.append('"').append(name).append("\":");
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
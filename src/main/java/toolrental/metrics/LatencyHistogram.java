@@ -0,0 +1,95 @@
+package toolrental.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of durations in nanoseconds with log-linear buckets: values below 16 have a bucket
+ * each, and every power-of-two range above that is split into 16 equal buckets, so a recorded value is known to
+ * within 6.25%. Buckets are a fixed array of counters, so recording never allocates and never locks.
+ * <p>
+ * Like a {@link java.util.concurrent.atomic.LongAdder}, the counters are striped: each thread records into one of
+ * several copies of the buckets, picked by its thread id, and a snapshot adds the copies up. Every copy keeps its
+ * own total and maximum next to its buckets, and copies are separate arrays, so threads on different stripes do
+ * not write to the same cache lines.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final int TOTAL = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    /** One stripe per processor, rounded up to a power of two and capped, as each stripe takes about 8 KB. */
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+    }
+
+    /**
+     * Records one duration. Negative durations are recorded as zero.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        AtomicLongArray stripe = stripes[stripeOf(Thread.currentThread())];
+        stripe.getAndIncrement(bucketOf(value));
+        stripe.getAndAdd(TOTAL, value);
+        long max;
+        while (value > (max = stripe.get(MAX)) && !stripe.compareAndSet(MAX, max, value)) {
+            // Another thread on this stripe raised the maximum; compare against the new one.
+        }
+    }
+
+    /**
+     * Copies the current counts. Concurrent recordings may be partly included.
+     *
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = stripe.get(i);
+                copy[i] += bucketCount;
+                count += bucketCount;
+            }
+            totalNanos += stripe.get(TOTAL);
+            maxNanos = Math.max(maxNanos, stripe.get(MAX));
+        }
+        return new LatencySnapshot(copy, count, totalNanos, maxNanos);
+    }
+
+    private static int stripeOf(Thread thread) {
+        long hash = thread.getId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (STRIPES - 1);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the largest value that falls into the bucket
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
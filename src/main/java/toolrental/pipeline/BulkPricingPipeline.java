@@ -0,0 +1,215 @@
+package toolrental.pipeline;
+
+import toolrental.rental.AgreementEncoder;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reprices checkout requests streamed from a file and writes the resulting rental agreements to another file.
+ * <p>
+ * The input is read through memory-mapped windows of a fixed size and each line is parsed in place, so memory
+ * use is bounded by the window and output buffer sizes no matter how large the input is. Malformed lines and
+ * checkouts the {@link CheckoutService} rejects are reported to a {@link RejectedRowHandler} and skipped. A
+ * pipeline instance is not thread-safe; run one per input file.
+ */
+public class BulkPricingPipeline {
+    static final String LINE_TOO_LONG = "Line is longer than the read window.";
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int DEFAULT_OUTPUT_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_ROW_BYTES = 4096;
+
+    private final CheckoutService checkoutService;
+    private final int windowSize;
+    private final int outputBufferSize;
+    private final CheckoutRowParser parser = new CheckoutRowParser();
+    private final StringBuilder row = new StringBuilder(512);
+
+    public BulkPricingPipeline(CheckoutService checkoutService) {
+        this(checkoutService, DEFAULT_WINDOW_SIZE, DEFAULT_OUTPUT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a pipeline with explicit buffer sizes.
+     *
+     * @param checkoutService  the service that prices each row
+     * @param windowSize       the number of input bytes mapped at a time, which is also the longest accepted line
+     * @param outputBufferSize the number of output bytes collected before each write
+     */
+    public BulkPricingPipeline(CheckoutService checkoutService, int windowSize, int outputBufferSize) {
+        if (windowSize < 1 || outputBufferSize < MAX_ROW_BYTES) {
+            throw new IllegalArgumentException("Window size must be positive and the output buffer at least " + MAX_ROW_BYTES + " bytes.");
+        }
+        this.checkoutService = checkoutService;
+        this.windowSize = windowSize;
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    /**
+     * Prices every line of the input file and writes one agreement per priced line to the output file, in the
+     * same format as the input. The output file is created or truncated.
+     *
+     * @param input    the file of checkout requests
+     * @param output   the file to write agreements to
+     * @param format   the format of both files
+     * @param rejected receives every line that could not be priced
+     * @return the counters for the run
+     * @throws IOException if either file cannot be read or written
+     */
+    public BulkPricingReport run(Path input, Path output, InputFormat format, RejectedRowHandler rejected) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            Run run = new Run(out, format, rejected);
+            if (format == InputFormat.CSV) {
+                run.write(row.append(AgreementEncoder.CSV_HEADER));
+            }
+            run.readAll(in);
+            run.flush();
+            return new BulkPricingReport(run.rowsRead, run.rowsPriced, run.rowsRejected, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * The state of one pass over an input file.
+     */
+    private final class Run {
+        private final FileChannel out;
+        private final InputFormat format;
+        private final RejectedRowHandler rejected;
+        private final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(outputBufferSize);
+        private long lineNumber;
+        private long rowsRead;
+        private long rowsPriced;
+        private long rowsRejected;
+
+        private Run(FileChannel out, InputFormat format, RejectedRowHandler rejected) {
+            this.out = out;
+            this.format = format;
+            this.rejected = rejected;
+        }
+
+        /**
+         * Maps the input one window at a time. Each window starts at the beginning of a line, so a line that
+         * straddles two windows is read again from the start of the next window.
+         */
+        private void readAll(FileChannel in) throws IOException {
+            long size = in.size();
+            long position = 0;
+            boolean skippingLongLine = false;
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        if (skippingLongLine) {
+                            skippingLongLine = false;
+                        } else {
+                            processLine(window, lineStart, i);
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+
+                if (lastWindow) {
+                    if (lineStart < length && !skippingLongLine) {
+                        processLine(window, lineStart, length);
+                    }
+                    position = size;
+                } else if (lineStart == 0) {
+                    if (!skippingLongLine) {
+                        reject(++lineNumber, LINE_TOO_LONG);
+                        rowsRead++;
+                        skippingLongLine = true;
+                    }
+                    position += length;
+                } else {
+                    position += lineStart;
+                }
+            }
+        }
+
+        private void processLine(ByteBuffer window, int start, int end) throws IOException {
+            lineNumber++;
+            if (end > start && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end == start || lineNumber == 1 && format == InputFormat.CSV && isCsvHeader(window, start, end)) {
+                return;
+            }
+            rowsRead++;
+
+            String error = format == InputFormat.CSV ? parser.parseCsv(window, start, end) : parser.parseJson(window, start, end);
+            if (error != null) {
+                reject(lineNumber, error);
+                return;
+            }
+            CheckoutResult result = checkoutService.tryCheckout(parser.getToolCode(), parser.getRentalDays(),
+                    parser.getDiscountPercent(), parser.getCheckoutDate());
+            if (!result.isSuccess()) {
+                reject(lineNumber, result.getErrorMessage());
+                return;
+            }
+            RentalAgreement agreement = result.getAgreement();
+            rowsPriced++;
+            if (format == InputFormat.CSV) {
+                write(AgreementEncoder.appendCsv(agreement, row));
+            } else {
+                write(AgreementEncoder.appendJson(agreement, row));
+            }
+        }
+
+        private void reject(long line, String reason) {
+            rowsRejected++;
+            rejected.rejected(line, reason);
+        }
+
+        /**
+         * Encodes the pending row plus a line terminator into the output buffer, writing the buffer out first if
+         * the row might not fit.
+         */
+        private void write(StringBuilder pending) throws IOException {
+            pending.append('\n');
+            if (outputBuffer.remaining() < pending.length() * 3) {
+                flush();
+            }
+            AgreementEncoder.encodeUtf8(pending, outputBuffer);
+            pending.setLength(0);
+        }
+
+        private void flush() throws IOException {
+            // Calls go through Buffer so the bytecode also links against the Java 8 class library.
+            ((Buffer) outputBuffer).flip();
+            while (outputBuffer.hasRemaining()) {
+                out.write(outputBuffer);
+            }
+            ((Buffer) outputBuffer).clear();
+        }
+    }
+
+    private static boolean isCsvHeader(ByteBuffer window, int start, int end) {
+        String header = "toolCode,";
+        if (end - start < header.length()) {
+            return false;
+        }
+        for (int i = 0; i < header.length(); i++) {
+            if (Character.toLowerCase((char) window.get(start + i)) != Character.toLowerCase(header.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package toolrental.pipeline;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Counters for one run of {@link BulkPricingPipeline}.
+ */
+@AllArgsConstructor
+@Getter
+public class BulkPricingReport {
+    private final long rowsRead;
+    private final long rowsPriced;
+    private final long rowsRejected;
+    private final long elapsedNanos;
+
+    /**
+     * Returns the input rows processed per second of wall-clock time.
+     *
+     * @return the throughput of the run
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows read, %d priced, %d rejected in %.3f s (%.0f rows/s)",
+                rowsRead, rowsPriced, rowsRejected, elapsedNanos / 1e9, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,300 @@
+package toolrental.pipeline;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Parses one input line in place. Field values are read straight from the buffer: numbers and dates are decoded
+ * from their digits and the tool code is exposed as a {@link ByteSequence} view, so no {@link String} is created
+ * per field. A parser keeps the fields of the last line it parsed and is not thread-safe.
+ */
+public final class CheckoutRowParser {
+    public static final String MISSING_FIELD = "Expected toolCode, checkoutDate, rentalDays and discountPercent.";
+    public static final String INVALID_NUMBER = "Rental days and discount percent must be whole numbers.";
+    public static final String INVALID_DATE = "Checkout date must be yyyy-MM-dd, MM/dd/yyyy or MM/dd/yy.";
+    public static final String INVALID_JSON = "Line is not a flat JSON object.";
+
+    private static final byte[] TOOL_CODE = ascii("toolCode");
+    private static final byte[] CHECKOUT_DATE = ascii("checkoutDate");
+    private static final byte[] RENTAL_DAYS = ascii("rentalDays");
+    private static final byte[] DISCOUNT_PERCENT = ascii("discountPercent");
+
+    private final ByteSequence toolCode = new ByteSequence();
+    private int rentalDays;
+    private int discountPercent;
+    private LocalDate checkoutDate;
+
+    /** Set by {@link #parseInt} when the digits were not a valid int, to avoid boxing a nullable result. */
+    private boolean numberInvalid;
+
+    public CharSequence getToolCode() {
+        return toolCode;
+    }
+
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * Parses a CSV line of the form {@code toolCode,checkoutDate,rentalDays,discountPercent}.
+     *
+     * @return null if the line was parsed, otherwise the reason it was rejected
+     */
+    public String parseCsv(ByteBuffer buffer, int start, int end) {
+        numberInvalid = false;
+        int codeEnd = indexOf(buffer, start, end, (byte) ',');
+        int dateEnd = codeEnd < 0 ? -1 : indexOf(buffer, codeEnd + 1, end, (byte) ',');
+        int daysEnd = dateEnd < 0 ? -1 : indexOf(buffer, dateEnd + 1, end, (byte) ',');
+        if (daysEnd < 0 || indexOf(buffer, daysEnd + 1, end, (byte) ',') >= 0) {
+            return MISSING_FIELD;
+        }
+        toolCode.wrap(buffer, start, codeEnd - start);
+        if (toolCode.length() == 0) {
+            return MISSING_FIELD;
+        }
+        checkoutDate = parseDate(buffer, codeEnd + 1, dateEnd);
+        if (checkoutDate == null) {
+            return INVALID_DATE;
+        }
+        rentalDays = parseInt(buffer, dateEnd + 1, daysEnd);
+        discountPercent = parseInt(buffer, daysEnd + 1, end);
+        return numberInvalid ? INVALID_NUMBER : null;
+    }
+
+    /**
+     * Parses a flat JSON object whose members include {@code toolCode}, {@code checkoutDate}, {@code rentalDays}
+     * and {@code discountPercent}. Other members are skipped; escaped strings are not supported.
+     *
+     * @return null if the line was parsed, otherwise the reason it was rejected
+     */
+    public String parseJson(ByteBuffer buffer, int start, int end) {
+        boolean hasCode = false;
+        boolean hasDate = false;
+        boolean hasDays = false;
+        boolean hasDiscount = false;
+        numberInvalid = false;
+
+        int pos = skipWhitespace(buffer, start, end);
+        if (pos >= end || buffer.get(pos) != '{') {
+            return INVALID_JSON;
+        }
+        pos = skipWhitespace(buffer, pos + 1, end);
+        if (pos < end && buffer.get(pos) == '}') {
+            return MISSING_FIELD;
+        }
+        while (true) {
+            if (pos >= end || buffer.get(pos) != '"') {
+                return INVALID_JSON;
+            }
+            int keyStart = pos + 1;
+            int keyEnd = indexOfStringEnd(buffer, keyStart, end);
+            if (keyEnd < 0) {
+                return INVALID_JSON;
+            }
+            pos = skipWhitespace(buffer, keyEnd + 1, end);
+            if (pos >= end || buffer.get(pos) != ':') {
+                return INVALID_JSON;
+            }
+            pos = skipWhitespace(buffer, pos + 1, end);
+            if (pos >= end) {
+                return INVALID_JSON;
+            }
+
+            int valueStart;
+            int valueEnd;
+            if (buffer.get(pos) == '"') {
+                valueStart = pos + 1;
+                valueEnd = indexOfStringEnd(buffer, valueStart, end);
+                if (valueEnd < 0) {
+                    return INVALID_JSON;
+                }
+                pos = valueEnd + 1;
+            } else {
+                valueStart = pos;
+                while (pos < end && buffer.get(pos) != ',' && buffer.get(pos) != '}' && !isWhitespace(buffer.get(pos))) {
+                    pos++;
+                }
+                valueEnd = pos;
+            }
+
+            if (keyEquals(buffer, keyStart, keyEnd, TOOL_CODE)) {
+                toolCode.wrap(buffer, valueStart, valueEnd - valueStart);
+                hasCode = valueEnd > valueStart;
+            } else if (keyEquals(buffer, keyStart, keyEnd, CHECKOUT_DATE)) {
+                checkoutDate = parseDate(buffer, valueStart, valueEnd);
+                if (checkoutDate == null) {
+                    return INVALID_DATE;
+                }
+                hasDate = true;
+            } else if (keyEquals(buffer, keyStart, keyEnd, RENTAL_DAYS)) {
+                rentalDays = parseInt(buffer, valueStart, valueEnd);
+                hasDays = true;
+            } else if (keyEquals(buffer, keyStart, keyEnd, DISCOUNT_PERCENT)) {
+                discountPercent = parseInt(buffer, valueStart, valueEnd);
+                hasDiscount = true;
+            }
+            if (numberInvalid) {
+                return INVALID_NUMBER;
+            }
+
+            pos = skipWhitespace(buffer, pos, end);
+            if (pos >= end) {
+                return INVALID_JSON;
+            }
+            if (buffer.get(pos) == '}') {
+                break;
+            }
+            if (buffer.get(pos) != ',') {
+                return INVALID_JSON;
+            }
+            pos = skipWhitespace(buffer, pos + 1, end);
+        }
+        if (skipWhitespace(buffer, pos + 1, end) != end) {
+            return INVALID_JSON;
+        }
+        return hasCode && hasDate && hasDays && hasDiscount ? null : MISSING_FIELD;
+    }
+
+    /**
+     * Parses a decimal int. Sets {@link #numberInvalid} if the range is empty, contains a non-digit or overflows.
+     */
+    private int parseInt(ByteBuffer buffer, int start, int end) {
+        boolean negative = start < end && buffer.get(start) == '-';
+        int pos = negative ? start + 1 : start;
+        if (pos >= end) {
+            numberInvalid = true;
+            return 0;
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = buffer.get(pos) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                numberInvalid = true;
+                return 0;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            numberInvalid = true;
+            return 0;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd}, {@code MM/dd/yyyy} or {@code MM/dd/yy}; two-digit years are in the 2000s.
+     *
+     * @return the date, or null if the range is not a valid date
+     */
+    private static LocalDate parseDate(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        int year;
+        int month;
+        int day;
+        if (length == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+            year = digits(buffer, start, 4);
+            month = digits(buffer, start + 5, 2);
+            day = digits(buffer, start + 8, 2);
+        } else if ((length == 10 || length == 8) && buffer.get(start + 2) == '/' && buffer.get(start + 5) == '/') {
+            month = digits(buffer, start, 2);
+            day = digits(buffer, start + 3, 2);
+            year = length == 10 ? digits(buffer, start + 6, 4) : 2000 + digits(buffer, start + 6, 2);
+        } else {
+            return null;
+        }
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a fixed number of ASCII digits.
+     *
+     * @return the value, or -1 if any byte is not a digit
+     */
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the closing quote of a JSON string that starts at {@code start}.
+     *
+     * @return the index of the closing quote, or -1 if it is missing or the string contains an escape
+     */
+    private static int indexOfStringEnd(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                return i;
+            }
+            if (b == '\\') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean keyEquals(ByteBuffer buffer, int start, int end, byte[] key) {
+        if (end - start != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int start, int end) {
+        int pos = start;
+        while (pos < end && isWhitespace(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static byte[] ascii(String text) {
+        byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+}
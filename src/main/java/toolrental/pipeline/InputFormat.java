@@ -0,0 +1,16 @@
+package toolrental.pipeline;
+
+/**
+ * The line formats accepted by {@link BulkPricingPipeline}. Output is written in the same format as the input.
+ */
+public enum InputFormat {
+    /**
+     * Comma-separated {@code toolCode,checkoutDate,rentalDays,discountPercent}, with an optional header line.
+     */
+    CSV,
+    /**
+     * One JSON object per line with {@code toolCode}, {@code checkoutDate}, {@code rentalDays} and
+     * {@code discountPercent} members.
+     */
+    NDJSON
+}
@@ -0,0 +1,17 @@
+package toolrental.pipeline;
+
+/**
+ * Receives the input lines that {@link BulkPricingPipeline} could not price.
+ */
+@FunctionalInterface
+public interface RejectedRowHandler {
+    RejectedRowHandler IGNORE = (lineNumber, reason) -> { };
+
+    /**
+     * Called once for every rejected line.
+     *
+     * @param lineNumber the one-based line number in the input file
+     * @param reason     why the line was rejected
+     */
+    void rejected(long lineNumber, String reason);
+}
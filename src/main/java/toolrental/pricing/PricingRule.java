@@ -0,0 +1,59 @@
+package toolrental.pricing;
+
+import lombok.Builder;
+import lombok.Getter;
+import toolrental.constants.ToolBrand;
+import toolrental.tools.ToolType;
+
+/**
+ * Overrides the daily charge or charged days of the tools it matches. A rule matches exactly one tool type, one
+ * brand or one tool code, and leaves every setting it does not give to less specific rules:
+ * <pre>
+ * PricingRule.builder().toolBrand(ToolBrand.RIDGID).weekendCharge(true).build()
+ * </pre>
+ * Rules are immutable.
+ */
+@Getter
+public class PricingRule {
+    private final ToolType toolType;
+    private final ToolBrand toolBrand;
+    private final String toolCode;
+    /** The daily charge in cents, or null to keep the charge of a less specific rule. */
+    private final Long dailyChargeCents;
+    private final Boolean weekdayCharge;
+    private final Boolean weekendCharge;
+    private final Boolean holidayCharge;
+
+    /**
+     * Creates a rule. Use {@link #builder()} and set one of {@code toolType}, {@code toolBrand} or {@code toolCode}
+     * and any of the settings.
+     *
+     * @param toolType         the tool type the rule matches
+     * @param toolBrand        the brand the rule matches
+     * @param toolCode         the tool code the rule matches, as it appears in the catalog
+     * @param dailyChargeCents the daily charge in cents, or null to inherit it
+     * @param weekdayCharge    whether weekdays are charged, or null to inherit it
+     * @param weekendCharge    whether weekend days are charged, or null to inherit it
+     * @param holidayCharge    whether holidays are charged, or null to inherit it
+     * @throws IllegalArgumentException if the rule does not match exactly one of a tool type, brand or tool code,
+     *                                  or the daily charge is negative
+     */
+    @Builder
+    private PricingRule(ToolType toolType, ToolBrand toolBrand, String toolCode, Long dailyChargeCents, Boolean weekdayCharge,
+                        Boolean weekendCharge, Boolean holidayCharge) {
+        int matches = (toolType != null ? 1 : 0) + (toolBrand != null ? 1 : 0) + (toolCode != null ? 1 : 0);
+        if (matches != 1) {
+            throw new IllegalArgumentException("A pricing rule must match exactly one tool type, brand or tool code.");
+        }
+        if (dailyChargeCents != null && dailyChargeCents < 0) {
+            throw new IllegalArgumentException("Daily charge must not be negative.");
+        }
+        this.toolType = toolType;
+        this.toolBrand = toolBrand;
+        this.toolCode = toolCode;
+        this.dailyChargeCents = dailyChargeCents;
+        this.weekdayCharge = weekdayCharge;
+        this.weekendCharge = weekendCharge;
+        this.holidayCharge = holidayCharge;
+    }
+}
@@ -0,0 +1,82 @@
+package toolrental.pricing;
+
+import toolrental.tools.ToolTypePricing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The pricing rules in effect, held as a compiled {@link PricingTable}.
+ * <p>
+ * Rules can be swapped at runtime with {@link #replaceRules}. The new rules are compiled first and then published
+ * with a single volatile write, so a checkout that has already read the table finishes on the old rules and never
+ * waits for the swap. {@link #getVersion()} changes with every swap so cached prices can be recognized as stale;
+ * versions are drawn from one counter for all instances, so tables of different instances never share one.
+ * Instances are safe to share between threads.
+ */
+public class PricingRules {
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final ToolTypePricing base;
+    private volatile RuleSet ruleSet;
+
+    /**
+     * @param base  the pricing of each tool type before any rule
+     * @param rules the rules to apply over it
+     */
+    public PricingRules(ToolTypePricing base, List<PricingRule> rules) {
+        this.base = base;
+        this.ruleSet = new RuleSet(base, rules);
+    }
+
+    /**
+     * @return the standard tool type pricing with no rules
+     */
+    public static PricingRules standard() {
+        return new PricingRules(ToolTypePricing.standard(), Collections.emptyList());
+    }
+
+    public ToolTypePricing getBase() {
+        return base;
+    }
+
+    public List<PricingRule> getRules() {
+        return ruleSet.rules;
+    }
+
+    /**
+     * @return the table compiled from the current rules
+     */
+    public PricingTable getTable() {
+        return ruleSet.table;
+    }
+
+    public long getVersion() {
+        return ruleSet.table.getVersion();
+    }
+
+    /**
+     * Compiles new rules and atomically replaces the current ones. Checkouts already in progress finish against the
+     * previous rules.
+     *
+     * @param rules the new rules
+     */
+    public synchronized void replaceRules(List<PricingRule> rules) {
+        ruleSet = new RuleSet(base, rules);
+    }
+
+    /**
+     * The rules and the table compiled from them, published together so a reader never sees one without the other.
+     */
+    private static final class RuleSet {
+        private final List<PricingRule> rules;
+        private final PricingTable table;
+
+        private RuleSet(ToolTypePricing base, List<PricingRule> rules) {
+            this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+            this.table = PricingTable.compile(base, this.rules, VERSIONS.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package toolrental.pricing;
+
+import toolrental.constants.ToolBrand;
+import toolrental.tools.Tool;
+import toolrental.tools.ToolType;
+import toolrental.tools.ToolTypePricing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled set of {@link PricingRule}s: the resolved daily charge and charged days of every combination of tool
+ * type and brand, plus one such block for each tool code that has its own rules. Rules are resolved once, when
+ * the table is compiled, so pricing a tool is a row lookup followed by plain array reads.
+ * <p>
+ * Within each block a row is {@code toolType * (brands + 1) + brand}; the extra row per tool type holds the
+ * tool type's pricing without brand rules. Tables are immutable.
+ */
+public final class PricingTable {
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final ToolBrand[] TOOL_BRANDS = ToolBrand.values();
+    private static final int ROWS_PER_TOOL_TYPE = TOOL_BRANDS.length + 1;
+    private static final int BLOCK_SIZE = TOOL_TYPES.length * ROWS_PER_TOOL_TYPE;
+
+    private static final byte WEEKDAY = 1;
+    private static final byte WEEKEND = 2;
+    private static final byte HOLIDAY = 4;
+
+    private final long version;
+    private final long[] dailyChargeCents;
+    private final double[] dailyCharge;
+    /** The charged kinds of day per row, as {@link #WEEKDAY}, {@link #WEEKEND} and {@link #HOLIDAY} bits. */
+    private final byte[] chargedDays;
+    /** The first row of each tool code's block. */
+    private final Map<String, Integer> toolCodeBlocks;
+
+    private PricingTable(long version, int blocks, Map<String, Integer> toolCodeBlocks) {
+        this.version = version;
+        this.dailyChargeCents = new long[blocks * BLOCK_SIZE];
+        this.dailyCharge = new double[blocks * BLOCK_SIZE];
+        this.chargedDays = new byte[blocks * BLOCK_SIZE];
+        this.toolCodeBlocks = toolCodeBlocks;
+    }
+
+    /**
+     * Resolves rules over base pricing. A brand rule overrides a tool type rule and a tool code rule overrides
+     * both; among rules for the same tool type, brand or tool code, later rules override earlier ones.
+     *
+     * @param base    the pricing of each tool type before any rule
+     * @param rules   the rules to apply
+     * @param version the version to report from {@link #getVersion()}
+     * @return the compiled table
+     */
+    public static PricingTable compile(ToolTypePricing base, List<PricingRule> rules, long version) {
+        Map<String, List<PricingRule>> toolCodeRules = new HashMap<>();
+        Map<String, Integer> toolCodeBlocks = new HashMap<>();
+        for (PricingRule rule : rules) {
+            if (rule.getToolCode() != null) {
+                toolCodeRules.computeIfAbsent(rule.getToolCode(), code -> new ArrayList<>()).add(rule);
+                toolCodeBlocks.putIfAbsent(rule.getToolCode(), (toolCodeBlocks.size() + 1) * BLOCK_SIZE);
+            }
+        }
+        PricingTable table = new PricingTable(version, toolCodeBlocks.size() + 1,
+                toolCodeBlocks.isEmpty() ? Collections.emptyMap() : toolCodeBlocks);
+
+        for (ToolType toolType : TOOL_TYPES) {
+            long cents = base.getDailyChargeCents(toolType);
+            byte charged = flags(base.isWeekdayCharge(toolType), base.isWeekendCharge(toolType), base.isHolidayCharge(toolType));
+            for (PricingRule rule : rules) {
+                if (rule.getToolType() == toolType) {
+                    cents = cents(rule, cents);
+                    charged = charged(rule, charged);
+                }
+            }
+            for (int brand = 0; brand < ROWS_PER_TOOL_TYPE; brand++) {
+                long brandCents = cents;
+                byte brandCharged = charged;
+                for (PricingRule rule : rules) {
+                    if (brand < TOOL_BRANDS.length && rule.getToolBrand() == TOOL_BRANDS[brand]) {
+                        brandCents = cents(rule, brandCents);
+                        brandCharged = charged(rule, brandCharged);
+                    }
+                }
+                table.set(toolType.ordinal() * ROWS_PER_TOOL_TYPE + brand, brandCents, brandCharged);
+            }
+        }
+
+        for (Map.Entry<String, Integer> block : toolCodeBlocks.entrySet()) {
+            for (int row = 0; row < BLOCK_SIZE; row++) {
+                long cents = table.dailyChargeCents[row];
+                byte charged = table.chargedDays[row];
+                for (PricingRule rule : toolCodeRules.get(block.getKey())) {
+                    cents = cents(rule, cents);
+                    charged = charged(rule, charged);
+                }
+                table.set(block.getValue() + row, cents, charged);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return the version of the rules this table was compiled from
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param tool a tool from the catalog
+     * @return the row holding the tool's pricing
+     */
+    public int rowOf(Tool tool) {
+        int row = tool.getToolType().ordinal() * ROWS_PER_TOOL_TYPE + tool.getToolBrand().ordinal();
+        if (!toolCodeBlocks.isEmpty()) {
+            Integer block = toolCodeBlocks.get(tool.getToolCode());
+            if (block != null) {
+                row += block;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @param toolType a tool type
+     * @return the row holding the tool type's pricing, without brand or tool code rules
+     */
+    public int rowOf(ToolType toolType) {
+        return toolType.ordinal() * ROWS_PER_TOOL_TYPE + TOOL_BRANDS.length;
+    }
+
+    public long getDailyChargeCents(int row) {
+        return dailyChargeCents[row];
+    }
+
+    public double getDailyCharge(int row) {
+        return dailyCharge[row];
+    }
+
+    public boolean isWeekdayCharge(int row) {
+        return (chargedDays[row] & WEEKDAY) != 0;
+    }
+
+    public boolean isWeekendCharge(int row) {
+        return (chargedDays[row] & WEEKEND) != 0;
+    }
+
+    public boolean isHolidayCharge(int row) {
+        return (chargedDays[row] & HOLIDAY) != 0;
+    }
+
+    private void set(int row, long cents, byte charged) {
+        dailyChargeCents[row] = cents;
+        dailyCharge[row] = cents / 100.0;
+        chargedDays[row] = charged;
+    }
+
+    private static long cents(PricingRule rule, long cents) {
+        return rule.getDailyChargeCents() != null ? rule.getDailyChargeCents() : cents;
+    }
+
+    private static byte charged(PricingRule rule, byte charged) {
+        return (byte) (override(override(override(charged, WEEKDAY, rule.getWeekdayCharge()), WEEKEND, rule.getWeekendCharge()),
+                HOLIDAY, rule.getHolidayCharge()));
+    }
+
+    private static int override(int charged, byte flag, Boolean value) {
+        if (value == null) {
+            return charged;
+        }
+        return value ? charged | flag : charged & ~flag;
+    }
+
+    private static byte flags(boolean weekday, boolean weekend, boolean holiday) {
+        return (byte) ((weekday ? WEEKDAY : 0) | (weekend ? WEEKEND : 0) | (holiday ? HOLIDAY : 0));
+    }
+}
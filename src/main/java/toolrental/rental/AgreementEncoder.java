@@ -0,0 +1,140 @@
+package toolrental.rental;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes rental agreements as CSV rows or JSON objects into a caller-supplied {@link StringBuilder}, so a
+ * writer that reuses its builder encodes any number of agreements without allocating per field.
+ * Dates are written in ISO format and amounts as plain decimals with two fraction digits.
+ */
+public final class AgreementEncoder {
+    public static final String CSV_HEADER = "toolCode,toolType,toolBrand,rentalDays,checkoutDate,dueDate,dailyRentalCharge,"
+            + "chargeDays,preDiscountCharge,discountPercent,discountAmount,finalCharge";
+
+    private AgreementEncoder() {
+    }
+
+    /**
+     * Appends the agreement as a CSV row, without a line terminator.
+     *
+     * @param agreement the agreement to encode
+     * @param out       the builder to append to
+     * @return the builder
+     */
+    public static StringBuilder appendCsv(RentalAgreement agreement, StringBuilder out) {
+        out.append(agreement.getToolCode()).append(',')
+                .append(agreement.getToolType()).append(',')
+                .append(agreement.getToolBrand().name()).append(',')
+                .append(agreement.getRentalDays()).append(',');
+        appendIsoDate(out, agreement.getCheckoutDate().getYear(), agreement.getCheckoutDate().getMonthValue(),
+                agreement.getCheckoutDate().getDayOfMonth()).append(',');
+        appendIsoDate(out, agreement.getDueDate().getYear(), agreement.getDueDate().getMonthValue(),
+                agreement.getDueDate().getDayOfMonth()).append(',');
+        appendCents(out, agreement.getDailyRentalChargeCents()).append(',').append(agreement.getChargeDays()).append(',');
+        appendCents(out, agreement.getPreDiscountChargeCents()).append(',').append(agreement.getDiscountPercent()).append(',');
+        appendCents(out, agreement.getDiscountAmountCents()).append(',');
+        return appendCents(out, agreement.getFinalChargeCents());
+    }
+
+    /**
+     * Appends the agreement as a single-line JSON object.
+     *
+     * @param agreement the agreement to encode
+     * @param out       the builder to append to
+     * @return the builder
+     */
+    public static StringBuilder appendJson(RentalAgreement agreement, StringBuilder out) {
+        out.append("{\"toolCode\":");
+        appendJsonString(out, agreement.getToolCode());
+        out.append(",\"toolType\":");
+        appendJsonString(out, agreement.getToolType());
+        out.append(",\"toolBrand\":\"").append(agreement.getToolBrand().name())
+                .append("\",\"rentalDays\":").append(agreement.getRentalDays())
+                .append(",\"checkoutDate\":\"");
+        appendIsoDate(out, agreement.getCheckoutDate().getYear(), agreement.getCheckoutDate().getMonthValue(),
+                agreement.getCheckoutDate().getDayOfMonth()).append("\",\"dueDate\":\"");
+        appendIsoDate(out, agreement.getDueDate().getYear(), agreement.getDueDate().getMonthValue(),
+                agreement.getDueDate().getDayOfMonth()).append("\",\"dailyRentalCharge\":");
+        appendCents(out, agreement.getDailyRentalChargeCents()).append(",\"chargeDays\":").append(agreement.getChargeDays())
+                .append(",\"preDiscountCharge\":");
+        appendCents(out, agreement.getPreDiscountChargeCents()).append(",\"discountPercent\":").append(agreement.getDiscountPercent())
+                .append(",\"discountAmount\":");
+        appendCents(out, agreement.getDiscountAmountCents()).append(",\"finalCharge\":");
+        return appendCents(out, agreement.getFinalChargeCents()).append('}');
+    }
+
+    /**
+     * Appends an amount in cents as a decimal with two fraction digits, for example {@code 1234.50}.
+     *
+     * @param out   the builder to append to
+     * @param cents the amount in cents
+     * @return the builder
+     */
+    public static StringBuilder appendCents(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        return out.append(cents / 100).append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    /**
+     * Writes the characters as UTF-8 into the buffer.
+     *
+     * @param chars  the characters to encode
+     * @param buffer the buffer to write to
+     * @throws BufferOverflowException if the buffer does not have room for the encoded bytes
+     */
+    public static void encodeUtf8(CharSequence chars, ByteBuffer buffer) {
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static StringBuilder appendIsoDate(StringBuilder out, int year, int month, int day) {
+        out.append(year).append('-');
+        appendTwoDigits(out, month).append('-');
+        return appendTwoDigits(out, day);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Appends a JSON string literal, escaping quotes, backslashes and control characters.
+     *
+     * @param out   the builder to append to
+     * @param value the string to encode
+     */
+    public static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
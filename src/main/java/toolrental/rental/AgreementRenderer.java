@@ -0,0 +1,168 @@
+package toolrental.rental;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+
+/**
+ * Renders the printed form of a {@link RentalAgreement}, as shown by {@link RentalAgreement#printAgreement()}.
+ * <p>
+ * Currency, percentages and dates are formatted by hand from the agreement's primitive fields, and a whole
+ * agreement is built in one buffer before it is handed to the destination, so rendering thousands of receipts
+ * takes a handful of writes. Amounts that are not a whole number of cents, and locales whose number symbols
+ * differ from the US ones, fall back to a cached per-thread {@link DecimalFormat} so the output stays identical
+ * to the original formatting. All methods are thread-safe.
+ */
+public final class AgreementRenderer {
+    /** Flush threshold for {@link #renderAll}, in characters. */
+    private static final int BATCH_BUFFER_SIZE = 64 * 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(512));
+    private static final ThreadLocal<DecimalFormat> CURRENCY_FORMATS = ThreadLocal.withInitial(() -> new DecimalFormat("$#,##0.00"));
+    private static final ThreadLocal<DecimalFormat> PERCENT_FORMATS = ThreadLocal.withInitial(() -> new DecimalFormat("#0%"));
+
+    /** Whether the default locale formats numbers with the symbols the hand-written formatting emits. */
+    private static final boolean STANDARD_SYMBOLS = hasStandardSymbols(new DecimalFormatSymbols());
+
+    private AgreementRenderer() {
+    }
+
+    /**
+     * Appends the printed agreement, including the trailing line separator.
+     *
+     * @param agreement the agreement to render
+     * @param out       the builder to append to
+     * @return the builder
+     */
+    public static StringBuilder render(RentalAgreement agreement, StringBuilder out) {
+        line(out.append("Rental Agreement:"));
+        line(out.append("Tool code: ").append(agreement.getToolCode()));
+        line(out.append("Tool type: ").append(agreement.getToolType()));
+        line(out.append("Tool brand: ").append(agreement.getToolBrand()));
+        line(out.append("Rental days: ").append(agreement.getRentalDays()));
+        line(appendDate(out.append("Checkout date: "), agreement.getCheckoutDate()));
+        line(appendDate(out.append("Due date: "), agreement.getDueDate()));
+        line(appendCurrency(out.append("Daily rental charge: "), agreement.getDailyRentalCharge(), agreement.getDailyRentalChargeCents()));
+        line(out.append("Charge days: ").append(agreement.getChargeDays()));
+        line(appendCurrency(out.append("Pre-discount charge: "), agreement.getPreDiscountCharge(), agreement.getPreDiscountChargeCents()));
+        line(appendPercent(out.append("Discount percent: "), agreement.getDiscountPercent()));
+        line(appendCurrency(out.append("Discount amount: "), agreement.getDiscountAmount(), agreement.getDiscountAmountCents()));
+        return line(appendCurrency(out.append("Final charge: "), agreement.getFinalCharge(), agreement.getFinalChargeCents()));
+    }
+
+    /**
+     * Writes the printed agreement to any character destination, such as a {@link java.io.Writer}, in one call.
+     *
+     * @param agreement the agreement to render
+     * @param out       the destination
+     * @throws IOException if the destination fails
+     */
+    public static void render(RentalAgreement agreement, Appendable out) throws IOException {
+        StringBuilder buffer = BUFFERS.get();
+        buffer.setLength(0);
+        out.append(render(agreement, buffer));
+    }
+
+    /**
+     * Writes the printed agreement into the buffer as UTF-8.
+     *
+     * @param agreement the agreement to render
+     * @param out       the buffer to write to
+     * @throws BufferOverflowException if the buffer does not have room for the agreement
+     */
+    public static void render(RentalAgreement agreement, ByteBuffer out) {
+        StringBuilder buffer = BUFFERS.get();
+        buffer.setLength(0);
+        AgreementEncoder.encodeUtf8(render(agreement, buffer), out);
+    }
+
+    /**
+     * Writes many printed agreements, collecting them into large chunks so the destination sees few writes.
+     *
+     * @param agreements the agreements to render
+     * @param out        the destination
+     * @throws IOException if the destination fails
+     */
+    public static void renderAll(Iterable<RentalAgreement> agreements, Appendable out) throws IOException {
+        StringBuilder buffer = new StringBuilder(BATCH_BUFFER_SIZE + 1024);
+        for (RentalAgreement agreement : agreements) {
+            render(agreement, buffer);
+            if (buffer.length() >= BATCH_BUFFER_SIZE) {
+                out.append(buffer);
+                buffer.setLength(0);
+            }
+        }
+        if (buffer.length() > 0) {
+            out.append(buffer);
+        }
+    }
+
+    private static StringBuilder line(StringBuilder out) {
+        return out.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Appends a date as {@code MM/dd/yy}.
+     */
+    private static StringBuilder appendDate(StringBuilder out, LocalDate date) {
+        appendTwoDigits(out, date.getMonthValue()).append('/');
+        appendTwoDigits(out, date.getDayOfMonth()).append('/');
+        return appendTwoDigits(out, Math.floorMod(date.getYear(), 100));
+    }
+
+    /**
+     * Appends an amount in the {@code $#,##0.00} format.
+     *
+     * @param amount the amount in dollars
+     * @param cents  the same amount rounded to cents
+     */
+    private static StringBuilder appendCurrency(StringBuilder out, double amount, long cents) {
+        if (!STANDARD_SYMBOLS || cents / 100.0 != amount || Double.doubleToRawLongBits(amount) == Long.MIN_VALUE) { // -0.0 keeps its sign
+            return out.append(CURRENCY_FORMATS.get().format(amount));
+        }
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        out.append('$');
+        appendGrouped(out, cents / 100);
+        long fraction = cents % 100;
+        return out.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    /**
+     * Appends a whole percentage in the {@code #0%} format.
+     */
+    private static StringBuilder appendPercent(StringBuilder out, int percent) {
+        if (!STANDARD_SYMBOLS) {
+            return out.append(PERCENT_FORMATS.get().format(percent / 100.0));
+        }
+        return out.append(percent).append('%');
+    }
+
+    /**
+     * Appends a non-negative whole number with a comma between each group of three digits.
+     */
+    private static void appendGrouped(StringBuilder out, long value) {
+        if (value < 1000) {
+            out.append(value);
+            return;
+        }
+        appendGrouped(out, value / 1000);
+        long group = value % 1000;
+        out.append(',').append((char) ('0' + group / 100)).append((char) ('0' + group / 10 % 10)).append((char) ('0' + group % 10));
+    }
+
+    private static boolean hasStandardSymbols(DecimalFormatSymbols symbols) {
+        return symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.' && symbols.getGroupingSeparator() == ','
+                && symbols.getMinusSign() == '-' && symbols.getPercent() == '%';
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -4,8 +4,6 @@ import lombok.Getter;
 import toolrental.constants.ToolBrand;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.text.DecimalFormat;
 
 @Getter
 public class RentalAgreement {
@@ -39,23 +37,61 @@ public class RentalAgreement {
         this.finalCharge = finalCharge;
     }
 
+    private RentalAgreement(String toolCode, String toolType, ToolBrand toolBrand, int rentalDays, LocalDate checkoutDate, LocalDate dueDate,
+                            long dailyRentalChargeCents, int chargeDays, long preDiscountChargeCents, int discountPercent,
+                            long discountAmountCents, long finalChargeCents) {
+        this.toolCode = toolCode;
+        this.toolType = toolType;
+        this.toolBrand = toolBrand;
+        this.rentalDays = rentalDays;
+        this.checkoutDate = checkoutDate;
+        this.dueDate = dueDate;
+        this.dailyRentalCharge = dailyRentalChargeCents / 100.0;
+        this.chargeDays = chargeDays;
+        this.preDiscountCharge = preDiscountChargeCents / 100.0;
+        this.discountPercent = discountPercent;
+        this.discountAmount = discountAmountCents / 100.0;
+        this.finalCharge = finalChargeCents / 100.0;
+    }
+
+    /**
+     * Creates an agreement from amounts in cents. The dollar accessors return the same amounts divided by 100, and
+     * the cents accessors return the original amounts.
+     *
+     * @return the rental agreement
+     */
+    public static RentalAgreement ofCents(String toolCode, String toolType, ToolBrand toolBrand, int rentalDays, LocalDate checkoutDate,
+                                          LocalDate dueDate, long dailyRentalChargeCents, int chargeDays, long preDiscountChargeCents,
+                                          int discountPercent, long discountAmountCents, long finalChargeCents) {
+        return new RentalAgreement(toolCode, toolType, toolBrand, rentalDays, checkoutDate, dueDate, dailyRentalChargeCents, chargeDays,
+                preDiscountChargeCents, discountPercent, discountAmountCents, finalChargeCents);
+    }
+
+    public long getDailyRentalChargeCents() {
+        return toCents(dailyRentalCharge);
+    }
+
+    public long getPreDiscountChargeCents() {
+        return toCents(preDiscountCharge);
+    }
+
+    public long getDiscountAmountCents() {
+        return toCents(discountAmount);
+    }
+
+    public long getFinalChargeCents() {
+        return toCents(finalCharge);
+    }
+
+    /**
+     * Amounts are kept in dollars only and converted on demand. A whole number of cents divided by 100 converts back
+     * exactly for any amount below about 2<sup>51</sup> cents.
+     */
+    private static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
     public void printAgreement() {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yy");
-        DecimalFormat currencyFormatter = new DecimalFormat("$#,##0.00");
-        DecimalFormat percentFormatter = new DecimalFormat("#0%");
-
-        System.out.println("Rental Agreement:");
-        System.out.println("Tool code: " + toolCode);
-        System.out.println("Tool type: " + toolType);
-        System.out.println("Tool brand: " + toolBrand);
-        System.out.println("Rental days: " + rentalDays);
-        System.out.println("Checkout date: " + checkoutDate.format(dateFormatter));
-        System.out.println("Due date: " + dueDate.format(dateFormatter));
-        System.out.println("Daily rental charge: " + currencyFormatter.format(dailyRentalCharge));
-        System.out.println("Charge days: " + chargeDays);
-        System.out.println("Pre-discount charge: " + currencyFormatter.format(preDiscountCharge));
-        System.out.println("Discount percent: " + percentFormatter.format(discountPercent / 100.0));
-        System.out.println("Discount amount: " + currencyFormatter.format(discountAmount));
-        System.out.println("Final charge: " + currencyFormatter.format(finalCharge));
+        System.out.print(AgreementRenderer.render(this, new StringBuilder(512)));
     }
 }
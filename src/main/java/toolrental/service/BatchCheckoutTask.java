@@ -0,0 +1,49 @@
+package toolrental.service;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks out a slice of a batch, splitting it in half until slices are small enough to run sequentially.
+ * Every request writes its result into its own slot, so results keep the input order without coordination.
+ */
+class BatchCheckoutTask extends RecursiveAction {
+    /** Requests per leaf task; large enough to amortize task overhead, small enough to balance across workers. */
+    static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private final CheckoutService checkoutService;
+    private final CheckoutRequest[] requests;
+    private final CheckoutResult[] results;
+    private final int from;
+    private final int to;
+
+    BatchCheckoutTask(CheckoutService checkoutService, CheckoutRequest[] requests, CheckoutResult[] results, int from, int to) {
+        this.checkoutService = checkoutService;
+        this.requests = requests;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                results[i] = checkout(requests[i]);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new BatchCheckoutTask(checkoutService, requests, results, from, middle),
+                new BatchCheckoutTask(checkoutService, requests, results, middle, to));
+    }
+
+    private CheckoutResult checkout(CheckoutRequest request) {
+        try {
+            return checkoutService.tryCheckout(
+                    request.getToolCode(), request.getRentalDays(), request.getDiscountPercent(), request.getCheckoutDate());
+        } catch (RuntimeException e) {
+            // The message alone may be null, so report the exception type with it.
+            return CheckoutResult.failure(String.valueOf(e));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package toolrental.service;
+
+/**
+ * Exact money arithmetic in {@code long} cents for {@link PricingMode#EXACT_CENTS}.
+ */
+public final class CentsPricing {
+
+    private CentsPricing() {
+    }
+
+    /**
+     * Calculates a percentage discount, rounded half up to the cent.
+     *
+     * @param preDiscountCents the charge before the discount, in cents
+     * @param discountPercent  the discount percentage, between 0 and 100
+     * @return the discount amount in cents
+     */
+    public static long discountCents(long preDiscountCents, int discountPercent) {
+        return (preDiscountCents * discountPercent + 50) / 100;
+    }
+}
@@ -0,0 +1,154 @@
+package toolrental.service;
+
+import toolrental.holiday.HolidayCalendar;
+import toolrental.tools.ToolType;
+
+import java.time.LocalDate;
+
+/**
+ * Counts chargeable rental days in closed form instead of walking the rental period day by day.
+ * <p>
+ * Weekday and weekend days are derived from the number of full weeks in the period plus the
+ * remainder, and observed holidays are then moved from their weekday or weekend bucket into the
+ * holiday bucket. Holiday counts come from the {@link HolidayCalendar}, so the cost does not grow
+ * with the number of days rented.
+ */
+public final class ChargeDayCalculator {
+    /** Offset that maps epoch day 0 (Thursday, 1970-01-01) onto a Monday-based day index. */
+    private static final int EPOCH_DAY_MONDAY_OFFSET = 3;
+
+    /** Kinds of day returned by {@link #classifyDays}; a holiday is a holiday whether or not it falls on a weekend. */
+    static final byte WEEKDAY = 0;
+    static final byte WEEKEND = 1;
+    static final byte HOLIDAY = 2;
+
+    private final HolidayCalendar holidayCalendar;
+
+    public ChargeDayCalculator(HolidayCalendar holidayCalendar) {
+        this.holidayCalendar = holidayCalendar;
+    }
+
+    /**
+     * Calculates the chargeable days for the rental period, which runs from the day after checkout
+     * through the due date inclusive.
+     *
+     * @param checkoutDate the date of checkout
+     * @param dueDate      the due date of the rental
+     * @param toolType     the type of the tool
+     * @return the number of chargeable days
+     */
+    public int calculateChargeDays(LocalDate checkoutDate, LocalDate dueDate, ToolType toolType) {
+        return calculateChargeDays(checkoutDate, dueDate, toolType.isWeekdayCharge(), toolType.isWeekendCharge(),
+                toolType.isHolidayCharge());
+    }
+
+    /**
+     * Calculates the chargeable days for the rental period when the charged kinds of day are given directly,
+     * for example from a {@link toolrental.tools.ToolTypePricing}.
+     *
+     * @param checkoutDate  the date of checkout
+     * @param dueDate       the due date of the rental
+     * @param weekdayCharge whether weekdays are charged
+     * @param weekendCharge whether weekend days are charged
+     * @param holidayCharge whether holidays are charged
+     * @return the number of chargeable days
+     */
+    public int calculateChargeDays(LocalDate checkoutDate, LocalDate dueDate, boolean weekdayCharge, boolean weekendCharge,
+                                   boolean holidayCharge) {
+        long firstDay = checkoutDate.toEpochDay() + 1;
+        long lastDay = dueDate.toEpochDay();
+        if (lastDay < firstDay) {
+            return 0;
+        }
+
+        long totalDays = lastDay - firstDay + 1;
+        long startIndex = Math.floorMod(firstDay + EPOCH_DAY_MONDAY_OFFSET, 7);
+        long weekendDays = weekendDaysBefore(startIndex + totalDays) - weekendDaysBefore(startIndex);
+        long weekDays = totalDays - weekendDays;
+
+        int holidays = holidayCalendar.countHolidays(firstDay, lastDay);
+        int weekendHolidays = holidays == 0 ? 0 : holidayCalendar.countWeekendHolidays(firstDay, lastDay);
+        int weekdayHolidays = holidays - weekendHolidays;
+
+        long chargeDays = 0;
+        if (weekdayCharge) {
+            chargeDays += weekDays - weekdayHolidays;
+        }
+        if (weekendCharge) {
+            chargeDays += weekendDays - weekendHolidays;
+        }
+        if (holidayCharge) {
+            chargeDays += holidays;
+        }
+        return Math.toIntExact(chargeDays);
+    }
+
+    /**
+     * Calculates the chargeable days of every rental length from one day up to {@code maxRentalDays} in a single
+     * pass over the days, each length adding one day to the length before it.
+     *
+     * @param checkoutDate  the date of checkout
+     * @param maxRentalDays the longest rental length
+     * @param weekdayCharge whether weekdays are charged
+     * @param weekendCharge whether weekend days are charged
+     * @param holidayCharge whether holidays are charged
+     * @return the chargeable days by rental length, where index 0 is a one-day rental
+     */
+    public int[] calculateChargeDaysByLength(LocalDate checkoutDate, int maxRentalDays, boolean weekdayCharge, boolean weekendCharge,
+                                             boolean holidayCharge) {
+        return accumulateChargeDays(classifyDays(checkoutDate, maxRentalDays), weekdayCharge, weekendCharge, holidayCharge);
+    }
+
+    /**
+     * Classifies each day of the longest rental, from the day after checkout, as {@link #WEEKDAY}, {@link #WEEKEND}
+     * or {@link #HOLIDAY}. One classification serves every tool type.
+     *
+     * @param checkoutDate  the date of checkout
+     * @param maxRentalDays the number of days to classify
+     * @return the kind of each day, where index 0 is the day after checkout
+     */
+    byte[] classifyDays(LocalDate checkoutDate, int maxRentalDays) {
+        byte[] kinds = new byte[maxRentalDays];
+        long day = checkoutDate.toEpochDay() + 1;
+        int dayOfWeek = (int) Math.floorMod(day + EPOCH_DAY_MONDAY_OFFSET, 7);
+        for (int i = 0; i < maxRentalDays; i++, day++) {
+            if (holidayCalendar.isHoliday(day)) {
+                kinds[i] = HOLIDAY;
+            } else if (dayOfWeek >= 5) {
+                kinds[i] = WEEKEND;
+            }
+            dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+        }
+        return kinds;
+    }
+
+    /**
+     * Turns classified days into running totals of chargeable days.
+     *
+     * @param kinds         the kind of each day, from {@link #classifyDays}
+     * @param weekdayCharge whether weekdays are charged
+     * @param weekendCharge whether weekend days are charged
+     * @param holidayCharge whether holidays are charged
+     * @return the chargeable days by rental length, where index 0 is a one-day rental
+     */
+    static int[] accumulateChargeDays(byte[] kinds, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        int charged = (weekdayCharge ? 1 << WEEKDAY : 0) | (weekendCharge ? 1 << WEEKEND : 0) | (holidayCharge ? 1 << HOLIDAY : 0);
+        int[] chargeDays = new int[kinds.length];
+        int total = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            total += charged >>> kinds[i] & 1;
+            chargeDays[i] = total;
+        }
+        return chargeDays;
+    }
+
+    /**
+     * Counts the weekend days among the first {@code dayIndex} days of a sequence that starts on a Monday.
+     *
+     * @param dayIndex the Monday-based day index to count up to, exclusive
+     * @return the number of Saturdays and Sundays before the index
+     */
+    private static long weekendDaysBefore(long dayIndex) {
+        return (dayIndex / 7) * 2 + Math.max(0, dayIndex % 7 - 5);
+    }
+}
@@ -0,0 +1,23 @@
+package toolrental.service;
+
+/**
+ * The reasons a checkout is rejected. Each code carries the message of the {@link IllegalArgumentException}
+ * that {@link CheckoutService#checkout} throws for it, and is reported without throwing by
+ * {@link CheckoutService#tryCheckout}.
+ */
+public enum CheckoutErrorCode {
+    INVALID_RENTAL_DAYS("Rental day count must be 1 or greater."),
+    INVALID_DISCOUNT_PERCENT("Discount percent must be between 0 and 100."),
+    INVALID_TOOL_CODE("Invalid tool code."),
+    NO_UNIT_AVAILABLE("No unit of the tool is available for the rental period.");
+
+    private final String message;
+
+    CheckoutErrorCode(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,18 @@
+package toolrental.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * The parameters of a single checkout, as submitted in a batch.
+ */
+@AllArgsConstructor
+@Getter
+public class CheckoutRequest {
+    private final String toolCode;
+    private final int rentalDays;
+    private final int discountPercent;
+    private final LocalDate checkoutDate;
+}
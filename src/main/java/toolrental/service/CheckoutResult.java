@@ -0,0 +1,67 @@
+package toolrental.service;
+
+import lombok.Getter;
+import toolrental.rental.RentalAgreement;
+
+/**
+ * The outcome of one checkout or quote: either the rental agreement or the reason it was rejected. Results for
+ * rejections with a {@link CheckoutErrorCode} are shared constants, so a rejection allocates nothing.
+ */
+@Getter
+public class CheckoutResult {
+    private static final CheckoutResult[] FAILURES = new CheckoutResult[CheckoutErrorCode.values().length];
+
+    static {
+        for (CheckoutErrorCode errorCode : CheckoutErrorCode.values()) {
+            FAILURES[errorCode.ordinal()] = new CheckoutResult(null, errorCode, errorCode.getMessage());
+        }
+    }
+
+    private final RentalAgreement agreement;
+    /** The reason for a rejection, or null for a success or a failure that has only a message. */
+    private final CheckoutErrorCode errorCode;
+    private final String errorMessage;
+
+    private CheckoutResult(RentalAgreement agreement, CheckoutErrorCode errorCode, String errorMessage) {
+        this.agreement = agreement;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    public static CheckoutResult success(RentalAgreement agreement) {
+        return new CheckoutResult(agreement, null, null);
+    }
+
+    /**
+     * @param errorCode the reason the checkout was rejected
+     * @return the shared result for the rejection, whose message is the code's message
+     */
+    public static CheckoutResult failure(CheckoutErrorCode errorCode) {
+        return FAILURES[errorCode.ordinal()];
+    }
+
+    /**
+     * @param errorMessage why the checkout failed, for failures that are not one of the {@link CheckoutErrorCode}s
+     * @return a failed result without an error code
+     */
+    public static CheckoutResult failure(String errorMessage) {
+        return new CheckoutResult(null, null, errorMessage);
+    }
+
+    public boolean isSuccess() {
+        return agreement != null;
+    }
+
+    /**
+     * Returns the agreement, or throws the exception {@link CheckoutService#checkout} throws for the failure.
+     *
+     * @return the agreement
+     * @throws IllegalArgumentException if the result is a failure
+     */
+    public RentalAgreement getAgreementOrThrow() {
+        if (agreement == null) {
+            throw new IllegalArgumentException(errorMessage);
+        }
+        return agreement;
+    }
+}
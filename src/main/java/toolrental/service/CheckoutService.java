@@ -1,23 +1,125 @@
 package toolrental.service;
 
+import lombok.Builder;
+import toolrental.constants.ToolBrand;
+import toolrental.holiday.HolidayCalendar;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.inventory.Inventory;
+import toolrental.inventory.Reservation;
+import toolrental.journal.AgreementJournal;
+import toolrental.metrics.CheckoutMetrics;
+import toolrental.pricing.PricingRules;
+import toolrental.pricing.PricingTable;
 import toolrental.rental.RentalAgreement;
 import toolrental.tools.Tool;
+import toolrental.tools.ToolCatalog;
 import toolrental.tools.ToolType;
+import toolrental.tools.ToolTypePricing;
 
-import java.time.DayOfWeek;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.time.Month;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class CheckoutService {
-    private final List<Tool> tools;
+    private final ToolCatalog toolCatalog;
+    private final HolidayCalendar holidayCalendar;
+    private final ChargeDayCalculator chargeDayCalculator;
+    private final PricingMode pricingMode;
+    private final PricingRules pricingRules;
+    private final QuoteCache quoteCache;
+    private final CheckoutMetrics metrics;
+    private final Inventory inventory;
+    private final AgreementJournal journal;
 
-    public CheckoutService(List<Tool> tools) {
-        this.tools = tools;
+    public CheckoutService(ToolCatalog toolCatalog) {
+        this(toolCatalog, PrecomputedHolidayCalendar.standard());
+    }
+
+    public CheckoutService(ToolCatalog toolCatalog, HolidayCalendar holidayCalendar) {
+        this(toolCatalog, holidayCalendar, PricingMode.FLOATING_POINT);
+    }
+
+    public CheckoutService(ToolCatalog toolCatalog, HolidayCalendar holidayCalendar, PricingMode pricingMode) {
+        this(toolCatalog, holidayCalendar, pricingMode, null, null, null, null, null, null);
+    }
+
+    /**
+     * Creates a checkout service. Use {@link #builder()} to set only the options that differ from the defaults:
+     * the standard holiday calendar, floating-point pricing, the standard tool type pricing without pricing rules,
+     * no quote cache, no metrics, no inventory and no journal.
+     *
+     * @param toolCatalog     the tools that can be rented
+     * @param holidayCalendar the observed holidays, or null for the standard calendar
+     * @param pricingMode     how money is computed, or null for floating point
+     * @param toolTypePricing the daily charge and chargeable days per tool type, or null for the standard pricing;
+     *                        ignored when {@code pricingRules} is set
+     * @param pricingRules    the pricing rules, which can be replaced while the service runs, or null for the
+     *                        tool type pricing without rules
+     * @param quoteCache      the cache of pre-discount quotes, or null to price every checkout from scratch; a
+     *                        cache may be shared between services, since quotes are keyed by the versions of
+     *                        the pricing rules and the holiday calendar
+     * @param metrics         the metrics to record every checkout in, or null to record nothing
+     * @param inventory       the units to reserve one of for every checkout, or null to rent without reserving
+     * @param journal         the journal every completed checkout is appended to, or null to keep no record
+     */
+    @Builder
+    private CheckoutService(ToolCatalog toolCatalog, HolidayCalendar holidayCalendar, PricingMode pricingMode,
+                            ToolTypePricing toolTypePricing, PricingRules pricingRules, QuoteCache quoteCache, CheckoutMetrics metrics,
+                            Inventory inventory, AgreementJournal journal) {
+        this.toolCatalog = toolCatalog;
+        this.holidayCalendar = holidayCalendar != null ? holidayCalendar : PrecomputedHolidayCalendar.standard();
+        this.chargeDayCalculator = new ChargeDayCalculator(this.holidayCalendar);
+        this.pricingMode = pricingMode != null ? pricingMode : PricingMode.FLOATING_POINT;
+        this.pricingRules = pricingRules != null ? pricingRules
+                : new PricingRules(toolTypePricing != null ? toolTypePricing : ToolTypePricing.standard(), Collections.emptyList());
+        this.quoteCache = quoteCache;
+        this.metrics = metrics;
+        this.inventory = inventory;
+        this.journal = journal;
+    }
+
+    public ToolCatalog getToolCatalog() {
+        return toolCatalog;
+    }
+
+    /**
+     * @return the pricing rules this service prices with; replacing them takes effect for later checkouts
+     */
+    public PricingRules getPricingRules() {
+        return pricingRules;
+    }
+
+    /**
+     * @return the inventory this service reserves units from, or null if it does not reserve
+     */
+    public Inventory getInventory() {
+        return inventory;
     }
 
     /**
-     * Performs the checkout process and generates a rental agreement.
+     * @return the journal this service appends agreements to, or null if it keeps no record
+     */
+    public AgreementJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * @return the metrics this service records into, or null if metrics are disabled
+     */
+    public CheckoutMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Performs the checkout process and generates a rental agreement. When the service has an inventory, a unit
+     * of the tool is reserved from the checkout date to the due date, and the checkout is rejected if none is free.
+     * When the service has a journal, the agreement is durably appended to it before it is returned.
      *
      * @param toolCode      the code of the tool to rent
      * @param rentalDays    the number of days for the rental
@@ -25,159 +127,389 @@ public class CheckoutService {
      * @param checkoutDate  the date of checkout
      * @return a RentalAgreement instance containing the rental details
      * @throws IllegalArgumentException if any of the input parameters are invalid
+     * @throws UncheckedIOException     if the agreement could not be appended to the journal; any reserved unit is
+     *                                  released again
+     * @throws IllegalStateException    if the journal is closed, after releasing any reserved unit
+     * @see #tryCheckout
      */
     public RentalAgreement checkout(String toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate) throws IllegalArgumentException {
-        validateCheckoutParams(rentalDays, discountPercent);
+        return tryCheckout(toolCode, rentalDays, discountPercent, checkoutDate).getAgreementOrThrow();
+    }
 
-        Tool tool = findToolByCode(toolCode);
-        if (tool == null) {
-            throw new IllegalArgumentException("Invalid tool code.");
+    /**
+     * Performs a checkout like {@link #checkout}, but reports a rejected request as a failed result instead of
+     * throwing. A rejection costs no stack trace and no allocation, which matters when many requests are invalid.
+     *
+     * @param toolCode        the code of the tool to rent
+     * @param rentalDays      the number of days for the rental
+     * @param discountPercent the discount percentage to apply
+     * @param checkoutDate    the date of checkout
+     * @return the agreement, or a failure carrying the {@link CheckoutErrorCode} and its message
+     * @throws UncheckedIOException  if the agreement could not be appended to the journal; any reserved unit is
+     *                               released again
+     * @throws IllegalStateException if the journal is closed, after releasing any reserved unit
+     */
+    public CheckoutResult tryCheckout(String toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+        return tryCheckout(toolCode, toolCode, rentalDays, discountPercent, checkoutDate);
+    }
+
+    /**
+     * Performs a checkout like {@link #tryCheckout(String, int, int, LocalDate)} for a tool code that is not a
+     * {@link String}, for example one parsed in place from a buffer. The code is only looked up, never copied, and
+     * the agreement carries the catalog's spelling of it.
+     *
+     * @param toolCode        the code of the tool to rent
+     * @param rentalDays      the number of days for the rental
+     * @param discountPercent the discount percentage to apply
+     * @param checkoutDate    the date of checkout
+     * @return the agreement, or a failure carrying the {@link CheckoutErrorCode} and its message
+     * @throws UncheckedIOException  if the agreement could not be appended to the journal; any reserved unit is
+     *                               released again
+     * @throws IllegalStateException if the journal is closed, after releasing any reserved unit
+     */
+    public CheckoutResult tryCheckout(CharSequence toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+        return tryCheckout(toolCode, null, rentalDays, discountPercent, checkoutDate);
+    }
+
+    /**
+     * @param agreementToolCode the code to put on the agreement, or null for the catalog's code
+     */
+    private CheckoutResult tryCheckout(CharSequence toolCode, String agreementToolCode, int rentalDays, int discountPercent,
+                                       LocalDate checkoutDate) {
+        long start = metrics != null && metrics.sampleLatency() ? System.nanoTime() : CheckoutMetrics.UNTIMED;
+        CheckoutErrorCode error = validateCheckoutParams(rentalDays, discountPercent);
+        Tool tool = null;
+        if (error == null) {
+            tool = findToolByCode(toolCode);
+            if (tool == null) {
+                error = CheckoutErrorCode.INVALID_TOOL_CODE;
+            }
+        }
+        if (error != null) {
+            return reject(error, start);
         }
 
-        ToolType toolType = tool.getToolType();
-        LocalDate dueDate = checkoutDate.plusDays(rentalDays);
-        int chargeDays = calculateChargeDays(checkoutDate, dueDate, toolType);
-        double preDiscountCharge = chargeDays * toolType.getDailyCharge();
-        double discountAmount = preDiscountCharge * discountPercent / 100.0;
-        double finalCharge = preDiscountCharge - discountAmount;
+        RentalAgreement agreement = price(tool, agreementToolCode != null ? agreementToolCode : tool.getToolCode(), rentalDays,
+                discountPercent, checkoutDate);
+        Reservation reservation = null;
+        if (inventory != null) {
+            reservation = inventory.reserve(tool.getToolCode(), checkoutDate, agreement.getDueDate());
+            if (reservation == null) {
+                return reject(CheckoutErrorCode.NO_UNIT_AVAILABLE, start);
+            }
+        }
+        if (journal != null) {
+            boolean appended = false;
+            try {
+                journal.append(agreement);
+                appended = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (!appended && reservation != null) {
+                    inventory.release(reservation);
+                }
+            }
+        }
+        if (metrics != null) {
+            metrics.recordCheckout(tool.getToolType(), tool.getToolBrand(), elapsedSince(start));
+        }
+        return CheckoutResult.success(agreement);
+    }
 
-        return new RentalAgreement(
-                toolCode,
-                toolType.getName(),
-                tool.getToolBrand(),
-                rentalDays,
-                checkoutDate,
-                dueDate,
-                toolType.getDailyCharge(),
-                chargeDays,
-                roundToCents(preDiscountCharge),
-                discountPercent,
-                roundToCents(discountAmount),
-                roundToCents(finalCharge)
-        );
+    /**
+     * Prices a rental the way {@link #checkout} would, without reserving a unit or recording metrics.
+     *
+     * @param toolCode        the code of the tool to rent
+     * @param rentalDays      the number of days for the rental
+     * @param discountPercent the discount percentage to apply
+     * @param checkoutDate    the date of checkout
+     * @return the rental agreement the checkout would produce
+     * @throws IllegalArgumentException if any of the input parameters are invalid
+     * @see #tryQuote
+     */
+    public RentalAgreement quote(String toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+        return tryQuote(toolCode, rentalDays, discountPercent, checkoutDate).getAgreementOrThrow();
     }
 
     /**
-     * Validates the checkout parameters.
+     * Prices a rental like {@link #quote}, but reports invalid parameters as a failed result instead of throwing.
      *
-     * @param rentalDays    the number of days for the rental
+     * @param toolCode        the code of the tool to rent
+     * @param rentalDays      the number of days for the rental
      * @param discountPercent the discount percentage to apply
-     * @throws IllegalArgumentException if rental days are less than 1 or if discount percent is not between 0 and 100
+     * @param checkoutDate    the date of checkout
+     * @return the agreement the checkout would produce, or a failure carrying the {@link CheckoutErrorCode}
      */
-    private void validateCheckoutParams(int rentalDays, int discountPercent) {
-        if (rentalDays < 1) {
-            throw new IllegalArgumentException("Rental day count must be 1 or greater.");
+    public CheckoutResult tryQuote(String toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+        CheckoutErrorCode error = validateCheckoutParams(rentalDays, discountPercent);
+        if (error != null) {
+            return CheckoutResult.failure(error);
         }
-        if (discountPercent < 0 || discountPercent > 100) {
-            throw new IllegalArgumentException("Discount percent must be between 0 and 100.");
+        Tool tool = findToolByCode(toolCode);
+        if (tool == null) {
+            return CheckoutResult.failure(CheckoutErrorCode.INVALID_TOOL_CODE);
         }
+        return CheckoutResult.success(price(tool, toolCode, rentalDays, discountPercent, checkoutDate));
     }
 
     /**
-     * Finds the tool by its code.
+     * Prices every rental length of a tool from one day up to {@code maxRentalDays} in one pass, with the same
+     * results as {@link #quote} for each length. Nothing is reserved or recorded.
      *
-     * @param toolCode the code of the tool to find
-     * @return the Tool instance if found, otherwise null
+     * @param toolCode        the code of the tool to rent
+     * @param maxRentalDays   the longest rental length to price
+     * @param discountPercent the discount percentage to apply
+     * @param checkoutDate    the date of checkout
+     * @return the prices by rental length
+     * @throws IllegalArgumentException if any of the input parameters are invalid
      */
-    private Tool findToolByCode(String toolCode) {
-        return tools.stream()
-                .filter(tool -> tool.getToolCode().equalsIgnoreCase(toolCode))
-                .findFirst()
-                .orElse(null);
+    public QuoteMatrix quoteMatrix(String toolCode, int maxRentalDays, int discountPercent, LocalDate checkoutDate) {
+        CheckoutErrorCode error = validateCheckoutParams(maxRentalDays, discountPercent);
+        if (error != null) {
+            throw new IllegalArgumentException(error.getMessage());
+        }
+        Tool tool = findToolByCode(toolCode);
+        if (tool == null) {
+            throw new IllegalArgumentException(CheckoutErrorCode.INVALID_TOOL_CODE.getMessage());
+        }
+        PricingTable table = pricingRules.getTable();
+        return priceMatrix(tool.getToolType(), table, table.rowOf(tool), chargeDayCalculator.classifyDays(checkoutDate, maxRentalDays),
+                discountPercent, checkoutDate);
     }
 
     /**
-     * Calculates the chargeable days for the rental period.
+     * Prices every rental length from one day up to {@code maxRentalDays} for every tool type. The days of the
+     * rental period are classified once and shared by all tool types. Pricing rules for brands and tool codes do
+     * not apply; use {@link #quoteMatrix} to price a particular tool.
      *
-     * @param checkoutDate the date of checkout
-     * @param dueDate      the due date of the rental
-     * @param toolType     the type of the tool
-     * @return the number of chargeable days
+     * @param maxRentalDays   the longest rental length to price
+     * @param discountPercent the discount percentage to apply
+     * @param checkoutDate    the date of checkout
+     * @return the prices by rental length for each tool type
+     * @throws IllegalArgumentException if any of the input parameters are invalid
      */
-    private int calculateChargeDays(LocalDate checkoutDate, LocalDate dueDate, ToolType toolType) {
-        int chargeDays = 0;
-        LocalDate currentDate = checkoutDate.plusDays(1);
+    public Map<ToolType, QuoteMatrix> quoteMatrices(int maxRentalDays, int discountPercent, LocalDate checkoutDate) {
+        CheckoutErrorCode error = validateCheckoutParams(maxRentalDays, discountPercent);
+        if (error != null) {
+            throw new IllegalArgumentException(error.getMessage());
+        }
+        byte[] kinds = chargeDayCalculator.classifyDays(checkoutDate, maxRentalDays);
+        PricingTable table = pricingRules.getTable();
+        Map<ToolType, QuoteMatrix> matrices = new EnumMap<>(ToolType.class);
+        for (ToolType toolType : ToolType.values()) {
+            matrices.put(toolType, priceMatrix(toolType, table, table.rowOf(toolType), kinds, discountPercent, checkoutDate));
+        }
+        return matrices;
+    }
 
-        while (!currentDate.isAfter(dueDate)) {
-            if (isHoliday(currentDate)) {
-                if (toolType.isHolidayCharge()) {
-                    chargeDays++;
-                }
-            } else if (isWeekDay(currentDate) && toolType.isWeekdayCharge()) {
-                chargeDays++;
-            } else if (isWeekend(currentDate) && toolType.isWeekendCharge()) {
-                chargeDays++;
+    /**
+     * Prices every rental length of one pricing row from classified days, rounding each amount the way
+     * {@link #price} does for the pricing mode.
+     */
+    private QuoteMatrix priceMatrix(ToolType toolType, PricingTable table, int row, byte[] kinds, int discountPercent,
+                                    LocalDate checkoutDate) {
+        int[] chargeDays = ChargeDayCalculator.accumulateChargeDays(kinds, table.isWeekdayCharge(row), table.isWeekendCharge(row),
+                table.isHolidayCharge(row));
+        long dailyChargeCents = table.getDailyChargeCents(row);
+        double dailyCharge = table.getDailyCharge(row);
+        long[] preDiscountCents = new long[kinds.length];
+        long[] discountCents = new long[kinds.length];
+        long[] finalCents = new long[kinds.length];
+        for (int i = 0; i < kinds.length; i++) {
+            if (pricingMode == PricingMode.EXACT_CENTS) {
+                preDiscountCents[i] = chargeDays[i] * dailyChargeCents;
+                discountCents[i] = CentsPricing.discountCents(preDiscountCents[i], discountPercent);
+                finalCents[i] = preDiscountCents[i] - discountCents[i];
+            } else {
+                double preDiscountCharge = chargeDays[i] * dailyCharge;
+                double discountAmount = preDiscountCharge * discountPercent / 100.0;
+                preDiscountCents[i] = Math.round(roundToCents(preDiscountCharge) * 100.0);
+                discountCents[i] = Math.round(roundToCents(discountAmount) * 100.0);
+                finalCents[i] = Math.round(roundToCents(preDiscountCharge - discountAmount) * 100.0);
             }
+        }
+        return new QuoteMatrix(toolType, checkoutDate, discountPercent, chargeDays, preDiscountCents, discountCents, finalCents);
+    }
 
-            currentDate = currentDate.plusDays(1);
+    /**
+     * Records a rejected checkout in the metrics.
+     *
+     * @param error the reason for the rejection
+     * @param start when the checkout started, from {@link System#nanoTime()}, or {@link CheckoutMetrics#UNTIMED}
+     * @return the failed result
+     */
+    private CheckoutResult reject(CheckoutErrorCode error, long start) {
+        if (metrics != null) {
+            metrics.recordFailure(error, elapsedSince(start));
         }
+        return CheckoutResult.failure(error);
+    }
 
-        return chargeDays;
+    private static long elapsedSince(long start) {
+        return start == CheckoutMetrics.UNTIMED ? CheckoutMetrics.UNTIMED : System.nanoTime() - start;
     }
 
     /**
-     * Checks if the given date is a holiday.
+     * Prices a validated checkout.
      *
-     * @param date the date to check
-     * @return true if the date is a holiday, otherwise false
+     * @param tool            the tool to rent
+     * @param toolCode        the tool code as requested
+     * @param rentalDays      the number of days for the rental
+     * @param discountPercent the discount percentage to apply
+     * @param checkoutDate    the date of checkout
+     * @return the rental agreement
      */
-    private boolean isHoliday(LocalDate date) {
-        return isIndependenceDay(date) || isLaborDay(date);
+    private RentalAgreement price(Tool tool, String toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+        ToolType toolType = tool.getToolType();
+        PricingTable table = pricingRules.getTable();
+        int row = table.rowOf(tool);
+        LocalDate dueDate = checkoutDate.plusDays(rentalDays);
+        QuoteCache.Quote quote = preDiscountQuote(table, row, checkoutDate, dueDate, rentalDays);
+        return agreementOf(toolCode, toolType, tool.getToolBrand(), rentalDays, checkoutDate, dueDate, table, row, quote.chargeDays,
+                quote.preDiscountCents, quote.preDiscountCharge, discountPercent);
     }
 
     /**
-     * Checks if the given date is Independence Day or an observed holiday for Independence Day.
+     * Builds the agreement for a rental whose charge days are known, with the same amounts {@link #checkout}
+     * produces for them. Used by {@link OpenRentalIndex} to reprice agreements after their charge days change.
      *
-     * @param date the date to check
-     * @return true if the date is Independence Day or an observed holiday for Independence Day, otherwise false
+     * @param agreement  the agreement to reprice
+     * @param toolType   the type of the rented tool
+     * @param table      the pricing in effect
+     * @param row        the pricing row of the tool
+     * @param chargeDays the charge days of the rental
+     * @return the repriced agreement
      */
-    private boolean isIndependenceDay(LocalDate date) {
-        int dayOfMonth = date.getDayOfMonth();
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
+    RentalAgreement reprice(RentalAgreement agreement, ToolType toolType, PricingTable table, int row, int chargeDays) {
+        return agreementOf(agreement.getToolCode(), toolType, agreement.getToolBrand(),
+                agreement.getRentalDays(), agreement.getCheckoutDate(), agreement.getDueDate(), table, row, chargeDays,
+                chargeDays * table.getDailyChargeCents(row), chargeDays * table.getDailyCharge(row), agreement.getDiscountPercent());
+    }
+
+    ChargeDayCalculator getChargeDayCalculator() {
+        return chargeDayCalculator;
+    }
+
+    HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
+    }
 
-        if (date.getMonth() != Month.JULY) {
-            return false;
+    private RentalAgreement agreementOf(String toolCode, ToolType toolType, ToolBrand toolBrand, int rentalDays, LocalDate checkoutDate,
+                                        LocalDate dueDate, PricingTable table, int row, int chargeDays, long preDiscountCents,
+                                        double preDiscountCharge, int discountPercent) {
+        if (pricingMode == PricingMode.EXACT_CENTS) {
+            long discountCents = CentsPricing.discountCents(preDiscountCents, discountPercent);
+            return RentalAgreement.ofCents(toolCode, toolType.getName(), toolBrand, rentalDays, checkoutDate, dueDate,
+                    table.getDailyChargeCents(row), chargeDays, preDiscountCents, discountPercent, discountCents,
+                    preDiscountCents - discountCents);
         }
 
-        if (dayOfMonth == 4 && isWeekDay(date)) {
-            return true; // The actual holiday
+        double discountAmount = preDiscountCharge * discountPercent / 100.0;
+        double finalCharge = preDiscountCharge - discountAmount;
+
+        return new RentalAgreement(
+                toolCode,
+                toolType.getName(),
+                toolBrand,
+                rentalDays,
+                checkoutDate,
+                dueDate,
+                table.getDailyCharge(row),
+                chargeDays,
+                roundToCents(preDiscountCharge),
+                discountPercent,
+                roundToCents(discountAmount),
+                roundToCents(finalCharge)
+        );
+    }
+
+    /**
+     * Computes the charge days and pre-discount charge of a rental, consulting the quote cache when one is set.
+     * The holiday calendar version is read before computing, so a quote computed while the rules change is
+     * stored under the old version and never served for the new one. The pricing table is read once by the
+     * caller, so its version always matches the prices used.
+     *
+     * @param table        the pricing in effect
+     * @param row          the pricing row of the tool
+     * @param checkoutDate the date of checkout
+     * @param dueDate      the due date of the rental
+     * @param rentalDays   the number of days for the rental
+     * @return the quote before discount
+     */
+    private QuoteCache.Quote preDiscountQuote(PricingTable table, int row, LocalDate checkoutDate, LocalDate dueDate, int rentalDays) {
+        long checkoutEpochDay = checkoutDate.toEpochDay();
+        long calendarVersion = holidayCalendar.getVersion();
+        if (quoteCache != null) {
+            QuoteCache.Quote cached = quoteCache.get(row, checkoutEpochDay, rentalDays, table.getVersion(), calendarVersion);
+            if (cached != null) {
+                return cached;
+            }
         }
 
-        if (dayOfMonth == 3 && dayOfWeek == DayOfWeek.FRIDAY) {
-            return true; // Observed holiday if July 4th falls on Saturday
+        int chargeDays = chargeDayCalculator.calculateChargeDays(checkoutDate, dueDate, table.isWeekdayCharge(row),
+                table.isWeekendCharge(row), table.isHolidayCharge(row));
+        QuoteCache.Quote quote = new QuoteCache.Quote(row, checkoutEpochDay, rentalDays, table.getVersion(), calendarVersion, chargeDays,
+                chargeDays * table.getDailyChargeCents(row), chargeDays * table.getDailyCharge(row));
+        if (quoteCache != null) {
+            quoteCache.put(quote);
         }
+        return quote;
+    }
 
-        return dayOfMonth == 5 && dayOfWeek == DayOfWeek.MONDAY; // Observed holiday if July 4th falls on Sunday
+    /**
+     * Checks out a batch of requests in parallel on the common fork-join pool.
+     *
+     * @param requests the checkouts to perform
+     * @return one result per request, in input order
+     * @see #checkoutBatch(List, ForkJoinPool)
+     */
+    public List<CheckoutResult> checkoutBatch(List<CheckoutRequest> requests) {
+        return checkoutBatch(requests, ForkJoinPool.commonPool());
     }
 
     /**
-     * Checks if the given date is Labor Day.
+     * Checks out a batch of requests in parallel on the given fork-join pool. A rejected request produces a
+     * failed result carrying the rejection message and does not affect the rest of the batch. The method is
+     * safe to call from many threads at once.
      *
-     * @param date the date to check
-     * @return true if the date is Labor Day, otherwise false
+     * @param requests the checkouts to perform
+     * @param pool     the pool to run the batch on
+     * @return one result per request, in input order
      */
-    private boolean isLaborDay(LocalDate date) {
-        return date.getMonth() == Month.SEPTEMBER && date.getDayOfWeek() == DayOfWeek.MONDAY && date.getDayOfMonth() <= 7;
+    public List<CheckoutResult> checkoutBatch(List<CheckoutRequest> requests, ForkJoinPool pool) {
+        CheckoutRequest[] requestArray = requests.toArray(new CheckoutRequest[0]);
+        CheckoutResult[] results = new CheckoutResult[requestArray.length];
+        pool.invoke(new BatchCheckoutTask(this, requestArray, results, 0, requestArray.length));
+        return Arrays.asList(results);
     }
 
     /**
-     * Checks if the given date is a weekday.
+     * Validates the checkout parameters.
      *
-     * @param date the date to check
-     * @return true if the date is a weekday, otherwise false
+     * @param rentalDays    the number of days for the rental
+     * @param discountPercent the discount percentage to apply
+     * @return null if the parameters are valid, otherwise the reason they are not: rental days are less than 1 or
+     *         discount percent is not between 0 and 100
      */
-    private boolean isWeekDay(LocalDate date) {
-        return !isWeekend(date);
+    private CheckoutErrorCode validateCheckoutParams(int rentalDays, int discountPercent) {
+        if (rentalDays < 1) {
+            return CheckoutErrorCode.INVALID_RENTAL_DAYS;
+        }
+        if (discountPercent < 0 || discountPercent > 100) {
+            return CheckoutErrorCode.INVALID_DISCOUNT_PERCENT;
+        }
+        return null;
     }
 
     /**
-     * Checks if the given date is a weekend.
+     * Finds the tool by its code.
      *
-     * @param date the date to check
-     * @return true if the date is a weekend, otherwise false
+     * @param toolCode the code of the tool to find
+     * @return the Tool instance if found, otherwise null
      */
-    private boolean isWeekend(LocalDate date) {
-        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    private Tool findToolByCode(CharSequence toolCode) {
+        return toolCatalog.findTool(toolCode);
     }
 
     /**
@@ -0,0 +1,392 @@
+package toolrental.service;
+
+import toolrental.holiday.HolidayCalendar;
+import toolrental.pricing.PricingTable;
+import toolrental.rental.RentalAgreement;
+import toolrental.tools.Tool;
+import toolrental.tools.ToolType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * The open rentals of a {@link CheckoutService}, indexed by tool type, tool and rental period so that a change to
+ * holidays or pricing rules reprices only the agreements it affects.
+ * <p>
+ * Rentals of each tool are grouped by rental length into power-of-two classes, and each class maps checkout days to
+ * the rentals starting that day. The rentals covering a given day are found by scanning, in each class, only the
+ * checkout days at most twice the class's shortest length before it, so at least half of the rentals scanned do
+ * cover the day. A changed holiday moves one day from the weekday or weekend class into the holiday class, or back,
+ * so each covering rental gains or loses exactly one charge day, and tools that charge both classes alike are
+ * skipped entirely. A changed pricing rule touches only the rentals of tools whose pricing row changed, and their
+ * charge days are recounted in closed form.
+ * <p>
+ * Rentals are referred to by the int handle {@link #add} returns. The index is not thread-safe: add, remove and
+ * reprice from one thread, and reprice right after each change, before checking out under the new rules.
+ */
+public class OpenRentalIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final CheckoutService checkoutService;
+    private final Map<ToolType, Map<String, ToolRentals>> rentalsByToolType = new EnumMap<>(ToolType.class);
+
+    private RentalAgreement[] agreements = new RentalAgreement[INITIAL_CAPACITY];
+    private ToolRentals[] owners = new ToolRentals[INITIAL_CAPACITY];
+    private int slotCount;
+    private int size;
+    private final IntBag freeSlots = new IntBag();
+
+    /** Charge day changes collected by {@link #repriceHolidays}, by slot, and the slots that have one. */
+    private int[] chargeDayDeltas = new int[INITIAL_CAPACITY];
+    private boolean[] touched = new boolean[INITIAL_CAPACITY];
+    private final IntBag touchedSlots = new IntBag();
+
+    /**
+     * @param checkoutService the service whose holiday calendar and pricing rules the rentals were priced with
+     */
+    public OpenRentalIndex(CheckoutService checkoutService) {
+        this.checkoutService = checkoutService;
+    }
+
+    /**
+     * Compares two holiday calendars over a range of dates, for example the calendar in use and one built from
+     * the rules about to replace its rules.
+     *
+     * @param before    the holidays the open rentals were priced with
+     * @param after     the new holidays
+     * @param firstDate the first date to compare
+     * @param lastDate  the last date to compare, inclusive
+     * @return the dates that are a holiday in exactly one of the calendars
+     */
+    public static List<LocalDate> changedHolidays(HolidayCalendar before, HolidayCalendar after, LocalDate firstDate, LocalDate lastDate) {
+        List<LocalDate> changed = new ArrayList<>();
+        for (long day = firstDate.toEpochDay(); day <= lastDate.toEpochDay(); day++) {
+            if (before.isHoliday(day) != after.isHoliday(day)) {
+                changed.add(LocalDate.ofEpochDay(day));
+            }
+        }
+        return changed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param toolType the type of tool
+     * @return the number of open rentals of tools of the type
+     */
+    public int size(ToolType toolType) {
+        Map<String, ToolRentals> tools = rentalsByToolType.get(toolType);
+        int count = 0;
+        if (tools != null) {
+            for (ToolRentals rentals : tools.values()) {
+                count += rentals.size;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds an open rental.
+     *
+     * @param agreement the agreement of the rental, as priced by the service
+     * @return the handle of the rental
+     * @throws IllegalArgumentException if the tool is not in the service's catalog
+     */
+    public int add(RentalAgreement agreement) {
+        Tool tool = checkoutService.getToolCatalog().findTool(agreement.getToolCode());
+        if (tool == null) {
+            throw new IllegalArgumentException(CheckoutErrorCode.INVALID_TOOL_CODE.getMessage());
+        }
+        ToolRentals rentals = rentalsByToolType.computeIfAbsent(tool.getToolType(), type -> new TreeMap<>())
+                .computeIfAbsent(tool.getToolCode(), code -> new ToolRentals(tool));
+        int slot = freeSlots.size > 0 ? freeSlots.removeLast() : nextSlot();
+        agreements[slot] = agreement;
+        owners[slot] = rentals;
+        rentals.add(slot, agreement.getCheckoutDate().toEpochDay(), agreement.getRentalDays());
+        size++;
+        return slot;
+    }
+
+    /**
+     * @param handle the handle of an open rental
+     * @return the agreement of the rental as last repriced, or null if the handle is not open
+     */
+    public RentalAgreement get(int handle) {
+        return handle >= 0 && handle < slotCount ? agreements[handle] : null;
+    }
+
+    /**
+     * Removes a rental that was returned or cancelled. Its handle may be reused.
+     *
+     * @param handle the handle of the rental
+     * @return true if the rental was open
+     */
+    public boolean remove(int handle) {
+        RentalAgreement agreement = get(handle);
+        if (agreement == null) {
+            return false;
+        }
+        owners[handle].remove(handle, agreement.getCheckoutDate().toEpochDay(), agreement.getRentalDays());
+        agreements[handle] = null;
+        owners[handle] = null;
+        freeSlots.add(handle);
+        size--;
+        return true;
+    }
+
+    /**
+     * Reprices the open rentals that cover any of the given dates after their holiday status changed. Call it
+     * once the service's holiday calendar has the new holidays. Each date is compared between the previous
+     * calendar and the service's, so dates whose status did not change, and dates listed more than once, are
+     * applied at most once.
+     *
+     * @param previous     the holidays the open rentals were priced with, for example a calendar built from the
+     *                     rules read before they were replaced
+     * @param changedDates the dates that may have become or stopped being holidays
+     * @param listener     receives every rental whose charge days changed, after the index holds the new agreement
+     * @return the number of rentals repriced
+     */
+    public int repriceHolidays(HolidayCalendar previous, Collection<LocalDate> changedDates, Consumer<RepricedAgreement> listener) {
+        HolidayCalendar calendar = checkoutService.getHolidayCalendar();
+        PricingTable table = checkoutService.getPricingRules().getTable();
+        for (LocalDate date : new LinkedHashSet<>(changedDates)) {
+            long day = date.toEpochDay();
+            boolean holiday = calendar.isHoliday(day);
+            if (holiday == previous.isHoliday(day)) {
+                continue;
+            }
+            boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            for (Map<String, ToolRentals> tools : rentalsByToolType.values()) {
+                for (ToolRentals rentals : tools.values()) {
+                    int row = table.rowOf(rentals.tool);
+                    boolean holidayCharged = table.isHolidayCharge(row);
+                    boolean otherwiseCharged = weekend ? table.isWeekendCharge(row) : table.isWeekdayCharge(row);
+                    if (holidayCharged != otherwiseCharged) {
+                        int delta = holiday == holidayCharged ? 1 : -1;
+                        rentals.forEachCovering(day, slot -> addChargeDays(slot, delta));
+                    }
+                }
+            }
+        }
+
+        int repriced = 0;
+        for (int i = 0; i < touchedSlots.size; i++) {
+            int slot = touchedSlots.values[i];
+            int delta = chargeDayDeltas[slot];
+            chargeDayDeltas[slot] = 0;
+            touched[slot] = false;
+            if (delta != 0) {
+                Tool tool = owners[slot].tool;
+                repriced += replace(slot, table, table.rowOf(tool), agreements[slot].getChargeDays() + delta, listener);
+            }
+        }
+        touchedSlots.size = 0;
+        return repriced;
+    }
+
+    /**
+     * Reprices the open rentals of every tool whose daily charge or charged days differ between the previous
+     * pricing table and the one now in effect. The whole rental is repriced at the new rules.
+     *
+     * @param previous the table the open rentals were priced with, read before the rules were replaced
+     * @param listener receives every rental whose totals changed, after the index holds the new agreement
+     * @return the number of rentals repriced
+     */
+    public int repricePricing(PricingTable previous, Consumer<RepricedAgreement> listener) {
+        PricingTable table = checkoutService.getPricingRules().getTable();
+        ChargeDayCalculator calculator = checkoutService.getChargeDayCalculator();
+        int[] repriced = new int[1];
+        for (Map<String, ToolRentals> tools : rentalsByToolType.values()) {
+            for (ToolRentals rentals : tools.values()) {
+                int oldRow = previous.rowOf(rentals.tool);
+                int row = table.rowOf(rentals.tool);
+                boolean weekdayCharge = table.isWeekdayCharge(row);
+                boolean weekendCharge = table.isWeekendCharge(row);
+                boolean holidayCharge = table.isHolidayCharge(row);
+                boolean sameDays = weekdayCharge == previous.isWeekdayCharge(oldRow) && weekendCharge == previous.isWeekendCharge(oldRow)
+                        && holidayCharge == previous.isHolidayCharge(oldRow);
+                if (sameDays && table.getDailyChargeCents(row) == previous.getDailyChargeCents(oldRow)) {
+                    continue;
+                }
+                rentals.forEach(slot -> {
+                    RentalAgreement agreement = agreements[slot];
+                    int chargeDays = sameDays ? agreement.getChargeDays() : calculator.calculateChargeDays(agreement.getCheckoutDate(),
+                            agreement.getDueDate(), weekdayCharge, weekendCharge, holidayCharge);
+                    repriced[0] += replace(slot, table, row, chargeDays, listener);
+                });
+            }
+        }
+        return repriced[0];
+    }
+
+    /**
+     * Reprices one rental and reports it if its totals changed.
+     *
+     * @return 1 if the rental was reported, otherwise 0
+     */
+    private int replace(int slot, PricingTable table, int row, int chargeDays, Consumer<RepricedAgreement> listener) {
+        RentalAgreement previous = agreements[slot];
+        RentalAgreement repriced = checkoutService.reprice(previous, owners[slot].tool.getToolType(), table, row, chargeDays);
+        agreements[slot] = repriced;
+        if (repriced.getChargeDays() == previous.getChargeDays() && repriced.getFinalChargeCents() == previous.getFinalChargeCents()
+                && repriced.getDailyRentalChargeCents() == previous.getDailyRentalChargeCents()) {
+            return 0;
+        }
+        listener.accept(new RepricedAgreement(slot, previous, repriced));
+        return 1;
+    }
+
+    private void addChargeDays(int slot, int delta) {
+        chargeDayDeltas[slot] += delta;
+        if (!touched[slot]) {
+            touched[slot] = true;
+            touchedSlots.add(slot);
+        }
+    }
+
+    private int nextSlot() {
+        if (slotCount == agreements.length) {
+            int capacity = agreements.length * 2;
+            agreements = Arrays.copyOf(agreements, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            chargeDayDeltas = Arrays.copyOf(chargeDayDeltas, capacity);
+            touched = Arrays.copyOf(touched, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * The open rentals of one tool. Class {@code k} holds rentals of {@code 2^k} to {@code 2^(k+1) - 1} days, keyed
+     * by checkout day.
+     */
+    private static final class ToolRentals {
+        private final Tool tool;
+        private final List<TreeMap<Long, DayRentals>> byLengthClass = new ArrayList<>(Collections.nCopies(Integer.SIZE, null));
+        private int size;
+
+        private ToolRentals(Tool tool) {
+            this.tool = tool;
+        }
+
+        void add(int slot, long checkoutDay, int rentalDays) {
+            int lengthClass = lengthClassOf(rentalDays);
+            TreeMap<Long, DayRentals> rentals = byLengthClass.get(lengthClass);
+            if (rentals == null) {
+                rentals = new TreeMap<>();
+                byLengthClass.set(lengthClass, rentals);
+            }
+            rentals.computeIfAbsent(checkoutDay, day -> new DayRentals()).add(slot, rentalDays);
+            size++;
+        }
+
+        void remove(int slot, long checkoutDay, int rentalDays) {
+            TreeMap<Long, DayRentals> rentals = byLengthClass.get(lengthClassOf(rentalDays));
+            DayRentals slots = rentals.get(checkoutDay);
+            slots.remove(slot);
+            if (slots.size == 0) {
+                rentals.remove(checkoutDay);
+            }
+            size--;
+        }
+
+        /**
+         * Calls the action with every rental that charges the day, which is every rental checked out before the
+         * day and due on or after it.
+         */
+        void forEachCovering(long day, IntConsumer action) {
+            for (int lengthClass = 0; lengthClass < byLengthClass.size(); lengthClass++) {
+                TreeMap<Long, DayRentals> rentals = byLengthClass.get(lengthClass);
+                if (rentals == null) {
+                    continue;
+                }
+                long longest = (2L << lengthClass) - 1;
+                for (Map.Entry<Long, DayRentals> entry : rentals.subMap(day - longest, true, day, false).entrySet()) {
+                    long daysBefore = day - entry.getKey();
+                    DayRentals slots = entry.getValue();
+                    for (int i = 0; i < slots.size; i++) {
+                        if (slots.rentalDays[i] >= daysBefore) {
+                            action.accept(slots.slots[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+        void forEach(IntConsumer action) {
+            for (TreeMap<Long, DayRentals> rentals : byLengthClass) {
+                if (rentals != null) {
+                    for (DayRentals slots : rentals.values()) {
+                        for (int i = 0; i < slots.size; i++) {
+                            action.accept(slots.slots[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+        private static int lengthClassOf(int rentalDays) {
+            return 31 - Integer.numberOfLeadingZeros(rentalDays);
+        }
+    }
+
+    /**
+     * The rentals of one tool and length class checked out on the same day, as slots and rental lengths.
+     */
+    private static final class DayRentals {
+        private int[] slots = new int[2];
+        private int[] rentalDays = new int[2];
+        private int size;
+
+        void add(int slot, int days) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                rentalDays = Arrays.copyOf(rentalDays, size * 2);
+            }
+            slots[size] = slot;
+            rentalDays[size++] = days;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    rentalDays[i] = rentalDays[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A growable array of ints.
+     */
+    private static final class IntBag {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package toolrental.service;
+
+/**
+ * How {@link CheckoutService} does its money arithmetic.
+ */
+public enum PricingMode {
+    /**
+     * Amounts are computed in {@code double} dollars and each one is rounded to the nearest cent on its own.
+     */
+    FLOATING_POINT,
+    /**
+     * Amounts are computed exactly in {@code long} cents. The discount is rounded half up to the cent and the
+     * final charge is the pre-discount charge minus that discount, so the amounts on an agreement always add up.
+     * A checkout allocates the same as with {@link #FLOATING_POINT}: the agreement and its due date.
+     */
+    EXACT_CENTS
+}
@@ -0,0 +1,188 @@
+package toolrental.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of pre-discount quotes keyed by pricing row, checkout date and rental length. The pricing row
+ * identifies the daily charge and charged days of the tool, as a row of a {@link toolrental.pricing.PricingTable}.
+ * <p>
+ * The cache is four-way set associative: a key hashes to one set of four slots and, when the set is full, a
+ * slot is evicted by the second-chance (CLOCK) policy: a hit sets the slot's referenced flag, and a writer's hand
+ * sweeps the set, clearing flags, until it finds a slot whose flag is clear. A hit only writes the flag when it is
+ * not set yet, so popular quotes are read without writes to shared memory. Reads are lock-free and
+ * allocation-free; each entry is an immutable object that carries its own key, so a reader never sees a key paired
+ * with another key's value. Writers lock only the set they update.
+ * <p>
+ * Every entry records the versions of the pricing rules and holiday calendar it was computed under. A lookup with
+ * other versions is a miss, so a change to holiday or pricing rules invalidates older entries without a sweep;
+ * {@link #invalidateAll()} drops everything explicitly.
+ */
+public class QuoteCache {
+    private static final int WAYS = 4;
+    private static final int LOCK_STRIPES = 64;
+
+    private final AtomicReferenceArray<Quote> slots;
+    /** Referenced flag per slot. Set without synchronization, so a flag set during a sweep may be lost. */
+    private final byte[] referenced;
+    /** The next way of each set that the eviction hand looks at, updated under the set's lock. */
+    private final byte[] hands;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final int setMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache that holds at least {@code maximumSize} quotes, rounded up to a power of two.
+     *
+     * @param maximumSize the number of quotes to keep
+     */
+    public QuoteCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be 1 or greater.");
+        }
+        int sets = 1;
+        while (sets * WAYS < maximumSize) {
+            sets <<= 1;
+        }
+        this.setMask = sets - 1;
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+        this.referenced = new byte[sets * WAYS];
+        this.hands = new byte[sets];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Removes every cached quote. Counters are not reset.
+     */
+    public void invalidateAll() {
+        for (int set = 0; set <= setMask; set++) {
+            synchronized (lockFor(set)) {
+                for (int way = 0; way < WAYS; way++) {
+                    slots.set(set * WAYS + way, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up a quote and records a hit or a miss.
+     *
+     * @return the cached quote, or null if it is absent or was computed under other versions
+     */
+    Quote get(int pricingRow, long checkoutEpochDay, int rentalDays, long pricingVersion, long calendarVersion) {
+        int base = setOf(pricingRow, checkoutEpochDay, rentalDays) * WAYS;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            Quote quote = slots.get(slot);
+            if (quote != null && quote.matches(pricingRow, checkoutEpochDay, rentalDays)
+                    && quote.isCurrent(pricingVersion, calendarVersion)) {
+                if (referenced[slot] == 0) {
+                    referenced[slot] = 1;
+                }
+                hits.increment();
+                return quote;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a quote, replacing an entry with the same key, then an empty or stale slot, then the slot the
+     * set's eviction hand settles on. The new quote starts unreferenced, so it must be hit once before it outlives
+     * quotes that were.
+     */
+    void put(Quote quote) {
+        int set = setOf(quote.pricingRow, quote.checkoutEpochDay, quote.rentalDays);
+        int base = set * WAYS;
+        synchronized (lockFor(set)) {
+            int victim = -1;
+            for (int slot = base; slot < base + WAYS; slot++) {
+                Quote existing = slots.get(slot);
+                if (existing == null || existing.matches(quote.pricingRow, quote.checkoutEpochDay, quote.rentalDays)
+                        || !existing.isCurrent(quote.pricingVersion, quote.calendarVersion)) {
+                    victim = slot;
+                    break;
+                }
+            }
+            if (victim < 0) {
+                // Every flag the hand passes is cleared, so it stops within one turn past the set.
+                int hand = hands[set];
+                while (referenced[base + hand] != 0) {
+                    referenced[base + hand] = 0;
+                    hand = (hand + 1) & (WAYS - 1);
+                }
+                victim = base + hand;
+                hands[set] = (byte) ((hand + 1) & (WAYS - 1));
+                evictions.increment();
+            }
+            slots.set(victim, quote);
+            referenced[victim] = 0;
+        }
+    }
+
+    private Object lockFor(int set) {
+        return locks[set & (LOCK_STRIPES - 1)];
+    }
+
+    private int setOf(int pricingRow, long checkoutEpochDay, int rentalDays) {
+        long hash = checkoutEpochDay * 0x9E3779B97F4A7C15L + rentalDays * 0xC2B2AE3D27D4EB4FL + pricingRow;
+        hash ^= hash >>> 29;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return (int) (hash ^ hash >>> 32) & setMask;
+    }
+
+    /**
+     * The charge days and pre-discount charge of one rental, before any discount is applied.
+     */
+    static final class Quote {
+        final int pricingRow;
+        final long checkoutEpochDay;
+        final int rentalDays;
+        final long pricingVersion;
+        final long calendarVersion;
+        final int chargeDays;
+        final long preDiscountCents;
+        final double preDiscountCharge;
+
+        Quote(int pricingRow, long checkoutEpochDay, int rentalDays, long pricingVersion, long calendarVersion, int chargeDays,
+              long preDiscountCents, double preDiscountCharge) {
+            this.pricingRow = pricingRow;
+            this.checkoutEpochDay = checkoutEpochDay;
+            this.rentalDays = rentalDays;
+            this.pricingVersion = pricingVersion;
+            this.calendarVersion = calendarVersion;
+            this.chargeDays = chargeDays;
+            this.preDiscountCents = preDiscountCents;
+            this.preDiscountCharge = preDiscountCharge;
+        }
+
+        boolean matches(int pricingRow, long checkoutEpochDay, int rentalDays) {
+            return this.pricingRow == pricingRow && this.checkoutEpochDay == checkoutEpochDay && this.rentalDays == rentalDays;
+        }
+
+        boolean isCurrent(long pricingVersion, long calendarVersion) {
+            return this.pricingVersion == pricingVersion && this.calendarVersion == calendarVersion;
+        }
+    }
+}
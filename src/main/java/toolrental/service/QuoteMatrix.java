@@ -0,0 +1,58 @@
+package toolrental.service;
+
+import lombok.Getter;
+import toolrental.tools.ToolType;
+
+import java.time.LocalDate;
+
+/**
+ * The prices of every rental length from one day up to a maximum, for one tool type, checkout date and discount.
+ * Each array is indexed by rental days minus one, so {@code getFinalCents()[6]} is the final charge of a seven-day
+ * rental. Amounts are the cents a {@link toolrental.rental.RentalAgreement} from {@link CheckoutService#checkout}
+ * would report for the same rental. The arrays belong to the caller.
+ */
+@Getter
+public class QuoteMatrix {
+    private final ToolType toolType;
+    private final LocalDate checkoutDate;
+    private final int discountPercent;
+    private final int[] chargeDays;
+    private final long[] preDiscountCents;
+    private final long[] discountCents;
+    private final long[] finalCents;
+
+    QuoteMatrix(ToolType toolType, LocalDate checkoutDate, int discountPercent, int[] chargeDays, long[] preDiscountCents,
+                long[] discountCents, long[] finalCents) {
+        this.toolType = toolType;
+        this.checkoutDate = checkoutDate;
+        this.discountPercent = discountPercent;
+        this.chargeDays = chargeDays;
+        this.preDiscountCents = preDiscountCents;
+        this.discountCents = discountCents;
+        this.finalCents = finalCents;
+    }
+
+    /**
+     * @return the longest rental length in the matrix
+     */
+    public int getMaxRentalDays() {
+        return chargeDays.length;
+    }
+
+    /**
+     * Finds the rental of at least the given length with the lowest final charge, preferring the shorter rental
+     * when two cost the same.
+     *
+     * @param minRentalDays the shortest rental that covers the job
+     * @return the rental days of the cheapest rental, or -1 if the matrix has no rental that long
+     */
+    public int cheapestRentalDays(int minRentalDays) {
+        int best = -1;
+        for (int days = Math.max(1, minRentalDays); days <= finalCents.length; days++) {
+            if (best < 0 || finalCents[days - 1] < finalCents[best - 1]) {
+                best = days;
+            }
+        }
+        return best;
+    }
+}
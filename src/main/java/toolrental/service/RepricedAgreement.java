@@ -0,0 +1,25 @@
+package toolrental.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import toolrental.rental.RentalAgreement;
+
+/**
+ * An open rental whose totals changed when it was repriced by an {@link OpenRentalIndex}.
+ */
+@AllArgsConstructor
+@Getter
+public class RepricedAgreement {
+    /** The handle of the rental in the index, which now holds the repriced agreement. */
+    private final int handle;
+    private final RentalAgreement previous;
+    private final RentalAgreement repriced;
+
+    public int getChargeDayDelta() {
+        return repriced.getChargeDays() - previous.getChargeDays();
+    }
+
+    public long getFinalChargeDeltaCents() {
+        return repriced.getFinalChargeCents() - previous.getFinalChargeCents();
+    }
+}
@@ -0,0 +1,280 @@
+package toolrental.tools;
+
+import toolrental.constants.ToolBrand;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+
+/**
+ * A read-only table of tools backed by a memory-mapped snapshot file, used as the base of a {@link ToolCatalog}.
+ * <p>
+ * The file holds an open-addressing hash index next to the tool records, so opening it costs one checksum pass
+ * and no parsing: lookups probe the mapped index directly and a {@link Tool} object is only created, and then
+ * kept, the first time its record is read. Layout, all integers big-endian:
+ * <pre>
+ * header   magic "TRCS", format version, tool count, slot count, body length, CRC-32 of the body
+ * body     tool type names, tool brand names, slot index, record offsets, records
+ * record   type index (byte), brand index (byte), code length (short), code (UTF-16 chars)
+ * </pre>
+ * Type and brand names are stored by name so the file stays valid if the enums are reordered.
+ */
+public final class MappedToolTable {
+    static final int MAGIC = 0x54524353;
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final ByteBuffer body;
+    private final int toolCount;
+    private final int slotMask;
+    private final int slotsPosition;
+    private final int offsetsPosition;
+    private final ToolType[] toolTypes;
+    private final ToolBrand[] toolBrands;
+    private final AtomicReferenceArray<Tool> materialized;
+
+    private MappedToolTable(ByteBuffer body, int toolCount, int slotCount) {
+        this.body = body;
+        this.toolCount = toolCount;
+        this.slotMask = slotCount - 1;
+        int position = 0;
+        this.toolTypes = new ToolType[body.get(position++) & 0xFF];
+        for (int i = 0; i < toolTypes.length; i++) {
+            String name = readName(body, position);
+            toolTypes[i] = ToolType.valueOf(name);
+            position += 1 + name.length();
+        }
+        this.toolBrands = new ToolBrand[body.get(position++) & 0xFF];
+        for (int i = 0; i < toolBrands.length; i++) {
+            String name = readName(body, position);
+            toolBrands[i] = ToolBrand.valueOf(name);
+            position += 1 + name.length();
+        }
+        this.slotsPosition = align(position);
+        this.offsetsPosition = slotsPosition + slotCount * 4;
+        if ((long) offsetsPosition + toolCount * 4L > body.capacity()) {
+            throw new IndexOutOfBoundsException("Index extends past the end of the file.");
+        }
+        this.materialized = new AtomicReferenceArray<>(toolCount);
+    }
+
+    /**
+     * Maps a snapshot file and verifies its format version and checksum.
+     *
+     * @param path the snapshot file
+     * @return the table
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a tool snapshot, has another format version, or is corrupt
+     */
+    public static MappedToolTable open(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a tool snapshot: " + path);
+            }
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (file.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a tool snapshot: " + path);
+        }
+        int version = file.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported tool snapshot version " + version + ": " + path);
+        }
+        int toolCount = file.getInt(8);
+        int slotCount = file.getInt(12);
+        long bodyLength = file.getLong(16);
+        if (bodyLength != file.capacity() - HEADER_SIZE || toolCount < 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Tool snapshot is truncated or corrupt: " + path);
+        }
+
+        ((Buffer) file).position(HEADER_SIZE);
+        ByteBuffer body = file.slice();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if (crc.getValue() != file.getLong(24)) {
+            throw new IllegalArgumentException("Tool snapshot checksum does not match: " + path);
+        }
+        try {
+            return new MappedToolTable(body, toolCount, slotCount);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Tool snapshot is truncated or corrupt: " + path, e);
+        }
+    }
+
+    /**
+     * Writes a snapshot file, replacing any existing file. When several tools share a code, the first one wins.
+     *
+     * @param tools the tools to write
+     * @param path  the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Collection<Tool> tools, Path path) throws IOException {
+        ToolType[] types = ToolType.values();
+        ToolBrand[] brands = ToolBrand.values();
+        int slotCount = 2;
+        while (slotCount < tools.size() * 2) {
+            slotCount <<= 1;
+        }
+
+        int namesLength = 2;
+        for (ToolType type : types) {
+            namesLength += 1 + type.name().length();
+        }
+        for (ToolBrand brand : brands) {
+            namesLength += 1 + brand.name().length();
+        }
+        long recordsLength = 0;
+        for (Tool tool : tools) {
+            if (tool.getToolCode().length() > 0xFFFF) {
+                throw new IllegalArgumentException("Tool code is too long: " + tool.getToolCode().substring(0, 16) + "...");
+            }
+            recordsLength += 4 + 2L * tool.getToolCode().length();
+        }
+        long bodyLength = align(namesLength) + 4L * slotCount + 4L * tools.size() + recordsLength;
+        if (HEADER_SIZE + bodyLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many tools for one snapshot.");
+        }
+
+        ByteBuffer body = ByteBuffer.allocate((int) bodyLength);
+        body.put((byte) types.length);
+        for (ToolType type : types) {
+            putName(body, type.name());
+        }
+        body.put((byte) brands.length);
+        for (ToolBrand brand : brands) {
+            putName(body, brand.name());
+        }
+        int slotsPosition = align(body.position());
+        int offsetsPosition = slotsPosition + slotCount * 4;
+        int recordPosition = offsetsPosition + tools.size() * 4;
+
+        int count = 0;
+        for (Tool tool : tools) {
+            String code = tool.getToolCode();
+            int slot = findSlot(body, slotsPosition, offsetsPosition, slotCount - 1, code);
+            if (body.getInt(slotsPosition + slot * 4) != 0) {
+                continue;
+            }
+            body.putInt(slotsPosition + slot * 4, count + 1);
+            body.putInt(offsetsPosition + count * 4, recordPosition);
+            body.put(recordPosition, (byte) tool.getToolType().ordinal());
+            body.put(recordPosition + 1, (byte) tool.getToolBrand().ordinal());
+            body.putShort(recordPosition + 2, (short) code.length());
+            for (int i = 0; i < code.length(); i++) {
+                body.putChar(recordPosition + 4 + i * 2, code.charAt(i));
+            }
+            recordPosition += 4 + code.length() * 2;
+            count++;
+        }
+
+        ((Buffer) body).position(0).limit(recordPosition);
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(count).putInt(slotCount).putLong(recordPosition).putLong(crc.getValue());
+        ((Buffer) header).flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    public int size() {
+        return toolCount;
+    }
+
+    /**
+     * Finds the tool by its code, ignoring case.
+     *
+     * @param toolCode the code of the tool to find
+     * @return the Tool instance if found, otherwise null
+     */
+    public Tool findTool(CharSequence toolCode) {
+        int entry = body.getInt(slotsPosition + findSlot(body, slotsPosition, offsetsPosition, slotMask, toolCode) * 4);
+        return entry == 0 ? null : getTool(entry - 1);
+    }
+
+    /**
+     * Returns the tool stored at the given position in the file.
+     *
+     * @param index the record index, from 0 to {@link #size()} - 1
+     * @return the tool
+     */
+    Tool getTool(int index) {
+        Tool tool = materialized.get(index);
+        if (tool == null) {
+            int offset = body.getInt(offsetsPosition + index * 4);
+            char[] code = new char[body.getShort(offset + 2) & 0xFFFF];
+            for (int i = 0; i < code.length; i++) {
+                code[i] = body.getChar(offset + 4 + i * 2);
+            }
+            tool = new Tool(new String(code), toolTypes[body.get(offset)], toolBrands[body.get(offset + 1)]);
+            if (!materialized.compareAndSet(index, null, tool)) {
+                tool = materialized.get(index);
+            }
+        }
+        return tool;
+    }
+
+    /**
+     * Probes the slot index for a code.
+     *
+     * @return the slot holding the code, or the empty slot where it would be inserted
+     */
+    private static int findSlot(ByteBuffer body, int slotsPosition, int offsetsPosition, int slotMask, CharSequence toolCode) {
+        for (int slot = ToolCatalog.hashCode(toolCode) & slotMask; ; slot = (slot + 1) & slotMask) {
+            int entry = body.getInt(slotsPosition + slot * 4);
+            if (entry == 0 || codeMatches(body, body.getInt(offsetsPosition + (entry - 1) * 4), toolCode)) {
+                return slot;
+            }
+        }
+    }
+
+    private static boolean codeMatches(ByteBuffer body, int offset, CharSequence candidate) {
+        int length = body.getShort(offset + 2) & 0xFFFF;
+        if (length != candidate.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char a = body.getChar(offset + 4 + i * 2);
+            char b = candidate.charAt(i);
+            if (a != b && ToolCatalog.fold(a) != ToolCatalog.fold(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putName(ByteBuffer body, String name) {
+        body.put((byte) name.length());
+        for (int i = 0; i < name.length(); i++) {
+            body.put((byte) name.charAt(i));
+        }
+    }
+
+    private static String readName(ByteBuffer body, int position) {
+        char[] name = new char[body.get(position) & 0xFF];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) body.get(position + 1 + i);
+        }
+        return new String(name);
+    }
+
+    private static int align(int position) {
+        return (position + 3) & ~3;
+    }
+}
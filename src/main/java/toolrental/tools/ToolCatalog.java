@@ -0,0 +1,321 @@
+package toolrental.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The set of rentable tools, indexed by tool code ignoring case.
+ * <p>
+ * Readers look tools up in an immutable open-addressing snapshot without locking or allocating. Writers
+ * serialize on the catalog, copy the current snapshot with their change applied and publish the copy
+ * through a volatile field, so a checkout that is already running keeps seeing a consistent catalog.
+ * Repricing a tool means publishing a replacement {@link Tool} under the same code with {@link #putTool}.
+ * <p>
+ * A catalog opened over a {@link MappedToolTable} keeps the mapped snapshot file as its base and records
+ * changes in a small overlay in front of it, so opening a large catalog does not index it on the heap and a
+ * change copies only the overlay.
+ */
+public class ToolCatalog {
+    private volatile Snapshot snapshot;
+
+    public ToolCatalog() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * Creates a catalog of the given tools. When several tools share a code, the first one wins.
+     *
+     * @param tools the tools to index
+     */
+    public ToolCatalog(Collection<Tool> tools) {
+        this.snapshot = Snapshot.EMPTY.with(tools, false);
+    }
+
+    /**
+     * Creates a catalog whose tools are looked up in a mapped snapshot file.
+     *
+     * @param base the mapped tools
+     */
+    public ToolCatalog(MappedToolTable base) {
+        this.snapshot = new Snapshot(new Tool[2], 0, base.size(), 1, base);
+    }
+
+    /**
+     * Finds the tool by its code, ignoring case.
+     *
+     * @param toolCode the code of the tool to find
+     * @return the Tool instance if found, otherwise null
+     */
+    public Tool findTool(CharSequence toolCode) {
+        return snapshot.findTool(toolCode);
+    }
+
+    /**
+     * Returns the current immutable view of the catalog.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Returns a counter that increases every time the catalog changes.
+     *
+     * @return the version of the current snapshot
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * Adds a tool, replacing any tool with the same code.
+     *
+     * @param tool the tool to add
+     */
+    public void putTool(Tool tool) {
+        putTools(Collections.singletonList(tool));
+    }
+
+    /**
+     * Adds several tools in one published change, replacing any tools with the same codes.
+     *
+     * @param tools the tools to add
+     */
+    public synchronized void putTools(Collection<Tool> tools) {
+        snapshot = snapshot.with(tools, true);
+    }
+
+    /**
+     * Removes the tool with the given code.
+     *
+     * @param toolCode the code of the tool to remove
+     * @return true if a tool was removed, otherwise false
+     */
+    public synchronized boolean removeTool(String toolCode) {
+        Snapshot current = snapshot;
+        if (current.findTool(toolCode) == null) {
+            return false;
+        }
+        snapshot = current.without(toolCode);
+        return true;
+    }
+
+    /**
+     * Hashes a tool code so that codes differing only in case collide.
+     *
+     * @param toolCode the code to hash
+     * @return the case-insensitive hash
+     */
+    static int hashCode(CharSequence toolCode) {
+        int hash = 0;
+        for (int i = 0; i < toolCode.length(); i++) {
+            hash = 31 * hash + fold(toolCode.charAt(i));
+        }
+        // Codes such as "T0001", "T0002" have nearly consecutive polynomial hashes; mixing spreads them over the
+        // whole table so linear probing does not build long runs.
+        hash = (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+        hash = (hash ^ (hash >>> 13)) * 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    static boolean codesMatch(String code, CharSequence candidate) {
+        int length = code.length();
+        if (length != candidate.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char a = code.charAt(i);
+            char b = candidate.charAt(i);
+            if (a != b && fold(a) != fold(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Folds the case of a tool code the way the catalog matches codes, one char at a time, so codes the catalog
+     * treats as the same tool fold to equal strings.
+     *
+     * @param toolCode the code to fold
+     * @return the folded code
+     */
+    public static String foldCase(CharSequence toolCode) {
+        char[] folded = new char[toolCode.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = fold(toolCode.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    /**
+     * An immutable, open-addressing index of tools by code. Lookups probe a single array and never allocate.
+     * When the catalog has a mapped base, the array is an overlay of changed tools in front of the base, and a
+     * removed base tool is shadowed by a tombstone: a tool with the removed code and no type.
+     */
+    public static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new Tool[1], 0, 0, 0, null);
+
+        private final Tool[] tools;
+        private final int entries;
+        private final int size;
+        private final long version;
+        private final MappedToolTable base;
+
+        private Snapshot(Tool[] tools, int entries, int size, long version, MappedToolTable base) {
+            this.tools = tools;
+            this.entries = entries;
+            this.size = size;
+            this.version = version;
+            this.base = base;
+        }
+
+        /**
+         * Finds the tool by its code, ignoring case.
+         *
+         * @param toolCode the code of the tool to find
+         * @return the Tool instance if found, otherwise null
+         */
+        public Tool findTool(CharSequence toolCode) {
+            if (toolCode == null) {
+                return null;
+            }
+            int mask = tools.length - 1;
+            for (int slot = ToolCatalog.hashCode(toolCode) & mask; ; slot = (slot + 1) & mask) {
+                Tool tool = tools[slot];
+                if (tool == null) {
+                    return base == null ? null : base.findTool(toolCode);
+                }
+                if (codesMatch(tool.getToolCode(), toolCode)) {
+                    return tool.getToolType() == null ? null : tool;
+                }
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Returns the tools in this snapshot, in no particular order. For a catalog with a mapped base this reads
+         * every record of the base.
+         *
+         * @return an unmodifiable list of the tools
+         */
+        public List<Tool> getTools() {
+            List<Tool> result = new ArrayList<>(size);
+            for (Tool tool : tools) {
+                if (tool != null && tool.getToolType() != null) {
+                    result.add(tool);
+                }
+            }
+            if (base != null) {
+                for (int i = 0; i < base.size(); i++) {
+                    Tool tool = base.getTool(i);
+                    if (entries == 0 || overlayEntry(tool.getToolCode()) == null) {
+                        result.add(tool);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        private Snapshot with(Collection<Tool> added, boolean replace) {
+            Tool[] table = new Tool[tableSize(entries + added.size())];
+            int count = entries;
+            int visible = size;
+            for (Tool tool : tools) {
+                if (tool != null) {
+                    insert(table, tool, false);
+                }
+            }
+            for (Tool tool : added) {
+                Tool previous = insert(table, tool, replace);
+                if (previous == null) {
+                    count++;
+                }
+                boolean wasVisible = previous != null ? previous.getToolType() != null
+                        : base != null && base.findTool(tool.getToolCode()) != null;
+                if (!wasVisible) {
+                    visible++;
+                }
+            }
+            return new Snapshot(table, count, visible, version + 1, base);
+        }
+
+        private Snapshot without(String toolCode) {
+            Tool[] table = new Tool[tableSize(entries + 1)];
+            int count = 0;
+            for (Tool tool : tools) {
+                if (tool != null && !codesMatch(tool.getToolCode(), toolCode)) {
+                    insert(table, tool, false);
+                    count++;
+                }
+            }
+            Tool baseTool = base == null ? null : base.findTool(toolCode);
+            if (baseTool != null) {
+                insert(table, new Tool(baseTool.getToolCode(), null, null), false);
+                count++;
+            }
+            return new Snapshot(table, count, size - 1, version + 1, base);
+        }
+
+        private Tool overlayEntry(String toolCode) {
+            int mask = tools.length - 1;
+            for (int slot = ToolCatalog.hashCode(toolCode) & mask; ; slot = (slot + 1) & mask) {
+                Tool tool = tools[slot];
+                if (tool == null || codesMatch(tool.getToolCode(), toolCode)) {
+                    return tool;
+                }
+            }
+        }
+
+        /**
+         * Inserts a tool into an open-addressing table. A tombstone is always replaced.
+         *
+         * @return null if the tool took a new slot, otherwise the entry that was already present for its code
+         */
+        private static Tool insert(Tool[] table, Tool tool, boolean replace) {
+            int mask = table.length - 1;
+            for (int slot = ToolCatalog.hashCode(tool.getToolCode()) & mask; ; slot = (slot + 1) & mask) {
+                Tool existing = table[slot];
+                if (existing == null) {
+                    table[slot] = tool;
+                    return null;
+                }
+                if (codesMatch(existing.getToolCode(), tool.getToolCode())) {
+                    if (replace || existing.getToolType() == null) {
+                        table[slot] = tool;
+                    }
+                    return existing;
+                }
+            }
+        }
+
+        /**
+         * Sizes a table to a power of two that keeps the load factor at or below one half.
+         */
+        private static int tableSize(int entries) {
+            int size = 2;
+            while (size < entries * 2) {
+                size <<= 1;
+            }
+            return size;
+        }
+    }
+}
@@ -10,6 +10,7 @@ public enum ToolType {
 
     private final String name;
     private final double dailyCharge;
+    private final long dailyChargeCents;
     private final boolean weekdayCharge;
     private final boolean weekendCharge;
     private final boolean holidayCharge;
@@ -17,6 +18,7 @@ public enum ToolType {
     ToolType(String name, double dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
         this.name = name;
         this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = Math.round(dailyCharge * 100.0);
         this.weekdayCharge = weekdayCharge;
         this.weekendCharge = weekendCharge;
         this.holidayCharge = holidayCharge;
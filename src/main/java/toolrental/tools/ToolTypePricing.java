@@ -0,0 +1,99 @@
+package toolrental.tools;
+
+import java.util.Arrays;
+
+/**
+ * The daily charge and chargeable days of each {@link ToolType}. The standard pricing is the one built into
+ * the enum; other pricing can be loaded from a file with {@link toolrental.loader.ToolLoader#loadPricing}.
+ * Instances are immutable.
+ */
+public final class ToolTypePricing {
+    private static final ToolType[] TOOL_TYPES = ToolType.values();
+    private static final ToolTypePricing STANDARD = createStandard();
+
+    private final long[] dailyChargeCents;
+    private final double[] dailyCharge;
+    private final boolean[] weekdayCharge;
+    private final boolean[] weekendCharge;
+    private final boolean[] holidayCharge;
+
+    private ToolTypePricing(long[] dailyChargeCents, boolean[] weekdayCharge, boolean[] weekendCharge, boolean[] holidayCharge) {
+        this.dailyChargeCents = dailyChargeCents;
+        this.dailyCharge = new double[dailyChargeCents.length];
+        for (int i = 0; i < dailyChargeCents.length; i++) {
+            dailyCharge[i] = dailyChargeCents[i] / 100.0;
+        }
+        this.weekdayCharge = weekdayCharge;
+        this.weekendCharge = weekendCharge;
+        this.holidayCharge = holidayCharge;
+    }
+
+    /**
+     * @return the pricing built into {@link ToolType}
+     */
+    public static ToolTypePricing standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Returns a copy of this pricing with one tool type repriced.
+     *
+     * @param toolType         the tool type to reprice
+     * @param dailyChargeCents the daily charge in cents
+     * @param weekdayCharge    whether weekdays are charged
+     * @param weekendCharge    whether weekend days are charged
+     * @param holidayCharge    whether holidays are charged
+     * @return the new pricing
+     * @throws IllegalArgumentException if the daily charge is negative
+     */
+    public ToolTypePricing with(ToolType toolType, long dailyChargeCents, boolean weekdayCharge, boolean weekendCharge,
+                                boolean holidayCharge) {
+        if (dailyChargeCents < 0) {
+            throw new IllegalArgumentException("Daily charge must not be negative.");
+        }
+        int i = toolType.ordinal();
+        ToolTypePricing copy = new ToolTypePricing(Arrays.copyOf(this.dailyChargeCents, TOOL_TYPES.length),
+                Arrays.copyOf(this.weekdayCharge, TOOL_TYPES.length), Arrays.copyOf(this.weekendCharge, TOOL_TYPES.length),
+                Arrays.copyOf(this.holidayCharge, TOOL_TYPES.length));
+        copy.dailyChargeCents[i] = dailyChargeCents;
+        copy.dailyCharge[i] = dailyChargeCents / 100.0;
+        copy.weekdayCharge[i] = weekdayCharge;
+        copy.weekendCharge[i] = weekendCharge;
+        copy.holidayCharge[i] = holidayCharge;
+        return copy;
+    }
+
+    public long getDailyChargeCents(ToolType toolType) {
+        return dailyChargeCents[toolType.ordinal()];
+    }
+
+    public double getDailyCharge(ToolType toolType) {
+        return dailyCharge[toolType.ordinal()];
+    }
+
+    public boolean isWeekdayCharge(ToolType toolType) {
+        return weekdayCharge[toolType.ordinal()];
+    }
+
+    public boolean isWeekendCharge(ToolType toolType) {
+        return weekendCharge[toolType.ordinal()];
+    }
+
+    public boolean isHolidayCharge(ToolType toolType) {
+        return holidayCharge[toolType.ordinal()];
+    }
+
+    private static ToolTypePricing createStandard() {
+        long[] cents = new long[TOOL_TYPES.length];
+        boolean[] weekday = new boolean[TOOL_TYPES.length];
+        boolean[] weekend = new boolean[TOOL_TYPES.length];
+        boolean[] holiday = new boolean[TOOL_TYPES.length];
+        for (ToolType toolType : TOOL_TYPES) {
+            cents[toolType.ordinal()] = toolType.getDailyChargeCents();
+            weekday[toolType.ordinal()] = toolType.isWeekdayCharge();
+            weekend[toolType.ordinal()] = toolType.isWeekendCharge();
+            holiday[toolType.ordinal()] = toolType.isHolidayCharge();
+        }
+        return new ToolTypePricing(cents, weekday, weekend, holiday);
+    }
+}
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import toolrental.constants.ToolBrand;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.AgreementRenderer;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AgreementRendererTest {
+
+    @Test
+    public void testRender_MatchesOriginalFormatting() {
+        for (RentalAgreement agreement : agreements()) {
+            assertEquals(referenceRender(agreement), AgreementRenderer.render(agreement, new StringBuilder()).toString());
+        }
+    }
+
+    @Test
+    public void testPrintAgreement_WritesSameBytesAsOriginal() {
+        RentalAgreement agreement = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()))
+                .checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+
+        assertEquals(referenceRender(agreement), captureStdout(agreement::printAgreement));
+    }
+
+    @Test
+    public void testRenderAll_ToWriterAndByteBuffer() throws IOException {
+        List<RentalAgreement> agreements = agreements();
+        StringBuilder expected = new StringBuilder();
+        for (RentalAgreement agreement : agreements) {
+            expected.append(referenceRender(agreement));
+        }
+
+        StringWriter writer = new StringWriter();
+        AgreementRenderer.renderAll(agreements, writer);
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length() * 2);
+        for (RentalAgreement agreement : agreements) {
+            AgreementRenderer.render(agreement, buffer);
+        }
+
+        assertEquals(expected.toString(), writer.toString());
+        assertEquals(expected.toString(), new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    private static List<RentalAgreement> agreements() {
+        CheckoutService checkoutService = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (String toolCode : Arrays.asList("CHNS", "LADW", "JAKD", "JAKR")) {
+            for (int rentalDays : new int[]{1, 4, 9, 45, 400, 4_000, 40_000}) {
+                for (int discountPercent : new int[]{0, 10, 33, 50, 100}) {
+                    agreements.add(checkoutService.checkout(toolCode, rentalDays, discountPercent, LocalDate.of(2009, 7, 1)));
+                }
+            }
+        }
+        // Amounts that are not whole cents, negative amounts and negative zero go through the formatter fallback.
+        agreements.add(new RentalAgreement("X\u00e9", "Ladder", ToolBrand.WERNER, 1, LocalDate.of(1999, 12, 31), LocalDate.of(2000, 1, 1),
+                0.125, 1, 1234567.005, 7, -0.0, -12345.675));
+        return agreements;
+    }
+
+    /**
+     * The original body of {@link RentalAgreement#printAgreement()}, writing to a builder instead of standard output.
+     */
+    private static String referenceRender(RentalAgreement agreement) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yy");
+        DecimalFormat currencyFormatter = new DecimalFormat("$#,##0.00");
+        DecimalFormat percentFormatter = new DecimalFormat("#0%");
+        String newline = System.lineSeparator();
+
+        return "Rental Agreement:" + newline
+                + "Tool code: " + agreement.getToolCode() + newline
+                + "Tool type: " + agreement.getToolType() + newline
+                + "Tool brand: " + agreement.getToolBrand() + newline
+                + "Rental days: " + agreement.getRentalDays() + newline
+                + "Checkout date: " + agreement.getCheckoutDate().format(dateFormatter) + newline
+                + "Due date: " + agreement.getDueDate().format(dateFormatter) + newline
+                + "Daily rental charge: " + currencyFormatter.format(agreement.getDailyRentalCharge()) + newline
+                + "Charge days: " + agreement.getChargeDays() + newline
+                + "Pre-discount charge: " + currencyFormatter.format(agreement.getPreDiscountCharge()) + newline
+                + "Discount percent: " + percentFormatter.format(agreement.getDiscountPercent() / 100.0) + newline
+                + "Discount amount: " + currencyFormatter.format(agreement.getDiscountAmount()) + newline
+                + "Final charge: " + currencyFormatter.format(agreement.getFinalCharge()) + newline;
+    }
+
+    private static String captureStdout(Runnable action) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true));
+        try {
+            action.run();
+        } finally {
+            System.setOut(original);
+        }
+        return new String(captured.toByteArray());
+    }
+}
@@ -0,0 +1,166 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.analytics.AggregationResult;
+import toolrental.analytics.AgreementFilter;
+import toolrental.analytics.AgreementStore;
+import toolrental.analytics.GroupKey;
+import toolrental.analytics.Measure;
+import toolrental.constants.ToolBrand;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.AgreementEncoder;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+public class AgreementStoreTest {
+    private static final String[] CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final LocalDate START = LocalDate.of(2019, 1, 1);
+
+    private final CheckoutService service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+
+    @Test
+    public void testAggregate_MatchesObjectBaseline() {
+        List<RentalAgreement> agreements = agreements(200_000, 42);
+        AgreementStore store = new AgreementStore();
+        store.addAll(agreements);
+        assertEquals(agreements.size(), store.size());
+
+        AgreementFilter all = AgreementFilter.all();
+        AgreementFilter narrow = all.checkoutBetween(LocalDate.of(2019, 3, 1), LocalDate.of(2019, 9, 1))
+                .toolTypes(ToolType.LADDER, ToolType.JACKHAMMER).discountBetween(10, 50);
+        Predicate<RentalAgreement> narrowMatches = a -> !a.getCheckoutDate().isBefore(LocalDate.of(2019, 3, 1))
+                && a.getCheckoutDate().isBefore(LocalDate.of(2019, 9, 1)) && !a.getToolType().equals("Chainsaw")
+                && a.getDiscountPercent() >= 10 && a.getDiscountPercent() <= 50;
+
+        assertAggregate(store, agreements, all, a -> true, GroupKey.ALL, a -> "all", Measure.FINAL_CENTS,
+                RentalAgreement::getFinalChargeCents);
+        assertAggregate(store, agreements, all, a -> true, GroupKey.TOOL_TYPE, a -> a.getToolType().toUpperCase(), Measure.FINAL_CENTS,
+                RentalAgreement::getFinalChargeCents);
+        assertAggregate(store, agreements, narrow, narrowMatches, GroupKey.TOOL_BRAND, a -> a.getToolBrand().name(),
+                Measure.PRE_DISCOUNT_CENTS, RentalAgreement::getPreDiscountChargeCents);
+        assertAggregate(store, agreements, narrow, narrowMatches, GroupKey.DISCOUNT_BUCKET,
+                a -> a.getDiscountPercent() / 10 * 10 + "-" + (a.getDiscountPercent() / 10 * 10 + 9) + "%", Measure.FINAL_CENTS,
+                RentalAgreement::getFinalChargeCents);
+        assertAggregate(store, agreements, narrow, narrowMatches, GroupKey.TOOL_CODE, RentalAgreement::getToolCode,
+                Measure.DISCOUNT_CENTS, RentalAgreement::getDiscountAmountCents);
+        assertAggregate(store, agreements, all.toolBrands(ToolBrand.RIDGID), a -> a.getToolBrand() == ToolBrand.RIDGID,
+                GroupKey.CHECKOUT_WEEK, a -> a.getCheckoutDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toString(),
+                Measure.CHARGE_DAYS, a -> a.getChargeDays());
+        assertAggregate(store, agreements, all, a -> true, GroupKey.DISCOUNT_BUCKET,
+                a -> a.getDiscountPercent() == 100 ? "100%" : a.getDiscountPercent() / 10 * 10 + "-" + (a.getDiscountPercent() / 10 * 10 + 9) + "%",
+                Measure.RENTAL_DAYS, a -> a.getRentalDays());
+
+        AggregationResult none = store.aggregate(all.checkoutBetween(LocalDate.of(2030, 1, 1), LocalDate.of(2031, 1, 1)),
+                GroupKey.TOOL_TYPE, Measure.COUNT);
+        assertEquals(0, none.size());
+        assertEquals(0, new AgreementStore().aggregate(all, GroupKey.CHECKOUT_WEEK, Measure.COUNT).size());
+    }
+
+    @Test
+    public void testGet_RebuildsAgreements() {
+        List<RentalAgreement> agreements = agreements(70_000, 7);
+        AgreementStore store = new AgreementStore(true);
+        store.addAll(agreements);
+        for (int row = 0; row < agreements.size(); row += 997) {
+            assertEquals(json(agreements.get(row)), json(store.get(row)));
+        }
+        assertEquals(json(agreements.get(agreements.size() - 1)), json(store.get(agreements.size() - 1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(agreements.size()));
+    }
+
+    @Test
+    public void testAdd_WidensColumnsForLargeValues() {
+        AgreementStore store = new AgreementStore();
+        List<RentalAgreement> agreements = agreements(1000, 3);
+        store.addAll(agreements.subList(0, 500));
+        RentalAgreement large = RentalAgreement.ofCents("LADW", "Ladder", ToolBrand.WERNER, 1, START, START.plusDays(1),
+                199, 40_000, 5_000_000_000L, 10, 500_000_000L, 4_500_000_000L);
+        store.add(large);
+        store.addAll(agreements.subList(500, 1000));
+
+        long expected = large.getFinalChargeCents();
+        for (RentalAgreement agreement : agreements) {
+            expected += agreement.getFinalChargeCents();
+        }
+        long expectedChargeDays = large.getChargeDays();
+        for (RentalAgreement agreement : agreements) {
+            expectedChargeDays += agreement.getChargeDays();
+        }
+        assertEquals(expected, store.aggregate(AgreementFilter.all(), GroupKey.ALL, Measure.FINAL_CENTS).getSum("all"));
+        assertEquals(expectedChargeDays, store.aggregate(AgreementFilter.all(), GroupKey.ALL, Measure.CHARGE_DAYS).getSum("all"));
+        assertEquals(json(large), json(store.get(500)));
+        assertEquals(json(agreements.get(0)), json(store.get(0)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> store.add(
+                new RentalAgreement("LADW", "Drill", ToolBrand.WERNER, 1, START, START.plusDays(1), 1.0, 1, 1.0, 0, 0.0, 1.0)));
+        assertEquals("Unknown tool type: Drill.", exception.getMessage());
+    }
+
+    @Test
+    public void testMemory_IsUnderAFifthOfTheObjectForm() {
+        // Two full segments, so no column capacity is left unused.
+        int count = 2 * 65_536;
+        System.gc();
+        long before = usedHeap();
+        List<RentalAgreement> agreements = agreements(count, 11);
+        System.gc();
+        long objectBytes = usedHeap() - before;
+
+        AgreementStore store = new AgreementStore();
+        store.addAll(agreements);
+        assertEquals(count, store.size());
+        assertTrue(store.getMemoryBytes() <= 24L * count, store.getMemoryBytes() + " bytes");
+        assertTrue(objectBytes >= 5 * store.getMemoryBytes(), objectBytes + " bytes as objects, " + store.getMemoryBytes() + " as columns");
+    }
+
+    private void assertAggregate(AgreementStore store, List<RentalAgreement> agreements, AgreementFilter filter,
+                                 Predicate<RentalAgreement> matches, GroupKey groupKey, Function<RentalAgreement, String> label,
+                                 Measure measure, ToLongFunction<RentalAgreement> value) {
+        Map<String, Long> expected = new TreeMap<>();
+        for (RentalAgreement agreement : agreements) {
+            if (matches.test(agreement)) {
+                expected.merge(label.apply(agreement), value.applyAsLong(agreement), Long::sum);
+            }
+        }
+        AggregationResult sequential = store.aggregate(filter, groupKey, measure);
+        AggregationResult parallel = store.aggregate(filter, groupKey, measure, ForkJoinPool.commonPool());
+        assertEquals(expected, new TreeMap<>(sequential.toMap()));
+        assertEquals(sequential.toMap(), parallel.toMap());
+    }
+
+    private List<RentalAgreement> agreements(int count, long seed) {
+        Random random = new Random(seed);
+        List<RentalAgreement> agreements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            agreements.add(service.quote(CODES[random.nextInt(CODES.length)], 1 + random.nextInt(30), random.nextInt(101),
+                    START.plusDays(random.nextInt(730))));
+        }
+        return agreements;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String json(RentalAgreement agreement) {
+        return AgreementEncoder.appendJson(agreement, new StringBuilder()).toString();
+    }
+}
@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import toolrental.holiday.HolidayCalendar;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+public class BatchCheckoutTest {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR", "NOPE"};
+
+    private static CheckoutService checkoutService;
+
+    @BeforeAll
+    public static void setup() {
+        checkoutService = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+    }
+
+    @Test
+    public void testCheckoutBatch_ReturnsResultsInInputOrder_AndIsolatesFailures() {
+        List<CheckoutRequest> requests = requests(5_000);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<CheckoutResult> results;
+        try {
+            results = checkoutService.checkoutBatch(requests, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CheckoutRequest request = requests.get(i);
+            CheckoutResult result = results.get(i);
+            if (request.getDiscountPercent() > 100) {
+                assertFalse(result.isSuccess());
+                assertEquals("Discount percent must be between 0 and 100.", result.getErrorMessage());
+            } else if (request.getToolCode().equals("NOPE")) {
+                assertFalse(result.isSuccess());
+                assertEquals("Invalid tool code.", result.getErrorMessage());
+            } else {
+                RentalAgreement expected = checkoutService.checkout(request.getToolCode(), request.getRentalDays(),
+                        request.getDiscountPercent(), request.getCheckoutDate());
+                assertTrue(result.isSuccess());
+                assertEquals(request.getToolCode(), result.getAgreement().getToolCode());
+                assertEquals(expected.getDueDate(), result.getAgreement().getDueDate());
+                assertEquals(expected.getFinalCharge(), result.getAgreement().getFinalCharge());
+            }
+        }
+    }
+
+    @Test
+    public void testCheckoutBatch_FromManyThreadsAtOnce() throws Exception {
+        List<CheckoutRequest> requests = requests(2_000);
+        List<CheckoutResult> expected = checkoutService.checkoutBatch(requests);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<CheckoutResult>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(callers.submit(() -> checkoutService.checkoutBatch(requests)));
+            }
+            for (Future<List<CheckoutResult>> future : futures) {
+                List<CheckoutResult> results = future.get();
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).isSuccess(), results.get(i).isSuccess());
+                    if (expected.get(i).isSuccess()) {
+                        assertEquals(expected.get(i).getAgreement().getFinalCharge(), results.get(i).getAgreement().getFinalCharge());
+                    }
+                }
+            }
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    public void testCheckoutBatch_WhenCheckoutThrows_ReportsTheExceptionType() {
+        HolidayCalendar broken = new HolidayCalendar() {
+            @Override
+            public boolean isHoliday(long epochDay) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int countHolidays(long firstEpochDay, long lastEpochDay) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int countWeekendHolidays(long firstEpochDay, long lastEpochDay) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        CheckoutService failing = new CheckoutService(checkoutService.getToolCatalog(), broken);
+
+        List<CheckoutResult> results = failing.checkoutBatch(requests(2));
+
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("java.lang.UnsupportedOperationException", results.get(1).getErrorMessage());
+    }
+
+    private static List<CheckoutRequest> requests(int count) {
+        List<CheckoutRequest> requests = new ArrayList<>(count);
+        LocalDate firstCheckout = LocalDate.of(2015, 6, 1);
+        for (int i = 0; i < count; i++) {
+            String toolCode = TOOL_CODES[i % TOOL_CODES.length];
+            int discountPercent = i % 17 == 0 ? 150 : i % 100;
+            requests.add(new CheckoutRequest(toolCode, 1 + i % 60, discountPercent, firstCheckout.plusDays(i % 500)));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import toolrental.loader.ToolLoader;
+import toolrental.pipeline.BulkPricingPipeline;
+import toolrental.pipeline.BulkPricingReport;
+import toolrental.pipeline.InputFormat;
+import toolrental.rental.AgreementEncoder;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BulkPricingPipelineTest {
+    private static CheckoutService checkoutService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void setup() {
+        checkoutService = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+    }
+
+    @Test
+    public void testRun_WithCsv_PricesValidRowsAndRejectsMalformedOnes() throws IOException {
+        Path input = write("requests.csv",
+                "toolCode,checkoutDate,rentalDays,discountPercent",
+                "LADW,07/02/2020,3,10",
+                "chns,2015-07-02,5,25\r",
+                "JAKR,09/03/15,9,0",
+                "",
+                "JAKR,2015-09-03,5,101",
+                "NOPE,2015-09-03,5,0",
+                "NOPE,2015-09-03,0,0",
+                "JAKD,2015-02-30,5,0",
+                "JAKD,2015-09-03,five,0",
+                "JAKD,2015-09-03,5",
+                "JAKD,2015-09-03,6,0");
+        List<String> rejected = new ArrayList<>();
+
+        BulkPricingReport report = new BulkPricingPipeline(checkoutService).run(input, tempDir.resolve("out.csv"),
+                InputFormat.CSV, (line, reason) -> rejected.add(line + ": " + reason));
+
+        assertEquals(10, report.getRowsRead());
+        assertEquals(4, report.getRowsPriced());
+        assertEquals(6, report.getRowsRejected());
+        // Rows are checked in the same order as CheckoutService.tryCheckout, so rental days come before the tool.
+        assertEquals(Arrays.asList(
+                "6: Discount percent must be between 0 and 100.",
+                "7: Invalid tool code.",
+                "8: Rental day count must be 1 or greater.",
+                "9: Checkout date must be yyyy-MM-dd, MM/dd/yyyy or MM/dd/yy.",
+                "10: Rental days and discount percent must be whole numbers.",
+                "11: Expected toolCode, checkoutDate, rentalDays and discountPercent."), rejected);
+        assertEquals(Arrays.asList(
+                AgreementEncoder.CSV_HEADER,
+                csv("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                csv("CHNS", 5, 25, LocalDate.of(2015, 7, 2)),
+                csv("JAKR", 9, 0, LocalDate.of(2015, 9, 3)),
+                csv("JAKD", 6, 0, LocalDate.of(2015, 9, 3))), Files.readAllLines(tempDir.resolve("out.csv")));
+    }
+
+    @Test
+    public void testRun_WithNdjson_PricesEachObject() throws IOException {
+        Path input = write("requests.ndjson",
+                "{\"toolCode\":\"LADW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discountPercent\":10}",
+                " { \"discountPercent\" : 0 , \"rentalDays\" : 6, \"store\": \"Atlanta\", \"checkoutDate\" : \"09/03/2015\", \"toolCode\" : \"JAKD\" } ",
+                "{\"toolCode\":\"LADW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3}",
+                "[1, 2, 3]");
+        List<Long> rejectedLines = new ArrayList<>();
+
+        BulkPricingReport report = new BulkPricingPipeline(checkoutService).run(input, tempDir.resolve("out.ndjson"),
+                InputFormat.NDJSON, (line, reason) -> rejectedLines.add(line));
+
+        assertEquals(2, report.getRowsPriced());
+        assertEquals(Arrays.asList(3L, 4L), rejectedLines);
+        List<String> output = Files.readAllLines(tempDir.resolve("out.ndjson"));
+        assertEquals(AgreementEncoder.appendJson(checkoutService.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2)),
+                new StringBuilder()).toString(), output.get(0));
+        assertEquals("{\"toolCode\":\"JAKD\",\"toolType\":\"Jackhammer\",\"toolBrand\":\"DEWALT\",\"rentalDays\":6,"
+                + "\"checkoutDate\":\"2015-09-03\",\"dueDate\":\"2015-09-09\",\"dailyRentalCharge\":2.99,\"chargeDays\":3,"
+                + "\"preDiscountCharge\":8.97,\"discountPercent\":0,\"discountAmount\":0.00,\"finalCharge\":8.97}", output.get(1));
+    }
+
+    @Test
+    public void testRun_WithSmallReadWindow_MatchesSingleWindowOutput() throws IOException {
+        String[] tools = {"CHNS", "LADW", "JAKD", "JAKR"};
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate checkoutDate = LocalDate.of(2015, 1, 1).plusDays(i % 700);
+            lines.add(tools[i % 4] + "," + checkoutDate + "," + (1 + i % 40) + "," + (i % 101));
+        }
+        lines.add("JAKR,2015-01-01," + repeat('9', 80) + ",0");
+        lines.add("JAKR,2015-01-01,4,0");
+        Path input = write("requests.csv", lines.toArray(new String[0]));
+        List<Long> rejectedLines = new ArrayList<>();
+
+        BulkPricingReport small = new BulkPricingPipeline(checkoutService, 64, 4096).run(input, tempDir.resolve("small.csv"),
+                InputFormat.CSV, (line, reason) -> rejectedLines.add(line));
+        BulkPricingReport large = new BulkPricingPipeline(checkoutService).run(input, tempDir.resolve("large.csv"),
+                InputFormat.CSV, (line, reason) -> { });
+
+        assertEquals(Arrays.asList(2_001L), rejectedLines);
+        assertEquals(2_001, small.getRowsPriced());
+        assertEquals(2_002, large.getRowsRead());
+        assertEquals(Files.readAllLines(tempDir.resolve("large.csv")), Files.readAllLines(tempDir.resolve("small.csv")));
+    }
+
+    private static String csv(String toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate) {
+        return AgreementEncoder.appendCsv(checkoutService.checkout(toolCode, rentalDays, discountPercent, checkoutDate),
+                new StringBuilder()).toString();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(tempDir.resolve(name), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+}
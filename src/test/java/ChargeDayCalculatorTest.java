@@ -0,0 +1,100 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.service.ChargeDayCalculator;
+import toolrental.tools.ToolType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+public class ChargeDayCalculatorTest {
+    private static final ChargeDayCalculator CALCULATOR = new ChargeDayCalculator(PrecomputedHolidayCalendar.standard());
+    private static final int[] LONG_RENTALS = {90, 180, 364, 365, 366, 730, 1000, 1461, 3650};
+
+    @Test
+    public void testCalculateChargeDays_MatchesDayByDayLoop_ForEveryToolType() {
+        LocalDate firstCheckout = LocalDate.of(2014, 1, 1);
+        LocalDate lastCheckout = LocalDate.of(2016, 12, 31);
+
+        for (LocalDate checkoutDate = firstCheckout; !checkoutDate.isAfter(lastCheckout); checkoutDate = checkoutDate.plusDays(1)) {
+            for (int rentalDays = 1; rentalDays <= 45; rentalDays++) {
+                assertSameChargeDays(checkoutDate, rentalDays);
+            }
+        }
+    }
+
+    @Test
+    public void testCalculateChargeDays_MatchesDayByDayLoop_ForLongRentals() {
+        LocalDate firstCheckout = LocalDate.of(1999, 6, 1);
+        LocalDate lastCheckout = LocalDate.of(2031, 6, 1);
+
+        for (LocalDate checkoutDate = firstCheckout; !checkoutDate.isAfter(lastCheckout); checkoutDate = checkoutDate.plusDays(13)) {
+            for (int rentalDays : LONG_RENTALS) {
+                assertSameChargeDays(checkoutDate, rentalDays);
+            }
+        }
+    }
+
+    private static void assertSameChargeDays(LocalDate checkoutDate, int rentalDays) {
+        LocalDate dueDate = checkoutDate.plusDays(rentalDays);
+        for (ToolType toolType : ToolType.values()) {
+            assertEquals(referenceChargeDays(checkoutDate, dueDate, toolType),
+                    CALCULATOR.calculateChargeDays(checkoutDate, dueDate, toolType),
+                    () -> toolType + " from " + checkoutDate + " for " + rentalDays + " days");
+        }
+    }
+
+    /**
+     * The original day-by-day charge-day loop, kept as the oracle for the closed-form calculator.
+     */
+    private static int referenceChargeDays(LocalDate checkoutDate, LocalDate dueDate, ToolType toolType) {
+        int chargeDays = 0;
+        LocalDate currentDate = checkoutDate.plusDays(1);
+
+        while (!currentDate.isAfter(dueDate)) {
+            if (isHoliday(currentDate)) {
+                if (toolType.isHolidayCharge()) {
+                    chargeDays++;
+                }
+            } else if (!isWeekend(currentDate) && toolType.isWeekdayCharge()) {
+                chargeDays++;
+            } else if (isWeekend(currentDate) && toolType.isWeekendCharge()) {
+                chargeDays++;
+            }
+
+            currentDate = currentDate.plusDays(1);
+        }
+
+        return chargeDays;
+    }
+
+    private static boolean isHoliday(LocalDate date) {
+        return isIndependenceDay(date) || isLaborDay(date);
+    }
+
+    private static boolean isIndependenceDay(LocalDate date) {
+        int dayOfMonth = date.getDayOfMonth();
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+
+        if (date.getMonth() != Month.JULY) {
+            return false;
+        }
+        if (dayOfMonth == 4 && !isWeekend(date)) {
+            return true;
+        }
+        if (dayOfMonth == 3 && dayOfWeek == DayOfWeek.FRIDAY) {
+            return true;
+        }
+        return dayOfMonth == 5 && dayOfWeek == DayOfWeek.MONDAY;
+    }
+
+    private static boolean isLaborDay(LocalDate date) {
+        return date.getMonth() == Month.SEPTEMBER && date.getDayOfWeek() == DayOfWeek.MONDAY && date.getDayOfMonth() <= 7;
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
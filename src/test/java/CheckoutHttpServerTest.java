@@ -0,0 +1,199 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import toolrental.http.CheckoutHttpServer;
+import toolrental.inventory.Inventory;
+import toolrental.journal.AgreementJournal;
+import toolrental.journal.DurabilityMode;
+import toolrental.loader.ToolLoader;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CheckoutHttpServerTest {
+    private static final String LADW_AGREEMENT = "{\"toolCode\":\"LADW\",\"toolType\":\"Ladder\",\"toolBrand\":\"WERNER\","
+            + "\"rentalDays\":3,\"checkoutDate\":\"2020-07-02\",\"dueDate\":\"2020-07-05\",\"dailyRentalCharge\":1.99,"
+            + "\"chargeDays\":2,\"preDiscountCharge\":3.98,\"discountPercent\":10,\"discountAmount\":0.40,\"finalCharge\":3.58}";
+
+    private CheckoutHttpServer server;
+    private Inventory inventory;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        inventory = new Inventory();
+        inventory.addUnits("LADW", 1);
+        CheckoutService service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools())).build();
+        server = new CheckoutHttpServer(service, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testCheckout_ReturnsAgreementOrError() throws IOException {
+        Response response = send("POST", "/checkout",
+                "{\"toolCode\":\"LADW\",\"checkoutDate\":\"07/02/20\",\"rentalDays\":3,\"discountPercent\":10}");
+        assertEquals(200, response.status);
+        assertEquals(LADW_AGREEMENT, response.body);
+
+        response = send("POST", "/checkout", "{\"toolCode\":\"JAKR\",\"checkoutDate\":\"2015-09-03\",\"rentalDays\":5,\"discountPercent\":101}");
+        assertEquals(400, response.status);
+        assertEquals("{\"error\":\"Discount percent must be between 0 and 100.\"}", response.body);
+
+        response = send("POST", "/checkout", "not json");
+        assertEquals(400, response.status);
+        assertEquals("{\"error\":\"Line is not a flat JSON object.\"}", response.body);
+
+        assertEquals(405, send("GET", "/checkout", null).status);
+        assertEquals(404, send("POST", "/checkouts", "{}").status);
+    }
+
+    @Test
+    public void testCheckout_WithoutFreeUnit_ReturnsConflict() throws IOException {
+        server.close();
+        server = new CheckoutHttpServer(CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .inventory(inventory).build(), new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        String request = "{\"toolCode\":\"LADW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discountPercent\":10}";
+
+        assertEquals(200, send("POST", "/checkout", request).status);
+        Response response = send("POST", "/checkout", request);
+        assertEquals(409, response.status);
+        assertEquals("{\"error\":\"No unit of the tool is available for the rental period.\"}", response.body);
+        assertEquals(200, send("GET", "/quote?toolCode=LADW&checkoutDate=2020-07-02&rentalDays=3&discountPercent=10", null).status);
+    }
+
+    @Test
+    public void testBatch_ReturnsOneLinePerRequestInOrder() throws IOException {
+        Response response = send("POST", "/checkout/batch",
+                "{\"toolCode\":\"LADW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discountPercent\":10}\r\n"
+                        + "{\"toolCode\":\"LADW\"}\n"
+                        + "\n"
+                        + "{\"toolCode\":\"NOPE\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discountPercent\":10}\n");
+        assertEquals(200, response.status);
+        assertEquals(LADW_AGREEMENT + "\n"
+                + "{\"error\":\"Expected toolCode, checkoutDate, rentalDays and discountPercent.\"}\n"
+                + "{\"error\":\"Invalid tool code.\"}\n", response.body);
+    }
+
+    @Test
+    public void testBatch_WithManyLines_StreamsEveryResponseLine() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            body.append("{}\n");
+        }
+        Response response = send("POST", "/checkout/batch", body.toString());
+        assertEquals(200, response.status);
+        String line = "{\"error\":\"Expected toolCode, checkoutDate, rentalDays and discountPercent.\"}\n";
+        assertEquals(20_000 * line.length(), response.body.length());
+        assertTrue(response.body.startsWith(line) && response.body.endsWith(line));
+        assertEquals(404, send("POST", "/checkout/batch/more", "{}").status);
+        assertEquals(404, send("GET", "/quote/more?toolCode=LADW", null).status);
+    }
+
+    @Test
+    public void testCheckout_WhenTheJournalFails_ReturnsServerError(@TempDir Path directory) throws IOException {
+        AgreementJournal journal = AgreementJournal.open(directory.resolve("agreements.journal"), DurabilityMode.OS_BUFFERED);
+        journal.close();
+        server.close();
+        server = new CheckoutHttpServer(CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .journal(journal).build(), new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        String request = "{\"toolCode\":\"LADW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discountPercent\":10}";
+
+        Response response = send("POST", "/checkout", request);
+        assertEquals(500, response.status);
+        assertEquals("{\"error\":\"Internal server error.\"}", response.body);
+        // A batch reports failures line by line.
+        response = send("POST", "/checkout/batch", request + "\n");
+        assertEquals(200, response.status);
+        assertTrue(response.body.startsWith("{\"error\":"), response.body);
+        assertEquals(200, send("GET", "/quote?toolCode=LADW&checkoutDate=2020-07-02&rentalDays=3&discountPercent=10", null).status);
+    }
+
+    @Test
+    public void testQuote_ReadsQueryParameters() throws IOException {
+        Response response = send("GET", "/quote?toolCode=ladw&checkoutDate=2020-07-02&rentalDays=3&discountPercent=10", null);
+        assertEquals(200, response.status);
+        assertEquals(LADW_AGREEMENT.replace("\"LADW\"", "\"ladw\""), response.body);
+
+        response = send("GET", "/quote?toolCode=LADW&checkoutDate=07%2F02%2F20&rentalDays=3&discountPercent=10", null);
+        assertEquals(400, response.status);
+        assertEquals("{\"error\":\"Checkout date must be yyyy-MM-dd.\"}", response.body);
+        assertEquals(400, send("GET", "/quote?toolCode=LADW", null).status);
+    }
+
+    @Test
+    public void testCheckout_FromManyClientsAtOnce_SucceedsForEveryRequest() throws Exception {
+        String body = "{\"toolCode\":\"JAKR\",\"checkoutDate\":\"2015-07-02\",\"rentalDays\":9,\"discountPercent\":0}";
+        String expected = send("POST", "/checkout", body).body;
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(clients.submit(() -> send("POST", "/checkout", body)));
+            }
+            for (Future<Response> future : futures) {
+                Response response = future.get();
+                assertEquals(200, response.status);
+                assertEquals(expected, response.body);
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private Response send(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[4096];
+                for (int read; (read = stream.read(buffer)) > 0; ) {
+                    bytes.write(buffer, 0, read);
+                }
+            }
+        }
+        return new Response(status, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
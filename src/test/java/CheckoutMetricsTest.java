@@ -0,0 +1,137 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.constants.ToolBrand;
+import toolrental.loader.ToolLoader;
+import toolrental.metrics.CheckoutMetrics;
+import toolrental.metrics.CheckoutMetricsSnapshot;
+import toolrental.metrics.LatencyHistogram;
+import toolrental.metrics.LatencySnapshot;
+import toolrental.service.CheckoutErrorCode;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+
+import java.time.LocalDate;
+
+public class CheckoutMetricsTest {
+
+    @Test
+    public void testCheckout_WithMetrics_CountsByTypeBrandAndFailureReason() {
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        CheckoutService service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools())).metrics(metrics).build();
+        LocalDate checkoutDate = LocalDate.of(2020, 7, 2);
+
+        service.checkout("LADW", 3, 10, checkoutDate);
+        service.checkout("JAKD", 3, 10, checkoutDate);
+        service.checkout("JAKR", 3, 10, checkoutDate);
+        assertThrows(IllegalArgumentException.class, () -> service.checkout("JAKR", 0, 10, checkoutDate));
+        assertThrows(IllegalArgumentException.class, () -> service.checkout("JAKR", 3, 101, checkoutDate));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> service.checkout("NONE", 3, 10, checkoutDate));
+        assertEquals("Invalid tool code.", exception.getMessage());
+
+        CheckoutMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.getTotalCheckouts());
+        assertEquals(1, snapshot.getCheckouts(ToolType.LADDER));
+        assertEquals(2, snapshot.getCheckouts(ToolType.JACKHAMMER));
+        assertEquals(0, snapshot.getCheckouts(ToolType.CHAINSAW));
+        assertEquals(1, snapshot.getCheckouts(ToolBrand.RIDGID));
+        assertEquals(1, snapshot.getFailures(CheckoutErrorCode.INVALID_RENTAL_DAYS));
+        assertEquals(1, snapshot.getFailures(CheckoutErrorCode.INVALID_DISCOUNT_PERCENT));
+        assertEquals(1, snapshot.getFailures(CheckoutErrorCode.INVALID_TOOL_CODE));
+        assertEquals(3, snapshot.getCheckoutLatency().getCount());
+        assertEquals(3, snapshot.getFailureLatency().getCount());
+    }
+
+    @Test
+    public void testCheckout_WithoutMetrics_HasNoMetrics() {
+        assertNull(new CheckoutService(new ToolCatalog(ToolLoader.loadTools())).getMetrics());
+    }
+
+    @Test
+    public void testLatencyHistogram_PercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000, snapshot.getMaxNanos());
+        assertEquals(50_000.5, snapshot.getMeanNanos());
+        assertWithin(50_000, snapshot.getPercentileNanos(50));
+        assertWithin(99_000, snapshot.getPercentileNanos(99));
+        assertEquals(100_000, snapshot.getPercentileNanos(100));
+        assertEquals(1, snapshot.getPercentileNanos(0));
+        assertEquals(0, new LatencyHistogram().snapshot().getPercentileNanos(99));
+    }
+
+    @Test
+    public void testSnapshot_ExportsTextAndJson() {
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        metrics.recordCheckout(ToolType.CHAINSAW, ToolBrand.STIHL, 1_000);
+        metrics.recordFailure(CheckoutErrorCode.INVALID_TOOL_CODE, 200);
+        CheckoutMetricsSnapshot snapshot = metrics.snapshot();
+
+        String text = snapshot.toText();
+        assertTrue(text.contains("checkout_total{tool_type=\"CHAINSAW\"} 1\n"));
+        assertTrue(text.contains("checkout_brand_total{tool_brand=\"WERNER\"} 0\n"));
+        assertTrue(text.contains("checkout_failure_total{reason=\"INVALID_TOOL_CODE\"} 1\n"));
+        assertTrue(text.contains("checkout_latency_seconds_count 1\n"));
+
+        assertEquals("{\"checkoutsByToolType\":{\"LADDER\":0,\"CHAINSAW\":1,\"JACKHAMMER\":0},"
+                + "\"checkoutsByBrand\":{\"STIHL\":1,\"WERNER\":0,\"DEWALT\":0,\"RIDGID\":0},"
+                + "\"failuresByReason\":{\"INVALID_RENTAL_DAYS\":0,\"INVALID_DISCOUNT_PERCENT\":0,\"INVALID_TOOL_CODE\":1,\"NO_UNIT_AVAILABLE\":0},"
+                + "\"checkoutLatency\":{\"count\":1,\"meanNanos\":1000,\"maxNanos\":1000,\"p50Nanos\":1000,\"p90Nanos\":1000,"
+                + "\"p99Nanos\":1000,\"p999Nanos\":1000},"
+                + "\"failureLatency\":{\"count\":1,\"meanNanos\":200,\"maxNanos\":200,\"p50Nanos\":200,\"p90Nanos\":200,"
+                + "\"p99Nanos\":200,\"p999Nanos\":200}}", snapshot.toJson());
+    }
+
+    @Test
+    public void testCheckout_WithSampledLatency_CountsEveryCheckoutButTimesSome() {
+        CheckoutMetrics metrics = new CheckoutMetrics(100);
+        CheckoutService service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools())).metrics(metrics).build();
+        for (int i = 0; i < 10_000; i++) {
+            service.tryCheckout(i % 2 == 0 ? "LADW" : "NONE", 3, 10, LocalDate.of(2020, 7, 2));
+        }
+
+        CheckoutMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(5_000, snapshot.getTotalCheckouts());
+        assertEquals(5_000, snapshot.getFailures(CheckoutErrorCode.INVALID_TOOL_CODE));
+        assertTrue(snapshot.getCheckoutLatency().getCount() > 10 && snapshot.getCheckoutLatency().getCount() < 150);
+        assertTrue(snapshot.getFailureLatency().getCount() > 10 && snapshot.getFailureLatency().getCount() < 150);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new CheckoutMetrics(0));
+        assertEquals("Latency sample interval must be 1 or greater.", exception.getMessage());
+    }
+
+    @Test
+    public void testLatencyHistogram_FromManyThreads_AddsUpEveryStripe() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = t * 1_000L;
+            threads[t] = new Thread(() -> {
+                for (long nanos = 1; nanos <= 10_000; nanos++) {
+                    histogram.record(offset + nanos);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(80_000, snapshot.getCount());
+        assertEquals(17_000, snapshot.getMaxNanos());
+        assertEquals(8_500.5, snapshot.getMeanNanos());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 16, "expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.service.PricingMode;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+
+public class ExactCentsPricingTest {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    private static CheckoutService floatingPointService;
+    private static CheckoutService exactCentsService;
+
+    @BeforeAll
+    public static void setup() {
+        ToolCatalog catalog = new ToolCatalog(ToolLoader.loadTools());
+        floatingPointService = new CheckoutService(catalog, PrecomputedHolidayCalendar.standard(), PricingMode.FLOATING_POINT);
+        exactCentsService = new CheckoutService(catalog, PrecomputedHolidayCalendar.standard(), PricingMode.EXACT_CENTS);
+    }
+
+    @Test
+    public void testCheckout_WithExactCents_RequiredTestCases() {
+        assertCents("LADW", 3, 10, LocalDate.of(2020, 7, 2), 199, 2, 398, 40, 358);
+        assertCents("CHNS", 5, 25, LocalDate.of(2015, 7, 2), 149, 3, 447, 112, 335);
+        assertCents("JAKD", 6, 0, LocalDate.of(2015, 9, 3), 299, 3, 897, 0, 897);
+        assertCents("JAKR", 9, 0, LocalDate.of(2015, 7, 2), 299, 5, 1495, 0, 1495);
+        // Half of $2.99 rounds up to $1.50; in floating point 1.495 is stored just below the midpoint.
+        assertCents("JAKR", 4, 50, LocalDate.of(2020, 7, 2), 299, 1, 299, 150, 149);
+    }
+
+    @Test
+    public void testCheckout_WithExactCents_MatchesFloatingPointWithinRounding() {
+        for (int i = 0; i < 20_000; i++) {
+            String toolCode = TOOL_CODES[i % TOOL_CODES.length];
+            int rentalDays = 1 + i % 97;
+            int discountPercent = i % 101;
+            LocalDate checkoutDate = LocalDate.of(2015, 1, 1).plusDays(i % 1500);
+
+            RentalAgreement floating = floatingPointService.checkout(toolCode, rentalDays, discountPercent, checkoutDate);
+            RentalAgreement exact = exactCentsService.checkout(toolCode, rentalDays, discountPercent, checkoutDate);
+
+            assertEquals(floating.getChargeDays(), exact.getChargeDays());
+            assertEquals(floating.getDailyRentalChargeCents(), exact.getDailyRentalChargeCents());
+            assertEquals(floating.getPreDiscountChargeCents(), exact.getPreDiscountChargeCents());
+            assertTrue(Math.abs(floating.getDiscountAmountCents() - exact.getDiscountAmountCents()) <= 1);
+            assertTrue(Math.abs(floating.getFinalChargeCents() - exact.getFinalChargeCents()) <= 1);
+            assertEquals(exact.getPreDiscountChargeCents(), exact.getDiscountAmountCents() + exact.getFinalChargeCents());
+            assertEquals(exact.getFinalChargeCents() / 100.0, exact.getFinalCharge());
+        }
+    }
+
+    private static void assertCents(String toolCode, int rentalDays, int discountPercent, LocalDate checkoutDate,
+                                    long dailyRentalChargeCents, int chargeDays, long preDiscountChargeCents,
+                                    long discountAmountCents, long finalChargeCents) {
+        RentalAgreement agreement = exactCentsService.checkout(toolCode, rentalDays, discountPercent, checkoutDate);
+
+        assertEquals(dailyRentalChargeCents, agreement.getDailyRentalChargeCents());
+        assertEquals(chargeDays, agreement.getChargeDays());
+        assertEquals(preDiscountChargeCents, agreement.getPreDiscountChargeCents());
+        assertEquals(discountAmountCents, agreement.getDiscountAmountCents());
+        assertEquals(finalChargeCents, agreement.getFinalChargeCents());
+        assertEquals(finalChargeCents / 100.0, agreement.getFinalCharge(), 0.001);
+    }
+}
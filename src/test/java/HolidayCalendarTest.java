@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.holiday.HolidayRule;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.loader.HolidayRuleLoader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HolidayCalendarTest {
+
+    @Test
+    public void testStandardCalendar_ObservesIndependenceDayOnClosestWeekday() {
+        PrecomputedHolidayCalendar calendar = PrecomputedHolidayCalendar.standard();
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2015, 7, 3)));  // July 4th 2015 is a Saturday
+        assertFalse(calendar.isHoliday(LocalDate.of(2015, 7, 4)));
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 7, 5)));  // July 4th 2021 is a Sunday
+        assertTrue(calendar.isHoliday(LocalDate.of(2020, 9, 7)));
+        assertFalse(calendar.isHoliday(LocalDate.of(2020, 9, 14)));
+    }
+
+    @Test
+    public void testLoadedRules_CountHolidaysLikeADayByDayScan() throws IOException {
+        List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+        rules.addAll(HolidayRuleLoader.loadRules(new StringReader(
+                "new-years-day = fixed JANUARY 1 observed\n"
+                        + "christmas = fixed DECEMBER 25\n"
+                        + "memorial-day = nth MAY MONDAY last\n"
+                        + "thanksgiving = nth NOVEMBER THURSDAY 4\n")));
+        PrecomputedHolidayCalendar calendar = new PrecomputedHolidayCalendar(rules);
+
+        // January 1st 2022 is a Saturday, so it is observed on Friday, December 31st 2021.
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 12, 31)));
+        assertTrue(calendar.isHoliday(LocalDate.of(2022, 11, 24)));
+        assertTrue(calendar.isHoliday(LocalDate.of(2022, 5, 30)));
+
+        long first = LocalDate.of(1895, 3, 1).toEpochDay();
+        long last = LocalDate.of(2305, 3, 1).toEpochDay();
+        int holidays = 0;
+        int weekendHolidays = 0;
+        for (long day = first; day <= last; day++) {
+            if (calendar.isHoliday(day)) {
+                holidays++;
+                DayOfWeek dayOfWeek = LocalDate.ofEpochDay(day).getDayOfWeek();
+                if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                    weekendHolidays++;
+                }
+            }
+            if (day % 997 == 0) {
+                assertEquals(holidays, calendar.countHolidays(first, day));
+                assertEquals(weekendHolidays, calendar.countWeekendHolidays(first, day));
+            }
+        }
+        assertEquals(holidays, calendar.countHolidays(first, last));
+        assertEquals(0, calendar.countHolidays(last, first));
+    }
+
+    @Test
+    public void testCount_OverMillionsOfDays_CountsWholeCyclesWithoutVisitingEachYear() {
+        PrecomputedHolidayCalendar calendar = PrecomputedHolidayCalendar.standard();
+        long daysPerCycle = LocalDate.of(2400, 1, 1).toEpochDay() - LocalDate.of(2000, 1, 1).toEpochDay();
+        long first = LocalDate.of(2015, 7, 2).toEpochDay();
+        long last = first + 1_999_999_999L;
+        long wholeCycles = (last - first + 1) / daysPerCycle;
+
+        // Two holidays a year, and the dates after the whole cycles fall on the same days as those after July 2nd 2015.
+        int expected = (int) (wholeCycles * 800) + calendar.countHolidays(first, first + (last - first) % daysPerCycle);
+        assertEquals(expected, calendar.countHolidays(first, last));
+        assertEquals(5000 * 800, calendar.countHolidays(first - daysPerCycle * 5000, first - 1));
+        assertTrue(calendar.isHoliday(LocalDate.of(1_002_015, 7, 3)));
+        assertTrue(calendar.isHoliday(LocalDate.of(-1985, 9, 7)));  // Labor Day, as in 2015
+        assertFalse(calendar.isHoliday(LocalDate.of(-1985, 9, 8)));
+    }
+
+    @Test
+    public void testLoadRules_WithUnknownRuleType_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                HolidayRuleLoader.loadRules(new StringReader("groundhog-day = sometimes FEBRUARY 2\n")));
+        assertEquals("Invalid holiday rule for groundhog-day: sometimes FEBRUARY 2", exception.getMessage());
+    }
+}
@@ -0,0 +1,155 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.inventory.Inventory;
+import toolrental.inventory.Reservation;
+import toolrental.loader.ToolLoader;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class InventoryTest {
+    private static final LocalDate DAY_0 = LocalDate.of(2020, 1, 1);
+
+    @Test
+    public void testReserve_UsesHalfOpenPeriodsPerUnit() {
+        Inventory inventory = new Inventory();
+        inventory.addUnits("LADW", 2);
+
+        Reservation first = inventory.reserve("LADW", DAY_0, DAY_0.plusDays(5));
+        Reservation second = inventory.reserve("ladw", DAY_0.plusDays(2), DAY_0.plusDays(4));
+        assertNotNull(first);
+        assertNotNull(second);
+        assertTrue(first.getUnit() != second.getUnit());
+        assertNull(inventory.reserve("LADW", DAY_0.plusDays(3), DAY_0.plusDays(6)));
+        assertFalse(inventory.isAvailable("LADW", DAY_0.plusDays(3), DAY_0.plusDays(6)));
+
+        // The first unit is back on day 5 and the second on day 4.
+        assertTrue(inventory.isAvailable("LADW", DAY_0.plusDays(4), DAY_0.plusDays(9)));
+        assertNotNull(inventory.reserve("LADW", DAY_0.plusDays(5), DAY_0.plusDays(9)));
+        assertNotNull(inventory.reserve("LADW", DAY_0.minusDays(2), DAY_0));
+
+        assertTrue(inventory.release(second));
+        assertFalse(inventory.release(second));
+        assertTrue(inventory.isAvailable("LADW", DAY_0.plusDays(3), DAY_0.plusDays(4)));
+        assertFalse(inventory.isAvailable("CHNS", DAY_0, DAY_0.plusDays(1)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                inventory.reserve("LADW", DAY_0, DAY_0));
+        assertEquals("Reservation end date must be after the start date.", exception.getMessage());
+    }
+
+    @Test
+    public void testAddUnits_MatchesToolCodesLikeTheCatalog() {
+        Inventory inventory = new Inventory();
+        inventory.addUnits("MA\u00DF", 1);
+        inventory.addUnits("\u0131X", 1);
+
+        // The catalog folds one char at a time, so sharp s does not become "SS" and dotless i matches I.
+        assertEquals(1, inventory.getUnitCount("ma\u00DF"));
+        assertEquals(0, inventory.getUnitCount("MASS"));
+        assertEquals(1, inventory.getUnitCount("ix"));
+        assertEquals(ToolCatalog.foldCase("\u0131X"), ToolCatalog.foldCase("Ix"));
+        assertNotNull(inventory.reserve("Ix", DAY_0, DAY_0.plusDays(1)));
+    }
+
+    @Test
+    public void testCheckout_WithInventory_RejectsDoubleBooking() {
+        Inventory inventory = new Inventory();
+        inventory.addUnits("JAKR", 1);
+        CheckoutService service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .inventory(inventory).build();
+
+        service.checkout("jakr", 5, 0, DAY_0);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                service.checkout("JAKR", 2, 0, DAY_0.plusDays(4)));
+        assertEquals("No unit of the tool is available for the rental period.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> service.checkout("JAKD", 2, 0, DAY_0));
+
+        service.checkout("JAKR", 2, 0, DAY_0.plusDays(5));
+        assertTrue(inventory.release("JAKR", DAY_0, DAY_0.plusDays(5)));
+        service.checkout("JAKR", 2, 0, DAY_0.plusDays(1));
+    }
+
+    @Test
+    public void testReserve_UnderConcurrentLoad_NeverDoubleBooks() throws Exception {
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR"};
+        int units = 3;
+        int threads = 8;
+        int attemptsPerThread = 20_000;
+        Inventory inventory = new Inventory();
+        for (String toolCode : toolCodes) {
+            inventory.addUnits(toolCode, units);
+        }
+
+        ConcurrentLinkedQueue<Reservation> held = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                List<Reservation> mine = new ArrayList<>();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    String toolCode = toolCodes[random.nextInt(toolCodes.length)];
+                    LocalDate from = DAY_0.plusDays(random.nextInt(365));
+                    Reservation reservation = inventory.reserve(toolCode, from, from.plusDays(1 + random.nextInt(10)));
+                    if (reservation != null) {
+                        mine.add(reservation);
+                    }
+                    if (!mine.isEmpty() && random.nextInt(4) == 0) {
+                        assertTrue(inventory.release(mine.remove(random.nextInt(mine.size()))));
+                    }
+                }
+                held.addAll(mine);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Replay every reservation still held onto a day-by-day occupancy grid per unit.
+        int[][][] occupancy = new int[toolCodes.length][units][400];
+        for (Reservation reservation : held) {
+            int tool = indexOf(toolCodes, reservation.getToolCode());
+            long first = reservation.getStartDate().toEpochDay() - DAY_0.toEpochDay();
+            long last = reservation.getEndDate().toEpochDay() - DAY_0.toEpochDay();
+            for (long day = first; day < last; day++) {
+                assertEquals(0, occupancy[tool][reservation.getUnit()][(int) day]++, "unit booked twice");
+            }
+        }
+        assertTrue(held.size() > 100);
+        for (Reservation reservation : held) {
+            assertTrue(inventory.release(reservation));
+        }
+        assertTrue(inventory.isAvailable("LADW", DAY_0, DAY_0.plusDays(399)));
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(value);
+    }
+}
@@ -0,0 +1,196 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import toolrental.inventory.Inventory;
+import toolrental.journal.AgreementJournal;
+import toolrental.journal.DurabilityMode;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.AgreementEncoder;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class JournalTest {
+    private static final String[] CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    @TempDir
+    Path tempDir;
+
+    private final CheckoutService service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+
+    @Test
+    public void testAppendAndReplay_RoundTripsAgreements() throws Exception {
+        Path file = tempDir.resolve("agreements.journal");
+        List<String> written = new ArrayList<>();
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.DATA_SYNC)) {
+            for (int i = 0; i < 100; i++) {
+                RentalAgreement agreement = agreement(i);
+                assertEquals(i, journal.append(agreement));
+                written.add(json(agreement));
+            }
+            assertEquals(100, journal.getRecordCount());
+            assertEquals(100, journal.getCommitCount());
+        }
+
+        List<String> replayed = new ArrayList<>();
+        assertEquals(100, AgreementJournal.replay(file, agreement -> replayed.add(json(agreement))));
+        assertEquals(written, replayed);
+
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+            assertEquals(100, journal.getRecoveredRecords());
+            assertEquals(100, journal.append(agreement(100)));
+            journal.close();
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> journal.append(agreement(101)));
+            assertEquals("Journal is closed.", exception.getMessage());
+        }
+        assertEquals(101, AgreementJournal.replay(file, agreement -> { }));
+    }
+
+    @Test
+    public void testOpen_TruncatesTornTail() throws Exception {
+        Path file = tempDir.resolve("torn.journal");
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(agreement(i));
+            }
+        }
+        long intactSize = Files.size(file);
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+            journal.append(agreement(10));
+        }
+        long lastRecordSize = Files.size(file) - intactSize;
+
+        // A crash part-way through the last write leaves only some of its bytes.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(intactSize + lastRecordSize / 2);
+        }
+        assertEquals(10, AgreementJournal.replay(file, agreement -> { }));
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+            assertEquals(10, journal.getRecoveredRecords());
+            assertEquals(intactSize, Files.size(file));
+            journal.append(agreement(11));
+        }
+
+        // A flipped byte in the payload fails the checksum, and everything from that record on is dropped.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, intactSize + 12);
+            b.put(0, (byte) ~b.get(0));
+            b.rewind();
+            channel.write(b, intactSize + 12);
+        }
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+            assertEquals(10, journal.getRecoveredRecords());
+        }
+
+        Path notJournal = Files.write(tempDir.resolve("other.bin"), new byte[16]);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                AgreementJournal.open(notJournal, DurabilityMode.OS_BUFFERED));
+        assertEquals("Not an agreement journal: " + notJournal, exception.getMessage());
+    }
+
+    @Test
+    public void testAppend_GroupsConcurrentWritersIntoFewCommits() throws Exception {
+        Path file = tempDir.resolve("concurrent.journal");
+        int threads = 16;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.DATA_SYNC)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(agreement(seed * perThread + i));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(threads * perThread, journal.getRecordCount());
+            assertTrue(journal.getCommitCount() < journal.getRecordCount());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * perThread, AgreementJournal.replay(file, agreement -> { }));
+    }
+
+    @Test
+    public void testCheckout_WithJournal_AppendsEveryAgreement() throws Exception {
+        Path file = tempDir.resolve("service.journal");
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+            CheckoutService journaled = CheckoutService.builder().toolCatalog(service.getToolCatalog()).journal(journal).build();
+            RentalAgreement agreement = journaled.checkout("JAKR", 9, 0, LocalDate.of(2015, 7, 2));
+            assertThrows(IllegalArgumentException.class, () -> journaled.checkout("JAKR", 0, 0, LocalDate.of(2015, 7, 2)));
+            assertEquals(1, journal.getRecordCount());
+
+            List<String> replayed = new ArrayList<>();
+            AgreementJournal.replay(file, a -> replayed.add(json(a)));
+            assertEquals(1, replayed.size());
+            assertEquals(json(agreement), replayed.get(0));
+        }
+    }
+
+    @Test
+    public void testCheckout_WhenTheJournalIsClosed_ReleasesTheReservedUnit() throws Exception {
+        Inventory inventory = new Inventory();
+        inventory.addUnits("JAKR", 1);
+        AgreementJournal journal = AgreementJournal.open(tempDir.resolve("closed.journal"), DurabilityMode.OS_BUFFERED);
+        CheckoutService journaled = CheckoutService.builder().toolCatalog(service.getToolCatalog()).inventory(inventory)
+                .journal(journal).build();
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journaled.checkout("JAKR", 5, 0, LocalDate.of(2015, 7, 2)));
+        assertTrue(inventory.isAvailable("JAKR", LocalDate.of(2015, 7, 2), LocalDate.of(2015, 7, 7)));
+    }
+
+    @Test
+    public void testReplay_ScansManyAgreements() throws Exception {
+        Path file = tempDir.resolve("large.journal");
+        int count = 50_000;
+        RentalAgreement[] samples = new RentalAgreement[64];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = agreement(i);
+        }
+        try (AgreementJournal journal = AgreementJournal.open(file, DurabilityMode.OS_BUFFERED)) {
+            for (int i = 0; i < count; i++) {
+                journal.append(samples[i & 63]);
+            }
+        }
+
+        long[] finalCents = new long[1];
+        long replayed = AgreementJournal.replay(file, agreement -> finalCents[0] += agreement.getFinalChargeCents());
+
+        long expected = 0;
+        for (int i = 0; i < count; i++) {
+            expected += samples[i & 63].getFinalChargeCents();
+        }
+        assertEquals(count, replayed);
+        assertEquals(expected, finalCents[0]);
+    }
+
+    private RentalAgreement agreement(int i) {
+        return service.quote(CODES[i % CODES.length], 1 + i % 20, i % 101, LocalDate.of(2015, 1, 1).plusDays(i % 700));
+    }
+
+    private static String json(RentalAgreement agreement) {
+        return AgreementEncoder.appendJson(agreement, new StringBuilder()).toString();
+    }
+}
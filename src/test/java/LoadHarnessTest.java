@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.loader.ToolLoader;
+import toolrental.loadtest.LoadHarness;
+import toolrental.loadtest.LoadReport;
+import toolrental.loadtest.WorkloadGenerator;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LoadHarnessTest {
+    private static final List<String> TOOL_CODES = Arrays.asList("LADW", "JAKR", "CHNS", "JAKD");
+    private static final ToolCatalog CATALOG = new ToolCatalog(ToolLoader.loadTools());
+
+    @Test
+    public void testGenerate_IsDeterministicFromTheSeed() {
+        List<CheckoutRequest> first = WorkloadGenerator.builder().seed(42).toolCodes(TOOL_CODES).build().generate(1000);
+        List<CheckoutRequest> second = WorkloadGenerator.builder().seed(42).toolCodes(TOOL_CODES).build().generate(1000);
+        List<CheckoutRequest> other = WorkloadGenerator.builder().seed(43).toolCodes(TOOL_CODES).build().generate(1000);
+        assertEquals(describe(first), describe(second));
+        assertNotEquals(describe(first), describe(other));
+    }
+
+    @Test
+    public void testGenerate_ShapesToolCodesDatesAndLengths() {
+        List<CheckoutRequest> requests = WorkloadGenerator.builder().seed(7).toolCodes(TOOL_CODES).invalidShare(0.0)
+                .maxRentalDays(90).build().generate(100_000);
+        int[] byToolCode = new int[TOOL_CODES.size()];
+        int nearHolidays = 0;
+        int shortRentals = 0;
+        int longRentals = 0;
+        for (CheckoutRequest request : requests) {
+            byToolCode[TOOL_CODES.indexOf(request.getToolCode())]++;
+            LocalDate date = request.getCheckoutDate();
+            if (date.getMonth() == Month.JULY && date.getDayOfMonth() <= 11 || date.getMonth() == Month.SEPTEMBER && date.getDayOfMonth() <= 14
+                    || date.getMonth() == Month.JUNE && date.getDayOfMonth() >= 27 || date.getMonth() == Month.AUGUST && date.getDayOfMonth() >= 25) {
+                nearHolidays++;
+            }
+            assertTrue(request.getRentalDays() >= 1 && request.getRentalDays() <= 90);
+            shortRentals += request.getRentalDays() <= 3 ? 1 : 0;
+            longRentals += request.getRentalDays() >= 30 ? 1 : 0;
+        }
+
+        // Zipf with exponent 1 over four codes: 48%, 24%, 16% and 12%.
+        assertEquals(0.48, byToolCode[0] / 100_000.0, 0.01);
+        assertEquals(0.12, byToolCode[3] / 100_000.0, 0.01);
+        // The holiday windows are about 10% of the year but get 30% of checkouts on top of their share of the rest.
+        assertTrue(nearHolidays > 35_000, "Checkouts near holidays: " + nearHolidays);
+        assertTrue(shortRentals > 75_000, "Rentals of three days or less: " + shortRentals);
+        assertTrue(longRentals > 100 && longRentals < 2000, "Rentals of 30 days or more: " + longRentals);
+    }
+
+    @Test
+    public void testRun_CountsRejectionsAndIsReproducible() throws InterruptedException {
+        List<CheckoutRequest> requests = WorkloadGenerator.builder().seed(11).toolCodes(TOOL_CODES).invalidShare(0.1).build()
+                .generate(20_000);
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).build();
+        LoadReport first = new LoadHarness(service, 4).run(requests, 0);
+        LoadReport second = new LoadHarness(service, 2).run(requests, 0);
+
+        assertEquals(20_000, first.getRequests());
+        assertEquals(20_000, first.getLatency().getCount());
+        assertEquals(0.1, first.getRejected() / 20_000.0, 0.01);
+        assertEquals(first.getSucceeded(), second.getSucceeded());
+        assertEquals(first.getFinalChargeCents(), second.getFinalChargeCents());
+    }
+
+    @Test
+    public void testRun_PacesRequestsAtTheTargetRate() throws InterruptedException {
+        List<CheckoutRequest> requests = WorkloadGenerator.builder().seed(3).toolCodes(TOOL_CODES).build().generate(2000);
+        LoadReport report = new LoadHarness(CheckoutService.builder().toolCatalog(CATALOG).build(), 2).run(requests, 10_000);
+        // 2000 requests due 100us apart take about 200 ms however fast the service is.
+        assertTrue(report.getElapsedNanos() >= 190_000_000L, report.toString());
+        assertThrows(IllegalArgumentException.class, () -> new LoadHarness(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LoadHarness(CheckoutService.builder().toolCatalog(CATALOG).build(), 1).run(Collections.emptyList(), -1));
+    }
+
+    @Test
+    public void testRun_ReportsThroughputLatencyAndAllocation() throws InterruptedException {
+        List<CheckoutRequest> requests = WorkloadGenerator.builder().seed(2024).toolCodes(TOOL_CODES).build().generate(10_000);
+        LoadReport report = new LoadHarness(CheckoutService.builder().toolCatalog(CATALOG).build(), 2).run(requests, 0);
+
+        assertEquals(2, report.getThreads());
+        assertEquals(10_000, report.getLatency().getCount());
+        assertTrue(report.getElapsedNanos() > 0);
+        assertEquals(10_000 * 1e9 / report.getElapsedNanos(), report.getRequestsPerSecond(), 1e-6);
+        assertTrue(report.getLatency().getPercentileNanos(50) <= report.getLatency().getPercentileNanos(99));
+        assertTrue(report.getLatency().getPercentileNanos(99) <= report.getLatency().getMaxNanos());
+        // Every checkout allocates at least its agreement, unless the JVM cannot measure allocation at all.
+        assertTrue(report.getAllocatedBytes() == -1 || report.getAllocatedBytesPerRequest() > 50, report.toString());
+        assertTrue(report.toString().startsWith("10000 requests (" + report.getSucceeded() + " succeeded, "), report.toString());
+    }
+
+    private static String describe(List<CheckoutRequest> requests) {
+        StringBuilder out = new StringBuilder();
+        for (CheckoutRequest request : requests) {
+            out.append(request.getToolCode()).append(',').append(request.getCheckoutDate()).append(',')
+                    .append(request.getRentalDays()).append(',').append(request.getDiscountPercent()).append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,239 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.constants.ToolBrand;
+import toolrental.holiday.FixedDateHolidayRule;
+import toolrental.holiday.HolidayRule;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.loader.ToolLoader;
+import toolrental.loadtest.WorkloadGenerator;
+import toolrental.pricing.PricingRule;
+import toolrental.pricing.PricingRules;
+import toolrental.pricing.PricingTable;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutRequest;
+import toolrental.service.CheckoutService;
+import toolrental.service.OpenRentalIndex;
+import toolrental.service.PricingMode;
+import toolrental.service.RepricedAgreement;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class OpenRentalIndexTest {
+    private static final List<String> TOOL_CODES = Arrays.asList("LADW", "JAKR", "CHNS", "JAKD");
+    private static final ToolCatalog CATALOG = new ToolCatalog(ToolLoader.loadTools());
+    private static final LocalDate FIRST_DATE = LocalDate.of(2014, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(2026, 12, 31);
+
+    @Test
+    public void testRepriceHolidays_MatchesAFreshQuoteForEveryRental() {
+        for (PricingMode mode : PricingMode.values()) {
+            PrecomputedHolidayCalendar calendar = PrecomputedHolidayCalendar.standard();
+            CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).holidayCalendar(calendar).pricingMode(mode).build();
+            OpenRentalIndex index = new OpenRentalIndex(service);
+            int[] handles = checkOut(service, index, 50_000, 1);
+
+            List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+            rules.add(new FixedDateHolidayRule("Christmas Day", MonthDay.of(Month.DECEMBER, 25), true));
+            rules.add(new FixedDateHolidayRule("Store Anniversary", MonthDay.of(Month.JULY, 6), false));
+            PrecomputedHolidayCalendar previous = new PrecomputedHolidayCalendar(calendar.getRules());
+            List<LocalDate> changed = OpenRentalIndex.changedHolidays(previous, new PrecomputedHolidayCalendar(rules), FIRST_DATE, LAST_DATE);
+            RentalAgreement[] before = snapshot(index, handles);
+            calendar.replaceRules(rules);
+
+            List<RepricedAgreement> repriced = new ArrayList<>();
+            assertEquals(index.repriceHolidays(previous, changed, repriced::add), repriced.size());
+            assertMatchesFreshQuotes(service, index, handles, before, repriced);
+            assertTrue(repriced.size() > 1000, "Repriced " + repriced.size());
+        }
+    }
+
+    @Test
+    public void testRepriceHolidays_RemovingAHolidayRestoresTheOriginalPrices() {
+        PrecomputedHolidayCalendar calendar = PrecomputedHolidayCalendar.standard();
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).holidayCalendar(calendar).build();
+        OpenRentalIndex index = new OpenRentalIndex(service);
+        int[] handles = checkOut(service, index, 20_000, 2);
+        RentalAgreement[] original = snapshot(index, handles);
+
+        List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+        rules.add(new FixedDateHolidayRule("Christmas Day", MonthDay.of(Month.DECEMBER, 25), true));
+        PrecomputedHolidayCalendar standard = PrecomputedHolidayCalendar.standard();
+        PrecomputedHolidayCalendar withChristmas = new PrecomputedHolidayCalendar(rules);
+        List<LocalDate> changed = OpenRentalIndex.changedHolidays(standard, withChristmas, FIRST_DATE, LAST_DATE);
+        calendar.replaceRules(rules);
+        // Christmas is observed on a weekday, which ladders and jackhammers charge but not as a holiday.
+        int added = index.repriceHolidays(standard, changed, repriced -> assertEquals(-1, repriced.getChargeDayDelta()));
+        calendar.replaceRules(PrecomputedHolidayCalendar.standardRules());
+        assertEquals(added, index.repriceHolidays(withChristmas, changed, repriced -> assertEquals(1, repriced.getChargeDayDelta())));
+
+        for (int i = 0; i < handles.length; i++) {
+            assertEquals(original[i].getChargeDays(), index.get(handles[i]).getChargeDays());
+            assertEquals(original[i].getFinalChargeCents(), index.get(handles[i]).getFinalChargeCents());
+        }
+    }
+
+    @Test
+    public void testRepriceHolidays_IgnoresDatesWhoseStatusDidNotChange() {
+        PrecomputedHolidayCalendar calendar = PrecomputedHolidayCalendar.standard();
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).holidayCalendar(calendar).build();
+        OpenRentalIndex index = new OpenRentalIndex(service);
+        int[] handles = checkOut(service, index, 20_000, 5);
+        RentalAgreement[] before = snapshot(index, handles);
+
+        PrecomputedHolidayCalendar previous = new PrecomputedHolidayCalendar(calendar.getRules());
+        List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+        rules.add(new FixedDateHolidayRule("Christmas Day", MonthDay.of(Month.DECEMBER, 25), true));
+        calendar.replaceRules(rules);
+        // Every date of the range, each listed twice, of which only the observed Christmas Days changed.
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = FIRST_DATE; !date.isAfter(LAST_DATE); date = date.plusDays(1)) {
+            dates.add(date);
+            dates.add(date);
+        }
+
+        List<RepricedAgreement> repriced = new ArrayList<>();
+        assertEquals(index.repriceHolidays(previous, dates, repriced::add), repriced.size());
+        assertMatchesFreshQuotes(service, index, handles, before, repriced);
+        assertTrue(repriced.size() > 50, "Repriced " + repriced.size());
+    }
+
+    @Test
+    public void testRepricePricing_RepricesOnlyToolsWhoseRowChanged() {
+        PricingRules rules = PricingRules.standard();
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).pricingRules(rules).build();
+        OpenRentalIndex index = new OpenRentalIndex(service);
+        int[] handles = checkOut(service, index, 50_000, 3);
+        RentalAgreement[] before = snapshot(index, handles);
+
+        PricingTable previous = rules.getTable();
+        rules.replaceRules(Arrays.asList(
+                PricingRule.builder().toolBrand(ToolBrand.RIDGID).weekendCharge(true).build(),
+                PricingRule.builder().toolCode("LADW").dailyChargeCents(229L).build()));
+        List<RepricedAgreement> repriced = new ArrayList<>();
+        assertEquals(index.repricePricing(previous, repriced::add), repriced.size());
+
+        Set<String> toolCodes = new HashSet<>();
+        for (RepricedAgreement agreement : repriced) {
+            toolCodes.add(agreement.getRepriced().getToolCode());
+        }
+        assertEquals(new HashSet<>(Arrays.asList("JAKR", "LADW")), toolCodes);
+        assertMatchesFreshQuotes(service, index, handles, before, repriced);
+        assertEquals(0, index.repricePricing(rules.getTable(), repriced::add));
+    }
+
+    @Test
+    public void testRemove_DropsTheRentalFromRepricing() {
+        PrecomputedHolidayCalendar calendar = PrecomputedHolidayCalendar.standard();
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).holidayCalendar(calendar).build();
+        OpenRentalIndex index = new OpenRentalIndex(service);
+        // Checked out Monday 2020-12-21, so every rental charges Tuesday through Saturday, including Christmas Day.
+        int ladder = index.add(service.checkout("LADW", 5, 0, LocalDate.of(2020, 12, 21)));
+        int chainsaw = index.add(service.checkout("CHNS", 5, 0, LocalDate.of(2020, 12, 21)));
+        int jackhammer = index.add(service.checkout("JAKD", 5, 0, LocalDate.of(2020, 12, 21)));
+        assertEquals(3, index.size());
+        assertEquals(1, index.size(ToolType.JACKHAMMER));
+        assertTrue(index.remove(ladder));
+        assertFalse(index.remove(ladder));
+        assertNull(index.get(ladder));
+
+        List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+        rules.add(new FixedDateHolidayRule("Christmas Day", MonthDay.of(Month.DECEMBER, 25), true));
+        calendar.replaceRules(rules);
+        List<RepricedAgreement> repriced = new ArrayList<>();
+        assertEquals(1, index.repriceHolidays(PrecomputedHolidayCalendar.standard(),
+                Arrays.asList(LocalDate.of(2020, 12, 25), LocalDate.of(2020, 12, 25)), repriced::add));
+        // Chainsaws charge weekdays and holidays alike; jackhammers do not charge holidays.
+        assertEquals(jackhammer, repriced.get(0).getHandle());
+        assertEquals(-1, repriced.get(0).getChargeDayDelta());
+        assertEquals(-299, repriced.get(0).getFinalChargeDeltaCents());
+        assertEquals(3, index.get(jackhammer).getChargeDays());
+        assertEquals(4, index.get(chainsaw).getChargeDays());
+
+        assertEquals(ladder, index.add(service.checkout("LADW", 1, 0, LocalDate.of(2020, 12, 21))));
+        assertThrows(IllegalArgumentException.class, () -> index.add(new RentalAgreement("XXXX", "Ladder", ToolBrand.WERNER, 1,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 2), 1.99, 1, 1.99, 0, 0, 1.99)));
+    }
+
+    @Test
+    public void testRepriceHolidays_RepricesOnlyTheFewRentalsCoveringTheNewHoliday() {
+        PrecomputedHolidayCalendar calendar = PrecomputedHolidayCalendar.standard();
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).holidayCalendar(calendar).build();
+        OpenRentalIndex index = new OpenRentalIndex(service);
+        int[] handles = checkOut(service, index, 100_000, 4);
+        RentalAgreement[] before = snapshot(index, handles);
+
+        PrecomputedHolidayCalendar previous = new PrecomputedHolidayCalendar(calendar.getRules());
+        List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+        rules.add(new FixedDateHolidayRule("Store Anniversary", MonthDay.of(Month.MARCH, 17), false));
+        List<LocalDate> changed = OpenRentalIndex.changedHolidays(previous, new PrecomputedHolidayCalendar(rules), FIRST_DATE, LAST_DATE);
+        calendar.replaceRules(rules);
+
+        List<RepricedAgreement> repriced = new ArrayList<>();
+        assertEquals(index.repriceHolidays(previous, changed, repriced::add), repriced.size());
+        assertMatchesFreshQuotes(service, index, handles, before, repriced);
+        // One day a year, outside the holiday windows most checkouts fall in, touches well under 1% of the rentals.
+        assertEquals(LAST_DATE.getYear() - FIRST_DATE.getYear() + 1, changed.size());
+        assertTrue(repriced.size() > 0 && repriced.size() < handles.length / 100, "Repriced " + repriced.size());
+    }
+
+    private static int[] checkOut(CheckoutService service, OpenRentalIndex index, int count, long seed) {
+        List<CheckoutRequest> requests = WorkloadGenerator.builder().seed(seed).toolCodes(TOOL_CODES).invalidShare(0.0)
+                .firstYear(2015).lastYear(2025).build().generate(count);
+        int[] handles = new int[count];
+        for (int i = 0; i < count; i++) {
+            CheckoutRequest request = requests.get(i);
+            handles[i] = index.add(service.checkout(request.getToolCode(), request.getRentalDays(), request.getDiscountPercent(),
+                    request.getCheckoutDate()));
+        }
+        return handles;
+    }
+
+    private static RentalAgreement[] snapshot(OpenRentalIndex index, int[] handles) {
+        RentalAgreement[] agreements = new RentalAgreement[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            agreements[i] = index.get(handles[i]);
+        }
+        return agreements;
+    }
+
+    /**
+     * Checks every open rental against a fresh quote, and that exactly the rentals whose quote changed were reported.
+     */
+    private static void assertMatchesFreshQuotes(CheckoutService service, OpenRentalIndex index, int[] handles, RentalAgreement[] before,
+                                                 List<RepricedAgreement> repriced) {
+        Set<Integer> reported = new HashSet<>();
+        for (RepricedAgreement agreement : repriced) {
+            assertTrue(reported.add(agreement.getHandle()));
+            assertEquals(agreement.getRepriced(), index.get(agreement.getHandle()));
+        }
+        int changed = 0;
+        for (int i = 0; i < handles.length; i++) {
+            RentalAgreement open = index.get(handles[i]);
+            RentalAgreement quote = service.quote(open.getToolCode(), open.getRentalDays(), open.getDiscountPercent(), open.getCheckoutDate());
+            assertEquals(quote.getChargeDays(), open.getChargeDays());
+            assertEquals(quote.getDailyRentalChargeCents(), open.getDailyRentalChargeCents());
+            assertEquals(quote.getPreDiscountChargeCents(), open.getPreDiscountChargeCents());
+            assertEquals(quote.getFinalChargeCents(), open.getFinalChargeCents());
+            boolean differs = quote.getChargeDays() != before[i].getChargeDays() || quote.getFinalChargeCents() != before[i].getFinalChargeCents()
+                    || quote.getDailyRentalChargeCents() != before[i].getDailyRentalChargeCents();
+            assertEquals(differs, reported.contains(handles[i]), "Rental " + i);
+            changed += differs ? 1 : 0;
+        }
+        assertEquals(changed, repriced.size());
+    }
+
+}
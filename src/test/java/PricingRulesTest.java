@@ -0,0 +1,204 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.constants.ToolBrand;
+import toolrental.loader.ToolLoader;
+import toolrental.pricing.PricingRule;
+import toolrental.pricing.PricingRules;
+import toolrental.pricing.PricingTable;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.service.QuoteCache;
+import toolrental.service.QuoteMatrix;
+import toolrental.tools.Tool;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+import toolrental.tools.ToolTypePricing;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PricingRulesTest {
+    private static final ToolCatalog CATALOG = new ToolCatalog(ToolLoader.loadTools());
+    private static final Tool JAKD = new Tool("JAKD", ToolType.JACKHAMMER, ToolBrand.DEWALT);
+    private static final Tool JAKR = new Tool("JAKR", ToolType.JACKHAMMER, ToolBrand.RIDGID);
+    private static final Tool LADW = new Tool("LADW", ToolType.LADDER, ToolBrand.WERNER);
+
+    @Test
+    public void testCompile_WithoutRulesMatchesToolTypePricing() {
+        PricingTable table = PricingRules.standard().getTable();
+        ToolTypePricing base = ToolTypePricing.standard();
+        for (Tool tool : ToolLoader.loadTools()) {
+            int row = table.rowOf(tool);
+            assertEquals(base.getDailyChargeCents(tool.getToolType()), table.getDailyChargeCents(row));
+            assertEquals(base.isWeekdayCharge(tool.getToolType()), table.isWeekdayCharge(row));
+            assertEquals(base.isWeekendCharge(tool.getToolType()), table.isWeekendCharge(row));
+            assertEquals(base.isHolidayCharge(tool.getToolType()), table.isHolidayCharge(row));
+        }
+    }
+
+    @Test
+    public void testCompile_ToolCodeOverridesBrandOverridesToolType() {
+        PricingTable table = new PricingRules(ToolTypePricing.standard(), Arrays.asList(
+                PricingRule.builder().toolCode("JAKD").dailyChargeCents(349L).build(),
+                PricingRule.builder().toolBrand(ToolBrand.DEWALT).dailyChargeCents(329L).weekendCharge(true).build(),
+                PricingRule.builder().toolType(ToolType.JACKHAMMER).dailyChargeCents(319L).holidayCharge(true).build())).getTable();
+
+        int jakd = table.rowOf(JAKD);
+        assertEquals(349, table.getDailyChargeCents(jakd));
+        assertTrue(table.isWeekendCharge(jakd));
+        assertTrue(table.isHolidayCharge(jakd));
+
+        int jakr = table.rowOf(JAKR);
+        assertEquals(319, table.getDailyChargeCents(jakr));
+        assertFalse(table.isWeekendCharge(jakr));
+        assertTrue(table.isHolidayCharge(jakr));
+
+        int ladw = table.rowOf(LADW);
+        assertEquals(ToolTypePricing.standard().getDailyChargeCents(ToolType.LADDER), table.getDailyChargeCents(ladw));
+        assertEquals(319, table.getDailyChargeCents(table.rowOf(ToolType.JACKHAMMER)));
+    }
+
+    @Test
+    public void testCompile_LaterRuleWinsWithinTheSameScope() {
+        PricingTable table = new PricingRules(ToolTypePricing.standard(), Arrays.asList(
+                PricingRule.builder().toolBrand(ToolBrand.RIDGID).dailyChargeCents(100L).build(),
+                PricingRule.builder().toolBrand(ToolBrand.RIDGID).dailyChargeCents(200L).build())).getTable();
+        assertEquals(200, table.getDailyChargeCents(table.rowOf(JAKR)));
+    }
+
+    @Test
+    public void testPricingRule_RejectsAmbiguousOrNegativeRules() {
+        assertThrows(IllegalArgumentException.class, () -> PricingRule.builder().dailyChargeCents(100L).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> PricingRule.builder().toolType(ToolType.LADDER).toolCode("LADW").build());
+        assertThrows(IllegalArgumentException.class,
+                () -> PricingRule.builder().toolCode("LADW").dailyChargeCents(-1L).build());
+    }
+
+    @Test
+    public void testLoadPricingRules_ParsesEveryScopeAndBlankFields() throws IOException {
+        List<PricingRule> rules = ToolLoader.loadPricingRules(new StringReader(
+                "match,dailyCharge,weekdayCharge,weekendCharge,holidayCharge\n"
+                        + "toolType=ladder,2.49,,,\n"
+                        + "\n"
+                        + "toolBrand=RIDGID,,,TRUE,\n"
+                        + "toolCode=JAKD,3.49,true,false,false\n"));
+
+        assertEquals(3, rules.size());
+        assertEquals(ToolType.LADDER, rules.get(0).getToolType());
+        assertEquals(Long.valueOf(249), rules.get(0).getDailyChargeCents());
+        assertNull(rules.get(0).getWeekendCharge());
+        assertEquals(ToolBrand.RIDGID, rules.get(1).getToolBrand());
+        assertNull(rules.get(1).getDailyChargeCents());
+        assertEquals(Boolean.TRUE, rules.get(1).getWeekendCharge());
+        assertEquals("JAKD", rules.get(2).getToolCode());
+        assertEquals(Boolean.FALSE, rules.get(2).getHolidayCharge());
+    }
+
+    @Test
+    public void testLoadPricingRules_ReportsTheLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ToolLoader.loadPricingRules(new StringReader("toolType=LADDER,1.99,,,\ncolor=RED,1.99,,,\n")));
+        assertTrue(e.getMessage().startsWith("Invalid pricing rule on line 2"));
+        assertThrows(IllegalArgumentException.class, () -> ToolLoader.loadPricingRules(new StringReader("toolCode=LADW,1.999,,,\n")));
+        assertThrows(IllegalArgumentException.class, () -> ToolLoader.loadPricingRules(new StringReader("toolCode=LADW,1.99,,\n")));
+    }
+
+    @Test
+    public void testReplaceRules_ChangesPricesAndVersion() {
+        PricingRules rules = PricingRules.standard();
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).pricingRules(rules).build();
+        LocalDate date = LocalDate.of(2020, 3, 2); // Monday
+        assertEquals(299, service.checkout("JAKR", 1, 0, date).getPreDiscountChargeCents());
+
+        long version = rules.getVersion();
+        rules.replaceRules(Collections.singletonList(PricingRule.builder().toolCode("JAKR").dailyChargeCents(399L).build()));
+        assertTrue(rules.getVersion() > version);
+        assertEquals(399, service.checkout("JAKR", 1, 0, date).getPreDiscountChargeCents());
+        assertEquals(299, service.checkout("JAKD", 1, 0, date).getPreDiscountChargeCents());
+    }
+
+    @Test
+    public void testReplaceRules_InvalidatesCachedQuotes() {
+        PricingRules rules = PricingRules.standard();
+        QuoteCache cache = new QuoteCache(256);
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).pricingRules(rules).quoteCache(cache).build();
+        LocalDate date = LocalDate.of(2020, 7, 1);
+
+        RentalAgreement before = service.checkout("LADW", 7, 0, date);
+        assertEquals(before.getPreDiscountChargeCents(), service.checkout("LADW", 7, 0, date).getPreDiscountChargeCents());
+        assertEquals(1, cache.getHitCount());
+
+        rules.replaceRules(Collections.singletonList(PricingRule.builder().toolType(ToolType.LADDER).weekendCharge(false).build()));
+        RentalAgreement after = service.checkout("LADW", 7, 0, date);
+        assertEquals(1, cache.getHitCount());
+        assertTrue(after.getChargeDays() < before.getChargeDays());
+        assertEquals(after.getChargeDays() * after.getDailyRentalChargeCents(), after.getPreDiscountChargeCents());
+    }
+
+    @Test
+    public void testQuoteMatrix_AppliesToolCodeRules() {
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).pricingRules(new PricingRules(ToolTypePricing.standard(),
+                Collections.singletonList(PricingRule.builder().toolCode("JAKD").weekendCharge(true).build()))).build();
+        LocalDate date = LocalDate.of(2020, 6, 1);
+        QuoteMatrix jakd = service.quoteMatrix("JAKD", 14, 0, date);
+        QuoteMatrix jakr = service.quoteMatrix("JAKR", 14, 0, date);
+        for (int days = 1; days <= 14; days++) {
+            assertEquals(service.checkout("JAKD", days, 0, date).getChargeDays(), jakd.getChargeDays()[days - 1]);
+        }
+        assertEquals(14, jakd.getChargeDays()[13]);
+        assertEquals(10, jakr.getChargeDays()[13]);
+    }
+
+    @Test
+    public void testReplaceRules_DuringCheckoutsPricesEachAgreementWithOneRuleSet() throws InterruptedException {
+        PricingRules rules = PricingRules.standard();
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).pricingRules(rules).quoteCache(new QuoteCache(1024)).build();
+        List<PricingRule> raised = Collections.singletonList(PricingRule.builder().toolType(ToolType.CHAINSAW)
+                .dailyChargeCents(249L).weekendCharge(true).build());
+        List<PricingRule> original = Collections.emptyList();
+        LocalDate date = LocalDate.of(2020, 6, 1);
+        int standardDays = 10;
+        int raisedDays = 14;
+
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        RentalAgreement agreement = service.checkout("CHNS", 14, 0, date);
+                        long daily = agreement.getDailyRentalChargeCents();
+                        int chargeDays = agreement.getChargeDays();
+                        assertTrue(daily == 149 && chargeDays == standardDays || daily == 249 && chargeDays == raisedDays,
+                                "Mixed rule sets: " + daily + " x " + chargeDays);
+                        assertEquals(daily * chargeDays, agreement.getPreDiscountChargeCents());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            workers[t].start();
+        }
+        for (int i = 0; i < 2000; i++) {
+            rules.replaceRules(i % 2 == 0 ? raised : original);
+        }
+        done.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(failures.isEmpty(), () -> failures.get(0).toString());
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.holiday.FixedDateHolidayRule;
+import toolrental.holiday.HolidayRule;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.service.PricingMode;
+import toolrental.service.QuoteCache;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+
+public class QuoteCacheTest {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    @Test
+    public void testCheckout_WithQuoteCache_MatchesUncachedService() {
+        ToolCatalog catalog = new ToolCatalog(ToolLoader.loadTools());
+        QuoteCache cache = new QuoteCache(256);
+        for (PricingMode pricingMode : PricingMode.values()) {
+            CheckoutService uncached = new CheckoutService(catalog, PrecomputedHolidayCalendar.standard(), pricingMode);
+            CheckoutService cached = CheckoutService.builder().toolCatalog(catalog).pricingMode(pricingMode).quoteCache(cache).build();
+            for (int i = 0; i < 5_000; i++) {
+                String toolCode = TOOL_CODES[i % TOOL_CODES.length];
+                int rentalDays = 1 + i % 7;
+                int discountPercent = i % 101;
+                LocalDate checkoutDate = LocalDate.of(2015, 6, 1).plusDays(i % 30);
+
+                RentalAgreement expected = uncached.checkout(toolCode, rentalDays, discountPercent, checkoutDate);
+                RentalAgreement actual = cached.checkout(toolCode, rentalDays, discountPercent, checkoutDate);
+
+                assertEquals(expected.getChargeDays(), actual.getChargeDays());
+                assertEquals(expected.getPreDiscountCharge(), actual.getPreDiscountCharge());
+                assertEquals(expected.getDiscountAmount(), actual.getDiscountAmount());
+                assertEquals(expected.getFinalCharge(), actual.getFinalCharge());
+            }
+        }
+        assertEquals(10_000, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.getHitCount() > 0);
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testCheckout_RepeatedQuote_HitsCache() {
+        QuoteCache cache = new QuoteCache(16);
+        CheckoutService service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools())).quoteCache(cache).build();
+
+        service.checkout("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        service.checkout("LADW", 3, 50, LocalDate.of(2020, 7, 2));
+        RentalAgreement agreement = service.checkout("LADW", 3, 0, LocalDate.of(2020, 7, 2));
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3.98, agreement.getFinalCharge());
+    }
+
+    @Test
+    public void testCheckout_AfterHolidayRulesChange_RecomputesQuote() {
+        PrecomputedHolidayCalendar calendar = new PrecomputedHolidayCalendar(PrecomputedHolidayCalendar.standardRules());
+        QuoteCache cache = new QuoteCache(16);
+        CheckoutService service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .holidayCalendar(calendar).quoteCache(cache).build();
+        LocalDate checkoutDate = LocalDate.of(2015, 12, 23);
+
+        assertEquals(3, service.checkout("LADW", 3, 0, checkoutDate).getChargeDays());
+
+        List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+        rules.add(new FixedDateHolidayRule("Christmas", MonthDay.of(12, 25), true));
+        calendar.replaceRules(rules);
+
+        assertEquals(2, service.checkout("LADW", 3, 0, checkoutDate).getChargeDays());
+        assertEquals(2, cache.getMissCount());
+
+        cache.invalidateAll();
+        assertEquals(2, service.checkout("LADW", 3, 0, checkoutDate).getChargeDays());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testCheckout_WithCacheSharedAcrossCalendars_KeepsTheirQuotesApart() {
+        List<HolidayRule> rules = new ArrayList<>(PrecomputedHolidayCalendar.standardRules());
+        rules.add(new FixedDateHolidayRule("Christmas", MonthDay.of(12, 25), true));
+        ToolCatalog catalog = new ToolCatalog(ToolLoader.loadTools());
+        QuoteCache cache = new QuoteCache(16);
+        CheckoutService standard = CheckoutService.builder().toolCatalog(catalog)
+                .holidayCalendar(new PrecomputedHolidayCalendar(PrecomputedHolidayCalendar.standardRules())).quoteCache(cache).build();
+        CheckoutService withChristmas = CheckoutService.builder().toolCatalog(catalog)
+                .holidayCalendar(new PrecomputedHolidayCalendar(rules)).quoteCache(cache).build();
+        LocalDate checkoutDate = LocalDate.of(2015, 12, 23);
+
+        assertEquals(3, standard.checkout("LADW", 3, 0, checkoutDate).getChargeDays());
+        assertEquals(2, withChristmas.checkout("LADW", 3, 0, checkoutDate).getChargeDays());
+        assertEquals(3, standard.checkout("LADW", 3, 0, checkoutDate).getChargeDays());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testQuoteCache_WithNonPositiveSize_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new QuoteCache(0));
+        assertEquals("Maximum size must be 1 or greater.", exception.getMessage());
+    }
+}
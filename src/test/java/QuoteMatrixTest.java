@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import toolrental.holiday.PrecomputedHolidayCalendar;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.service.PricingMode;
+import toolrental.service.QuoteMatrix;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+import toolrental.tools.ToolTypePricing;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public class QuoteMatrixTest {
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final ToolCatalog CATALOG = new ToolCatalog(ToolLoader.loadTools());
+
+    @Test
+    public void testQuoteMatrix_MatchesQuoteForEveryLength() {
+        for (PricingMode mode : PricingMode.values()) {
+            CheckoutService service = new CheckoutService(CATALOG, PrecomputedHolidayCalendar.standard(), mode);
+            for (LocalDate date = LocalDate.of(2015, 6, 20); date.isBefore(LocalDate.of(2015, 9, 15)); date = date.plusDays(3)) {
+                for (String code : TOOL_CODES) {
+                    for (int discount : new int[] {0, 10, 33, 50, 100}) {
+                        assertMatchesQuotes(service, service.quoteMatrix(code, 90, discount, date), code);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQuoteMatrices_CoverEveryToolTypeWithCustomPricing() {
+        ToolTypePricing pricing = ToolTypePricing.standard().with(ToolType.LADDER, 250, true, false, true);
+        CheckoutService service = CheckoutService.builder().toolCatalog(CATALOG).toolTypePricing(pricing).build();
+        LocalDate date = LocalDate.of(2020, 6, 30);
+        Map<ToolType, QuoteMatrix> matrices = service.quoteMatrices(45, 20, date);
+
+        assertEquals(ToolType.values().length, matrices.size());
+        assertMatchesQuotes(service, matrices.get(ToolType.LADDER), "LADW");
+        assertMatchesQuotes(service, matrices.get(ToolType.CHAINSAW), "CHNS");
+        assertMatchesQuotes(service, matrices.get(ToolType.JACKHAMMER), "JAKR");
+        assertArrayEquals(service.quoteMatrix("JAKD", 45, 20, date).getFinalCents(), matrices.get(ToolType.JACKHAMMER).getFinalCents());
+    }
+
+    @Test
+    public void testCheapestRentalDays_PicksTheShortestCheapestLength() {
+        CheckoutService service = new CheckoutService(CATALOG);
+        // Jackhammers are not charged on weekends or holidays, so renting through Friday 2015-07-03 (observed
+        // Independence Day) and the weekend costs the same as renting for the Thursday alone.
+        QuoteMatrix matrix = service.quoteMatrix("JAKR", 10, 0, LocalDate.of(2015, 7, 1));
+        assertEquals(1, matrix.cheapestRentalDays(1));
+        assertEquals(2, matrix.cheapestRentalDays(2));
+        assertEquals(matrix.getFinalCents()[0], matrix.getFinalCents()[3]);
+        assertEquals(2 * matrix.getFinalCents()[0], matrix.getFinalCents()[4]);
+        assertEquals(-1, matrix.cheapestRentalDays(11));
+    }
+
+    @Test
+    public void testQuoteMatrix_RejectsInvalidParameters() {
+        CheckoutService service = new CheckoutService(CATALOG);
+        LocalDate date = LocalDate.of(2015, 7, 2);
+        assertEquals("Rental day count must be 1 or greater.",
+                assertThrows(IllegalArgumentException.class, () -> service.quoteMatrix("LADW", 0, 0, date)).getMessage());
+        assertEquals("Discount percent must be between 0 and 100.",
+                assertThrows(IllegalArgumentException.class, () -> service.quoteMatrices(30, 101, date)).getMessage());
+        assertEquals("Invalid tool code.",
+                assertThrows(IllegalArgumentException.class, () -> service.quoteMatrix("NOPE", 30, 0, date)).getMessage());
+    }
+
+    private static void assertMatchesQuotes(CheckoutService service, QuoteMatrix matrix, String code) {
+        for (int days = 1; days <= matrix.getMaxRentalDays(); days++) {
+            RentalAgreement agreement = service.quote(code, days, matrix.getDiscountPercent(), matrix.getCheckoutDate());
+            String context = code + " for " + days + " days from " + matrix.getCheckoutDate();
+            assertEquals(agreement.getChargeDays(), matrix.getChargeDays()[days - 1], context);
+            assertEquals(agreement.getPreDiscountChargeCents(), matrix.getPreDiscountCents()[days - 1], context);
+            assertEquals(agreement.getDiscountAmountCents(), matrix.getDiscountCents()[days - 1], context);
+            assertEquals(agreement.getFinalChargeCents(), matrix.getFinalCents()[days - 1], context);
+        }
+    }
+}
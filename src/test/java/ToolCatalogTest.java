@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.constants.ToolBrand;
+import toolrental.loader.ToolLoader;
+import toolrental.tools.Tool;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ToolCatalogTest {
+
+    @Test
+    public void testFindTool_IgnoresCase() {
+        ToolCatalog catalog = new ToolCatalog(ToolLoader.loadTools());
+
+        assertEquals(4, catalog.size());
+        assertEquals(ToolBrand.RIDGID, catalog.findTool("jakr").getToolBrand());
+        assertEquals(ToolBrand.WERNER, catalog.findTool(new StringBuilder("LaDw")).getToolBrand());
+        assertNull(catalog.findTool("JAK"));
+        assertNull(catalog.findTool(null));
+    }
+
+    @Test
+    public void testPutAndRemoveTool_PublishNewSnapshots() {
+        ToolCatalog catalog = new ToolCatalog(ToolLoader.loadTools());
+        ToolCatalog.Snapshot before = catalog.snapshot();
+
+        catalog.putTool(new Tool("JAKR", ToolType.LADDER, ToolBrand.RIDGID));
+        assertEquals(ToolType.LADDER, catalog.findTool("JAKR").getToolType());
+        assertEquals(ToolType.JACKHAMMER, before.findTool("JAKR").getToolType());
+        assertEquals(4, catalog.size());
+
+        assertTrue(catalog.removeTool("chns"));
+        assertFalse(catalog.removeTool("CHNS"));
+        assertNull(catalog.findTool("CHNS"));
+        assertNotNull(before.findTool("CHNS"));
+        assertEquals(3, catalog.size());
+        assertTrue(catalog.getVersion() > before.getVersion());
+    }
+
+    @Test
+    public void testFindTool_WhileCatalogIsUpdatedConcurrently() throws InterruptedException {
+        List<Tool> tools = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tools.add(new Tool("T" + i, ToolType.values()[i % 3], ToolBrand.values()[i % 4]));
+        }
+        ToolCatalog catalog = new ToolCatalog(tools);
+        Tool stable = catalog.findTool("T42");
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+
+        Thread reader = new Thread(() -> {
+            while (writing.get()) {
+                if (catalog.findTool("t42") != stable) {
+                    misses.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200; i++) {
+            catalog.putTool(new Tool("NEW" + i, ToolType.CHAINSAW, ToolBrand.STIHL));
+            catalog.removeTool("T" + (1000 + i));
+        }
+        writing.set(false);
+        reader.join();
+
+        assertEquals(0, misses.get());
+        assertSame(stable, catalog.findTool("T42"));
+        assertEquals(10_000, catalog.size());
+    }
+}
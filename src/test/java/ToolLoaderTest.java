@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import toolrental.constants.ToolBrand;
+import toolrental.loader.ToolLoader;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutService;
+import toolrental.tools.Tool;
+import toolrental.tools.ToolCatalog;
+import toolrental.tools.ToolType;
+import toolrental.tools.ToolTypePricing;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ToolLoaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testLoadTools_FromCsv() throws IOException {
+        List<Tool> tools = ToolLoader.loadTools(new StringReader(
+                "toolCode,toolType,toolBrand\n"
+                        + "CHNS,CHAINSAW,STIHL\n"
+                        + "\n"
+                        + " ladx , ladder , werner \n"));
+
+        assertEquals(2, tools.size());
+        assertEquals("ladx", tools.get(1).getToolCode());
+        assertEquals(ToolType.LADDER, tools.get(1).getToolType());
+        assertEquals(ToolBrand.WERNER, tools.get(1).getToolBrand());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                ToolLoader.loadTools(new StringReader("CHNS,CHAINSAW,STIHL\nSAWX,SAW,STIHL\n")));
+        assertEquals("Invalid tool on line 2: SAWX,SAW,STIHL", exception.getMessage());
+    }
+
+    @Test
+    public void testLoadPricing_RepricesCheckouts() throws IOException {
+        ToolTypePricing pricing = ToolLoader.loadPricing(new StringReader(
+                "toolType,dailyCharge,weekdayCharge,weekendCharge,holidayCharge\n"
+                        + "LADDER,2.50,true,false,false\n"));
+        assertEquals(250, pricing.getDailyChargeCents(ToolType.LADDER));
+        assertEquals(ToolType.CHAINSAW.getDailyCharge(), pricing.getDailyCharge(ToolType.CHAINSAW));
+
+        CheckoutService service = CheckoutService.builder().toolCatalog(new ToolCatalog(ToolLoader.loadTools()))
+                .toolTypePricing(pricing).build();
+        // July 4th 2020 is a Saturday, observed on Friday the 3rd; the weekend is no longer charged.
+        RentalAgreement agreement = service.checkout("LADW", 5, 0, LocalDate.of(2020, 7, 2));
+        assertEquals(2.50, agreement.getDailyRentalCharge());
+        assertEquals(2, agreement.getChargeDays());
+        assertEquals(5.00, agreement.getFinalCharge());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                ToolLoader.loadPricing(new StringReader("LADDER,2.505,true,true,false\n")));
+        assertEquals("Invalid pricing on line 1: LADDER,2.505,true,true,false", exception.getMessage());
+    }
+
+    @Test
+    public void testSnapshot_RoundTripsLargeCatalog() throws IOException {
+        List<Tool> tools = generateTools(200_000);
+        Path file = directory.resolve("tools.snapshot");
+        ToolLoader.writeSnapshot(tools, file);
+
+        ToolCatalog catalog = ToolLoader.openSnapshot(file);
+
+        assertEquals(tools.size(), catalog.size());
+        for (int i = 0; i < tools.size(); i += 7) {
+            Tool expected = tools.get(i);
+            Tool actual = catalog.findTool(expected.getToolCode().toLowerCase());
+            assertEquals(expected.getToolCode(), actual.getToolCode());
+            assertEquals(expected.getToolType(), actual.getToolType());
+            assertEquals(expected.getToolBrand(), actual.getToolBrand());
+            assertSame(actual, catalog.findTool(expected.getToolCode()));
+        }
+        assertNull(catalog.findTool("NOPE"));
+        assertNull(catalog.findTool(null));
+        assertEquals(tools.size(), catalog.snapshot().getTools().size());
+    }
+
+    @Test
+    public void testSnapshot_ChangesOverlayMappedBase() throws IOException {
+        Path file = directory.resolve("tools.snapshot");
+        ToolLoader.writeSnapshot(ToolLoader.loadTools(), file);
+        ToolCatalog catalog = ToolLoader.openSnapshot(file);
+
+        catalog.putTool(new Tool("JAKR", ToolType.LADDER, ToolBrand.RIDGID));
+        catalog.putTool(new Tool("NEW1", ToolType.CHAINSAW, ToolBrand.STIHL));
+        assertEquals(ToolType.LADDER, catalog.findTool("jakr").getToolType());
+        assertEquals(5, catalog.size());
+
+        assertTrue(catalog.removeTool("CHNS"));
+        assertTrue(catalog.removeTool("JAKR"));
+        assertNull(catalog.findTool("CHNS"));
+        assertNull(catalog.findTool("JAKR"));
+        assertEquals(3, catalog.size());
+        assertEquals(3, catalog.snapshot().getTools().size());
+
+        catalog.putTool(new Tool("CHNS", ToolType.CHAINSAW, ToolBrand.DEWALT));
+        assertEquals(ToolBrand.DEWALT, catalog.findTool("CHNS").getToolBrand());
+        assertEquals(4, catalog.size());
+    }
+
+    @Test
+    public void testOpenSnapshot_WithCorruptOrForeignFile_ThrowsException() throws IOException {
+        Path file = directory.resolve("tools.snapshot");
+        ToolLoader.writeSnapshot(ToolLoader.loadTools(), file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            raf.write('Z');
+        }
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ToolLoader.openSnapshot(file));
+        assertEquals("Tool snapshot checksum does not match: " + file, exception.getMessage());
+
+        ToolLoader.writeSnapshot(ToolLoader.loadTools(), file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4);
+            raf.writeInt(99);
+        }
+        exception = assertThrows(IllegalArgumentException.class, () -> ToolLoader.openSnapshot(file));
+        assertEquals("Unsupported tool snapshot version 99: " + file, exception.getMessage());
+
+        Path text = Files.write(directory.resolve("tools.csv"), "CHNS,CHAINSAW,STIHL\nLADW,LADDER,WERNER\n".getBytes("US-ASCII"));
+        exception = assertThrows(IllegalArgumentException.class, () -> ToolLoader.openSnapshot(text));
+        assertEquals("Not a tool snapshot: " + text, exception.getMessage());
+    }
+
+    private static List<Tool> generateTools(int count) {
+        ToolType[] types = ToolType.values();
+        ToolBrand[] brands = ToolBrand.values();
+        List<Tool> tools = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tools.add(new Tool("T" + Integer.toString(i, 36).toUpperCase(), types[i % types.length], brands[i % brands.length]));
+        }
+        return tools;
+    }
+}
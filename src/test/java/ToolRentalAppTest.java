@@ -9,6 +9,7 @@ import toolrental.loader.ToolLoader;
 import toolrental.rental.RentalAgreement;
 import toolrental.service.CheckoutService;
 import toolrental.tools.Tool;
+import toolrental.tools.ToolCatalog;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -20,7 +21,7 @@ public class ToolRentalAppTest {
     @BeforeAll
     public static void setup() {
         List<Tool> tools = ToolLoader.loadTools();
-        checkoutService = new CheckoutService(tools);
+        checkoutService = new CheckoutService(new ToolCatalog(tools));
     }
 
     @Test
@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import toolrental.inventory.Inventory;
+import toolrental.loader.ToolLoader;
+import toolrental.metrics.CheckoutMetrics;
+import toolrental.rental.AgreementEncoder;
+import toolrental.rental.RentalAgreement;
+import toolrental.service.CheckoutErrorCode;
+import toolrental.service.CheckoutResult;
+import toolrental.service.CheckoutService;
+import toolrental.tools.ToolCatalog;
+
+import java.time.LocalDate;
+
+public class TryCheckoutTest {
+    private static final LocalDate JULY_2 = LocalDate.of(2015, 7, 2);
+
+    private final CheckoutService service = new CheckoutService(new ToolCatalog(ToolLoader.loadTools()));
+
+    @Test
+    public void testTryCheckout_ReportsEachRejectionWithItsCode() {
+        assertFailure(CheckoutErrorCode.INVALID_RENTAL_DAYS, service.tryCheckout("JAKR", 0, 10, JULY_2));
+        assertFailure(CheckoutErrorCode.INVALID_DISCOUNT_PERCENT, service.tryCheckout("JAKR", 5, 101, JULY_2));
+        assertFailure(CheckoutErrorCode.INVALID_TOOL_CODE, service.tryCheckout("NOPE", 5, 10, JULY_2));
+        assertFailure(CheckoutErrorCode.INVALID_TOOL_CODE, service.tryQuote("NOPE", 5, 10, JULY_2));
+        assertFailure(CheckoutErrorCode.INVALID_RENTAL_DAYS, service.tryQuote("JAKR", -1, 10, JULY_2));
+
+        // Rejections share one result per code.
+        assertSame(service.tryCheckout("NOPE", 5, 10, JULY_2), service.tryCheckout("ZZZZ", 5, 10, JULY_2));
+    }
+
+    @Test
+    public void testTryCheckout_MatchesCheckoutOnSuccess() {
+        CheckoutResult result = service.tryCheckout("LADW", 3, 10, JULY_2);
+        assertTrue(result.isSuccess());
+        assertNull(result.getErrorCode());
+        assertNull(result.getErrorMessage());
+        assertEquals(json(service.checkout("LADW", 3, 10, JULY_2)), json(result.getAgreement()));
+        assertEquals(json(service.quote("LADW", 3, 10, JULY_2)), json(service.tryQuote("LADW", 3, 10, JULY_2).getAgreement()));
+    }
+
+    @Test
+    public void testTryCheckout_WithMillionsOfYears_PricesWithoutWalkingTheYears() {
+        CheckoutResult result = service.tryCheckout("LADW", 2_000_000_000, 0, JULY_2);
+        assertTrue(result.isSuccess());
+        // Ladders are charged on every day but the two holidays of each of the rental's 5.5 million years.
+        int holidays = 2_000_000_000 - result.getAgreement().getChargeDays();
+        assertTrue(holidays >= 10_950_000 && holidays <= 10_952_000, "Holidays: " + holidays);
+    }
+
+    @Test
+    public void testCheckout_ThrowsTheCodeMessage() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                service.checkout("NOPE", 5, 10, JULY_2));
+        assertEquals(CheckoutErrorCode.INVALID_TOOL_CODE.getMessage(), exception.getMessage());
+    }
+
+    @Test
+    public void testTryCheckout_WithInventoryAndMetrics_RecordsUnavailableUnit() {
+        Inventory inventory = new Inventory();
+        inventory.addUnits("JAKR", 1);
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        CheckoutService reserving = CheckoutService.builder().toolCatalog(service.getToolCatalog()).inventory(inventory)
+                .metrics(metrics).build();
+
+        assertTrue(reserving.tryCheckout("JAKR", 5, 0, JULY_2).isSuccess());
+        assertFailure(CheckoutErrorCode.NO_UNIT_AVAILABLE, reserving.tryCheckout("JAKR", 5, 0, JULY_2.plusDays(2)));
+        assertEquals(1, metrics.snapshot().getFailures(CheckoutErrorCode.NO_UNIT_AVAILABLE));
+        assertEquals(1, metrics.snapshot().getTotalCheckouts());
+    }
+
+    private static void assertFailure(CheckoutErrorCode expected, CheckoutResult result) {
+        assertFalse(result.isSuccess());
+        assertNull(result.getAgreement());
+        assertEquals(expected, result.getErrorCode());
+        assertEquals(expected.getMessage(), result.getErrorMessage());
+    }
+
+    private static String json(RentalAgreement agreement) {
+        return AgreementEncoder.appendJson(agreement, new StringBuilder()).toString();
+    }
+}